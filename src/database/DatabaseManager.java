@@ -7,7 +7,10 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import logic.*;
 
@@ -24,9 +27,15 @@ import logic.*;
 
 public class DatabaseManager {
     private static final String PROPERTIES_FILE = "database_credentials.properties";
+    private static final int BATCH_SIZE = 500;
+    // Wide enough for the hashes of PasswordHasher, with room for a longer salt or hash
+    private static final int PASSWORD_COLUMN_SIZE = 255;
     private static String url;
     private static String username;
     private static String password;
+    private static volatile boolean schemaChecked = false;
+    private static volatile boolean phoneKeyColumn = false;
+    private static volatile boolean passwordColumnWide = false;
     
     // Static initializer for database connection properties
     static {
@@ -49,7 +58,184 @@ public class DatabaseManager {
      * @throws SQLException If a database access error occurs or the url is {@code null}
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, username, password);
+        Connection connection = DriverManager.getConnection(url, username, password);
+        if (!schemaChecked) {
+            upgradeSchema(connection);
+        }
+        return connection;
+    }
+    
+    /**
+     * Adds to the database the columns and indexes introduced after the original schema, if they are missing.
+     * The check runs once, on the first connection. The phoneKey column holds the canonical number computed by
+     * {@link PhoneNumber}, which the database cannot compute, so it is written with every insert and update, and the
+     * keys still missing, of the persons stored before the column or while a previous fill failed, are filled here.
+     * The password column of the User table is widened to hold the password hashes.
+     * <p>
+     * Every step runs on its own, so a step the database refuses, for lack of the ALTER privilege, does not prevent
+     * the others; the error is printed and the features relying on the step keep working without it, as told by
+     * {@link #hasPhoneKeyColumn()} and {@link #canStorePasswordHashes()}. A failed step is not tried again until the
+     * application restarts.
+     * 
+     * @param connection The connection used to inspect and alter the schema.
+     */
+    private static synchronized void upgradeSchema(Connection connection) {
+        if (schemaChecked) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (!hasColumn(connection, "Person", "phoneKey")) {
+                statement.executeUpdate("ALTER TABLE Person ADD COLUMN phoneKey BIGINT NULL");
+                statement.executeUpdate("CREATE INDEX idx_person_phone_key ON Person (userId, phoneKey)");
+            }
+            phoneKeyColumn = true;
+            fillPhoneKeys(connection);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                // The column may have been added before a later statement failed: it is written from now on
+                phoneKeyColumn = hasColumn(connection, "Person", "phoneKey");
+            } catch (SQLException e1) {
+                e1.printStackTrace();
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (columnSize(connection, "User", "password") < PASSWORD_COLUMN_SIZE) {
+                statement.executeUpdate("ALTER TABLE User MODIFY password VARCHAR(" + PASSWORD_COLUMN_SIZE + ") NOT NULL");
+            }
+            passwordColumnWide = columnSize(connection, "User", "password") >= PASSWORD_COLUMN_SIZE;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        schemaChecked = true;
+    }
+    
+    /**
+     * Makes sure the schema was checked and upgraded, opening a connection if none was opened yet.
+     */
+    private static void checkSchema() {
+        if (schemaChecked) {
+            return;
+        }
+        try {
+            // getConnection() upgrades the schema
+            getConnection().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Checks whether the Person table has the phoneKey column, which is written with every insert and update only if
+     * it could be added.
+     * 
+     * @return true if the column exists, false if the database refused to add it or cannot be reached.
+     */
+    public static boolean hasPhoneKeyColumn() {
+        checkSchema();
+        return phoneKeyColumn;
+    }
+    
+    /**
+     * Checks whether the password column of the User table is wide enough to store the hashes of
+     * {@link PasswordHasher}; a narrower column would truncate or reject them.
+     * 
+     * @return true if the column can store the hashes, false if it could not be widened or the database cannot be
+     * reached.
+     */
+    public static boolean canStorePasswordHashes() {
+        checkSchema();
+        return passwordColumnWide;
+    }
+    
+    /**
+     * Computes and stores, in batches, the phone key of every person that has none yet. A number that cannot be
+     * normalized has no key and stays NULL.
+     * 
+     * @param connection The connection to the database.
+     * @throws SQLException If a database access error occurs.
+     */
+    private static void fillPhoneKeys(Connection connection) throws SQLException {
+        try (Statement select = connection.createStatement();
+             ResultSet resultSet = select.executeQuery("SELECT id, phone FROM Person WHERE phoneKey IS NULL");
+             PreparedStatement update = connection.prepareStatement("UPDATE Person SET phoneKey = ? WHERE id = ?")) {
+            int pending = 0;
+            while (resultSet.next()) {
+                long key = PhoneNumber.toKey(resultSet.getString("phone"));
+                if (key == 0) {
+                    continue;
+                }
+                update.setLong(1, key);
+                update.setString(2, resultSet.getString("id"));
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+    
+    /**
+     * Builds the statement inserting a person, with the phoneKey column only if the Person table has it.
+     * 
+     * @return The SQL of the statement.
+     */
+    private static String insertPersonSql() {
+        if (hasPhoneKeyColumn()) {
+            return "INSERT INTO Person (id, userId, name, surname, address, phone, age, phoneKey) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        }
+        return "INSERT INTO Person (id, userId, name, surname, address, phone, age) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    }
+    
+    /**
+     * Sets the phone key parameter of a statement, writing NULL for a number that could not be normalized.
+     * 
+     * @param preparedStatement The statement.
+     * @param index The index of the parameter.
+     * @param key The phone key, or 0 if there is none.
+     * @throws SQLException If a database access error occurs.
+     */
+    private static void setPhoneKey(PreparedStatement preparedStatement, int index, long key) throws SQLException {
+        if (key != 0) {
+            preparedStatement.setLong(index, key);
+        }
+        else {
+            preparedStatement.setNull(index, Types.BIGINT);
+        }
+    }
+    
+    /**
+     * Checks if a table of the current database has a column.
+     * 
+     * @param connection The connection to the database.
+     * @param table The name of the table.
+     * @param column The name of the column.
+     * @return true if the column exists, false otherwise.
+     * @throws SQLException If a database access error occurs.
+     */
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+            return resultSet.next();
+        }
+    }
+    
+    /**
+     * Retrieves the declared size of a column of the current database, such as the length of a VARCHAR.
+     * 
+     * @param connection The connection to the database.
+     * @param table The name of the table.
+     * @param column The name of the column.
+     * @return The size of the column, or 0 if the column does not exist.
+     * @throws SQLException If a database access error occurs.
+     */
+    private static int columnSize(Connection connection, String table, String column) throws SQLException {
+        try (ResultSet resultSet = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+            return resultSet.next() ? resultSet.getInt("COLUMN_SIZE") : 0;
+        }
     }
     
     /**
@@ -187,7 +373,7 @@ public class DatabaseManager {
      * @throws SQLException If a database access error occurs or the SQL statement is incorrect.
      */
     public static void insertPerson(Person person, User u) {
-        String sql = "INSERT INTO Person (id, userId, name, surname, address, phone, age) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String sql = insertPersonSql();
         try (Connection connection = getConnection();
             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
             preparedStatement.setString(1, person.getId().toString());
@@ -197,6 +383,9 @@ public class DatabaseManager {
             preparedStatement.setString(5, person.getAddress());
             preparedStatement.setString(6, person.getPhone());
             preparedStatement.setInt(7, person.getAge());
+            if (phoneKeyColumn) {
+                setPhoneKey(preparedStatement, 8, person.getPhoneKey());
+            }
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -204,6 +393,60 @@ public class DatabaseManager {
         u.getTable().addContact(person);
     }
     
+    /**
+     * Inserts several persons into the database with batched statements of up to {@value #BATCH_SIZE} persons,
+     * in a single transaction, and then adds them to the user's table at once. With MySQL the batches are sent as
+     * multi-row inserts when the connection URL sets {@code rewriteBatchedStatements=true}.
+     * If the insert fails, the transaction is rolled back and the table is left unchanged.
+     * 
+     * @param persons The persons to insert, already validated.
+     * @param u The user associated with the persons. This parameter is used to update the user's local data.
+     * @return true if the persons were saved, false if the insert failed.
+     */
+    public static boolean insertPersons(List<Person> persons, User u) {
+        if (persons.isEmpty()) {
+            return true;
+        }
+        String sql = insertPersonSql();
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            try {
+                String userId = u.getId().toString();
+                int pending = 0;
+                for (Person person : persons) {
+                    preparedStatement.setString(1, person.getId().toString());
+                    preparedStatement.setString(2, userId);
+                    preparedStatement.setString(3, person.getName());
+                    preparedStatement.setString(4, person.getSurname());
+                    preparedStatement.setString(5, person.getAddress());
+                    preparedStatement.setString(6, person.getPhone());
+                    preparedStatement.setInt(7, person.getAge());
+                    if (phoneKeyColumn) {
+                        setPhoneKey(preparedStatement, 8, person.getPhoneKey());
+                    }
+                    preparedStatement.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        preparedStatement.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    preparedStatement.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+        u.getTable().addContacts(persons);
+        return true;
+    }
+    
     /**
      * Deletes a person from the database based on their ID.
      * 
@@ -224,17 +467,54 @@ public class DatabaseManager {
     }
     
     /**
-     * Deletes all persons associated with a given user from the database.
+     * Deletes several persons from the database with batched statements, each removing up to
+     * {@value #BATCH_SIZE} persons by ID, and then removes them from the user's table in one pass.
+     * No person is read back from the database.
+     * 
+     * @param persons The persons to delete.
+     * @param u The user associated with the persons. This parameter is used to update the user's local data.
+     */
+    public static void deletePersons(List<Person> persons, User u) {
+        if (persons.isEmpty()) {
+            return;
+        }
+        try (Connection connection = getConnection()) {
+            for (int from = 0; from < persons.size(); from += BATCH_SIZE) {
+                List<Person> batch = persons.subList(from, Math.min(from + BATCH_SIZE, persons.size()));
+                StringBuilder sql = new StringBuilder("DELETE FROM Person WHERE userId = ? AND id IN (");
+                for (int i = 0; i < batch.size(); i++) {
+                    sql.append(i == 0 ? "?" : ", ?");
+                }
+                sql.append(")");
+                try (PreparedStatement preparedStatement = connection.prepareStatement(sql.toString())) {
+                    preparedStatement.setString(1, u.getId().toString());
+                    for (int i = 0; i < batch.size(); i++) {
+                        preparedStatement.setString(i + 2, batch.get(i).getId().toString());
+                    }
+                    preparedStatement.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        u.getTable().deleteContacts(persons);
+    }
+    
+    /**
+     * Deletes all persons associated with a given user from the database, with a single statement.
      * 
      * @param user The user whose associated persons are to be deleted.
      */
     private static void deleteAllPersonsByUserId(User user){
-        if (user.getTable().getPersons().isEmpty()) {
-            return; 
+        String sql = "DELETE FROM Person WHERE userId = ?";
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+            preparedStatement.setString(1, user.getId().toString());
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
-    	for (int i = user.getTable().getPersons().size() - 1; i >= 0; i--) {
-    		deletePerson(user.getTable().getPersons().get(i), user);
-    	}
+        user.getTable().deleteContacts(user.getTable().getPersons());
     }
     
     /**
@@ -281,15 +561,21 @@ public class DatabaseManager {
      * @throws SQLException If a database access error occurs or the SQL statement is incorrect.
      */
     public static void updatePerson(Person person, User user) {
-        String sql = "UPDATE Person SET name = ?, surname = ?, address = ?, phone = ?, age = ? WHERE id = ?";
+        boolean withKey = hasPhoneKeyColumn();
+        String sql = "UPDATE Person SET name = ?, surname = ?, address = ?, phone = ?, age = ?"
+                + (withKey ? ", phoneKey = ?" : "") + " WHERE id = ?";
         try (Connection connection = getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            preparedStatement.setString(1, person.getName());
-            preparedStatement.setString(2, person.getSurname());
-            preparedStatement.setString(3, person.getAddress());
-            preparedStatement.setString(4, person.getPhone());
-            preparedStatement.setInt(5, person.getAge());
-            preparedStatement.setString(6, person.getId().toString());
+            int i = 1;
+            preparedStatement.setString(i++, person.getName());
+            preparedStatement.setString(i++, person.getSurname());
+            preparedStatement.setString(i++, person.getAddress());
+            preparedStatement.setString(i++, person.getPhone());
+            preparedStatement.setInt(i++, person.getAge());
+            if (withKey) {
+                setPhoneKey(preparedStatement, i++, person.getPhoneKey());
+            }
+            preparedStatement.setString(i, person.getId().toString());
             preparedStatement.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -301,20 +587,35 @@ public class DatabaseManager {
      * Updates the details of an existing user in the database.
      * 
      * @param user The user with updated details.
-     * @throws SQLException If a database access error occurs or the SQL statement is incorrect.
+     * @return true if the user was saved, false if a database error occurred or the user is not in the database.
      */
-    public static void updateUser(User user) {
+    public static boolean updateUser(User user) {
+        return updateUser(user, user.getName(), user.getSurname(), user.getUsername());
+    }
+    
+    /**
+     * Updates the details of an existing user in the database with new credentials, without changing the User object,
+     * so that it can be changed only once they are saved.
+     * 
+     * @param user The user to update, which gives the ID and the password.
+     * @param name The new name.
+     * @param surname The new surname.
+     * @param username The new username.
+     * @return true if the user was saved, false if a database error occurred or the user is not in the database.
+     */
+    public static boolean updateUser(User user, String name, String surname, String username) {
         String sql = "UPDATE User SET name = ?, surname = ?, username = ?, password = ? WHERE id = ?";
         try (Connection connection = getConnection();
              PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
-            preparedStatement.setString(1, user.getName());
-            preparedStatement.setString(2, user.getSurname());
-            preparedStatement.setString(3, user.getUsername());
+            preparedStatement.setString(1, name);
+            preparedStatement.setString(2, surname);
+            preparedStatement.setString(3, username);
             preparedStatement.setString(4, user.getPassword());
             preparedStatement.setString(5, user.getId().toString());
-            preparedStatement.executeUpdate();
+            return preparedStatement.executeUpdate() == 1;
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
     
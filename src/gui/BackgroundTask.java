@@ -0,0 +1,175 @@
+package gui;
+
+import java.awt.Component;
+import java.awt.Cursor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.JComponent;
+import javax.swing.JRootPane;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * Runs the slow work of a window, such as a database call or a search on a large phonebook, away from the Event
+ * Dispatch Thread, and hands its outcome back to the EDT, so the window keeps answering the user however slow the work
+ * is. The tasks run one at a time, in the order they were started, on a single background thread, so the changes made
+ * by the user reach the database in the order they were made.
+ * <p>
+ * While a task runs, its window shows the wait cursor and the controls that started it are disabled. Quick tasks that
+ * are started and replaced as the user types, such as the searches on the in-memory contacts, run instead on an
+ * executor of their own, through {@link #runOn(ExecutorService, Callable, Consumer, Consumer)}, so they neither wait
+ * behind the database calls nor show the window as busy. A task can be cancelled: if it has not started it never runs, otherwise it runs to the end, since a database call cannot be
+ * stopped safely, but its outcome is discarded.
+ * @author Leuti Michele
+ */
+final class BackgroundTask<T> extends SwingWorker<T, Void> {
+	private static final String BUSY_KEY = "phonebook.busyTasks";
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "phonebook-background");
+		t.setDaemon(true);
+		return t;
+	});
+	private final Component owner;
+	private final Callable<T> work;
+	private final Consumer<T> onSuccess;
+	private final Consumer<Throwable> onError;
+	private final JComponent[] controls;
+	private final String origin;
+
+	/**
+     * Constructs a task. Tasks are started through {@link #run(Component, Callable, Consumer, Consumer, JComponent...)}.
+     *
+     * @param owner The window, or a component of it, showing the task as busy.
+     * @param work The work to run in the background.
+     * @param onSuccess Receives the result of the work on the EDT.
+     * @param onError Receives the exception thrown by the work on the EDT.
+     * @param controls The controls disabled while the task runs.
+     */
+	private BackgroundTask(Component owner, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError,
+			JComponent[] controls) {
+		this.owner = owner;
+		this.work = work;
+		this.onSuccess = onSuccess;
+		this.onError = onError;
+		this.controls = controls;
+		this.origin = EdtWatchdog.currentAction();
+	}
+
+	/**
+     * Starts a task in the background. Must be called on the EDT.
+     *
+     * @param <T> The type of the result of the work.
+     * @param owner The window, or a component of it, showing the task as busy.
+     * @param work The work to run in the background; it must not touch Swing components.
+     * @param onSuccess Receives the result of the work on the EDT.
+     * @param onError Receives the exception thrown by the work on the EDT.
+     * @param controls The controls disabled while the task runs, such as the button that started it.
+     * @return The started task, which can be cancelled.
+     */
+	static <T> BackgroundTask<T> run(Component owner, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError,
+			JComponent... controls) {
+		BackgroundTask<T> task = new BackgroundTask<T>(owner, work, onSuccess, onError, controls);
+		task.setBusy(true);
+		EXECUTOR.execute(task);
+		return task;
+	}
+
+	/**
+     * Starts a task on a given executor, without showing any window as busy. Must be called on the EDT.
+     *
+     * @param <T> The type of the result of the work.
+     * @param executor The executor running the work.
+     * @param work The work to run in the background; it must not touch Swing components.
+     * @param onSuccess Receives the result of the work on the EDT.
+     * @param onError Receives the exception thrown by the work on the EDT.
+     * @return The started task, which can be cancelled.
+     */
+	static <T> BackgroundTask<T> runOn(ExecutorService executor, Callable<T> work, Consumer<T> onSuccess,
+			Consumer<Throwable> onError) {
+		BackgroundTask<T> task = new BackgroundTask<T>(null, work, onSuccess, onError, new JComponent[0]);
+		executor.execute(task);
+		return task;
+	}
+
+	/**
+     * Cancels the task: its outcome will not be delivered. Must be called on the EDT.
+     */
+	void cancel() {
+		this.cancel(false);
+	}
+
+	/**
+     * Runs the work on the background thread.
+     *
+     * @return The result of the work.
+     * @throws Exception If the work fails.
+     */
+	@Override
+	protected T doInBackground() throws Exception {
+		return this.work.call();
+	}
+
+	/**
+     * Releases the window and delivers the outcome of the work on the EDT, unless the task was cancelled. While the
+     * outcome is handled, the work of the EDT is tagged with the action that started the task for the reports of
+     * {@link EdtWatchdog}.
+     */
+	@Override
+	protected void done() {
+		this.setBusy(false);
+		if (this.isCancelled()) {
+			// A task cancelled on the EDT ends inside the action that cancelled it, which keeps its tag
+			return;
+		}
+		EdtWatchdog.actionStarted("BackgroundTask", this.origin != null ? "done of " + this.origin : "done");
+		try {
+			this.deliver();
+		}
+		finally {
+			EdtWatchdog.actionEnded();
+		}
+	}
+
+	/**
+     * Hands the result or the exception of the work to the callbacks.
+     */
+	private void deliver() {
+		T result;
+		try {
+			result = this.get();
+		}
+		catch (ExecutionException e) {
+			this.onError.accept(e.getCause());
+			return;
+		}
+		catch (InterruptedException e) {
+			// done() runs after the work has finished, so get() does not wait
+			Thread.currentThread().interrupt();
+			return;
+		}
+		this.onSuccess.accept(result);
+	}
+
+	/**
+     * Marks the window of the task as busy or releases it. The window shows the wait cursor as long as any of its tasks
+     * is running.
+     *
+     * @param busy True when the task starts, false when it ends.
+     */
+	private void setBusy(boolean busy) {
+		for (JComponent control : this.controls) {
+			control.setEnabled(!busy);
+		}
+		JRootPane root = SwingUtilities.getRootPane(this.owner);
+		if (root == null) {
+			return;
+		}
+		Object running = root.getClientProperty(BUSY_KEY);
+		int count = (running instanceof Integer ? (Integer) running : 0) + (busy ? 1 : -1);
+		root.putClientProperty(BUSY_KEY, count);
+		root.setCursor(count > 0 ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+	}
+}
@@ -0,0 +1,212 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+
+import logic.Person;
+import table.PageCursor;
+import table.TableListener;
+
+/**
+ * The contacts shown by the list of the main view, sorted by name, surname and ID.
+ * Registered as a listener of the user's table, the model follows every change of the table with the smallest list
+ * event: an added contact inserts one row, an edited one repaints its row or moves it, a deleted one removes its row.
+ * The list then repaints only the affected rows, whatever the number of contacts.
+ * <p>
+ * The model shows either all the contacts of the user or the results of a search. While it shows search results, added
+ * contacts are not inserted, but edited and deleted ones are still updated. The changes of the table may come from any
+ * thread and are applied on the Event Dispatch Thread; every other method must be called on the EDT.
+ * @author Leuti Michele
+ */
+final class ContactListModel extends AbstractListModel<Person> implements TableListener {
+	private static final long serialVersionUID = -3365462512784520813L;
+	/**
+	 * The order of the contacts in the list, the same as the pages of search results.
+	 */
+	static final Comparator<Person> ORDER = PageCursor.ORDER;
+	/**
+	 * The number of contacts changed at once beyond which the list is rebuilt instead of updated row by row.
+	 */
+	private static final int BULK_CHANGE = 64;
+	private final ArrayList<Person> persons = new ArrayList<Person>();
+	// Keyed by ID through Person::compareId, so a lookup creates no UUID
+	private final TreeMap<Person, Person> byId = new TreeMap<Person, Person>(Person::compareId);
+	private boolean all;
+
+	/**
+     * Replaces the contacts shown by the list.
+     *
+     * @param contacts The contacts to show, in any order.
+     * @param all True if the contacts are all the contacts of the user, false if they are the results of a search.
+     */
+	void setContacts(Collection<Person> contacts, boolean all) {
+		ArrayList<Person> sorted = new ArrayList<Person>(contacts);
+		sorted.sort(ORDER);
+		int old = this.persons.size();
+		this.persons.clear();
+		this.byId.clear();
+		if (old > 0) {
+			this.fireIntervalRemoved(this, 0, old - 1);
+		}
+		this.persons.addAll(sorted);
+		for (Person p : sorted) {
+			this.byId.put(p, p);
+		}
+		this.all = all;
+		if (!this.persons.isEmpty()) {
+			this.fireIntervalAdded(this, 0, this.persons.size() - 1);
+		}
+	}
+
+	/**
+     * Checks whether the list shows all the contacts of the user.
+     *
+     * @return True if it shows all the contacts, false if it shows the results of a search.
+     */
+	boolean showsAll() {
+		return this.all;
+	}
+
+	/**
+     * Retrieves the number of contacts shown.
+     *
+     * @return The number of rows of the list.
+     */
+	@Override
+	public int getSize() {
+		return this.persons.size();
+	}
+
+	/**
+     * Retrieves the contact shown in a row.
+     *
+     * @param index The index of the row.
+     * @return The contact of the row.
+     */
+	@Override
+	public Person getElementAt(int index) {
+		return this.persons.get(index);
+	}
+
+	/**
+     * Finds the row of a contact, in any of its versions.
+     *
+     * @param p The contact.
+     * @return The index of the row of the contact with the same ID, or -1 if it is not shown.
+     */
+	int indexOf(Person p) {
+		Person shown = this.byId.get(p);
+		if (shown == null) {
+			return -1;
+		}
+		int i = Collections.binarySearch(this.persons, shown, ORDER);
+		return i >= 0 ? i : -1;
+	}
+
+	/**
+     * Inserts the added contacts into the list on the EDT, if the list shows all the contacts.
+     *
+     * @param added The added contacts.
+     */
+	@Override
+	public void contactsAdded(List<Person> added) {
+		SwingUtilities.invokeLater(() -> {
+			if (added.size() > BULK_CHANGE) {
+				// Merging a large import in one pass is cheaper than shifting the rows once per contact
+				TreeMap<Person, Person> merged = new TreeMap<Person, Person>(this.byId);
+				for (Person p : added) {
+					if (this.all || merged.containsKey(p)) {
+						merged.remove(p);
+						merged.put(p, p);
+					}
+				}
+				this.setContacts(merged.values(), this.all);
+				return;
+			}
+			for (Person p : added) {
+				this.put(p);
+			}
+		});
+	}
+
+	/**
+     * Replaces the edited contact in the list on the EDT.
+     *
+     * @param old The version of the contact that was replaced.
+     * @param updated The new version of the contact.
+     */
+	@Override
+	public void contactUpdated(Person old, Person updated) {
+		SwingUtilities.invokeLater(() -> this.put(updated));
+	}
+
+	/**
+     * Removes the deleted contacts from the list on the EDT.
+     *
+     * @param removed The deleted contacts.
+     */
+	@Override
+	public void contactsRemoved(List<Person> removed) {
+		SwingUtilities.invokeLater(() -> {
+			if (removed.size() > BULK_CHANGE) {
+				Set<Person> ids = new TreeSet<Person>(Person::compareId);
+				ids.addAll(removed);
+				ArrayList<Person> kept = new ArrayList<Person>(this.persons.size());
+				for (Person p : this.persons) {
+					if (!ids.contains(p)) {
+						kept.add(p);
+					}
+				}
+				this.setContacts(kept, this.all);
+				return;
+			}
+			for (Person p : removed) {
+				int i = this.indexOf(p);
+				if (i >= 0) {
+					this.byId.remove(this.persons.remove(i));
+					this.fireIntervalRemoved(this, i, i);
+				}
+			}
+		});
+	}
+
+	/**
+     * Shows a new or edited contact. An edited contact that keeps its place is replaced in its row; one whose name
+     * moved it is removed from its row and inserted at its new place. A new contact is inserted at its place only if
+     * the list shows all the contacts.
+     *
+     * @param p The contact.
+     */
+	private void put(Person p) {
+		int i = this.indexOf(p);
+		if (i >= 0) {
+			boolean afterPrevious = i == 0 || ORDER.compare(this.persons.get(i - 1), p) < 0;
+			boolean beforeNext = i == this.persons.size() - 1 || ORDER.compare(p, this.persons.get(i + 1)) < 0;
+			if (afterPrevious && beforeNext) {
+				this.persons.set(i, p);
+				this.byId.remove(p);
+				this.byId.put(p, p);
+				this.fireContentsChanged(this, i, i);
+				return;
+			}
+			this.persons.remove(i);
+			this.fireIntervalRemoved(this, i, i);
+		}
+		else if (!this.all) {
+			return;
+		}
+		int j = -Collections.binarySearch(this.persons, p, ORDER) - 1;
+		this.persons.add(j, p);
+		this.byId.remove(p);
+		this.byId.put(p, p);
+		this.fireIntervalAdded(this, j, j);
+	}
+}
@@ -0,0 +1,224 @@
+package gui;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import javax.swing.SwingUtilities;
+
+/**
+ * Watches the responsiveness of the Event Dispatch Thread while the application runs. A background thread posts a
+ * heartbeat to the EDT every {@value #PERIOD_MILLIS} ms and measures how long it waits before it runs, which is how
+ * long a click or a repaint would have waited. When a heartbeat waits longer than the threshold, the stack of the EDT
+ * is captured while it is still blocked and written to the report, tagged with the action of the frame being handled,
+ * such as {@code PhonebookFrame.deleteCheckedContacts}; a second line tells how long the freeze lasted. Besides the
+ * buttons, the clicks on the contacts list, the searches typed by the user and the outcomes of the background tasks
+ * delivered to the EDT are tagged, the latter with the action that started the task. Every minute
+ * the report also gets a summary of the latencies of the heartbeats, so that regressions show up as numbers.
+ * <p>
+ * The report is written to the file named by the system property {@code phonebook.edt.report},
+ * {@code phonebook-edt.log} by default; when it grows beyond {@value #MAX_REPORT_BYTES} bytes it is renamed with the
+ * {@code .1} suffix, replacing the older one, and a new one is started. The threshold is read from
+ * {@code phonebook.edt.threshold}, in milliseconds, and the watchdog is turned off by
+ * {@code -Dphonebook.edt.watchdog=false}. The same report receives the timings and errors of the startup, written by
+ * {@link Startup}, so the time to interactive sits next to the latencies it is compared with.
+ * @author Leuti Michele
+ */
+final class EdtWatchdog {
+	/**
+	 * The time between two heartbeats, in milliseconds.
+	 */
+	static final int PERIOD_MILLIS = 100;
+	/**
+	 * The time a heartbeat can wait before the EDT is reported as blocked, in milliseconds.
+	 */
+	static final long THRESHOLD_MILLIS = Long.getLong("phonebook.edt.threshold", 500);
+	private static final long SUMMARY_MILLIS = 60000;
+	private static final long MAX_REPORT_BYTES = 1024 * 1024;
+	private static final File REPORT = new File(System.getProperty("phonebook.edt.report", "phonebook-edt.log"));
+	private static final int MAX_STACK_DEPTH = 40;
+	private static volatile String action;
+	private static volatile Thread edt;
+	private static volatile long heartbeatRan;
+	private static Thread watcher;
+
+	/**
+     * Prevents the instantiation of this class, which only has static methods.
+     */
+	private EdtWatchdog() {
+	}
+
+	/**
+     * Starts watching the EDT, unless the watchdog is turned off or already started.
+     */
+	static synchronized void start() {
+		if (watcher != null || !Boolean.parseBoolean(System.getProperty("phonebook.edt.watchdog", "true"))) {
+			return;
+		}
+		watcher = new Thread(EdtWatchdog::watch, "phonebook-edt-watchdog");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+
+	/**
+     * Tags the work the EDT does from now on with the action of a frame. Called on the EDT when the handling of an
+     * action begins.
+     *
+     * @param frame The name of the frame, or of the class handling the action.
+     * @param command The action, as the command of the button that fired it or the name of the handler.
+     */
+	static void actionStarted(String frame, String command) {
+		action = frame + "." + command;
+	}
+
+	/**
+     * Removes the tag of the action whose handling has ended. Called on the EDT.
+     */
+	static void actionEnded() {
+		action = null;
+	}
+
+	/**
+     * Retrieves the action whose handling is running on the EDT, so that the work it starts can be tagged with it later.
+     *
+     * @return The action, or null if none.
+     */
+	static String currentAction() {
+		return action;
+	}
+
+	/**
+     * Posts the heartbeats and measures them until the application exits.
+     */
+	private static void watch() {
+		long[] latencies = new long[(int) (SUMMARY_MILLIS / PERIOD_MILLIS) + 1];
+		int samples = 0;
+		int stalls = 0;
+		long summaryStart = System.nanoTime();
+		while (true) {
+			long posted = System.nanoTime();
+			heartbeatRan = Long.MIN_VALUE;
+			SwingUtilities.invokeLater(() -> {
+				edt = Thread.currentThread();
+				heartbeatRan = System.nanoTime();
+			});
+			boolean reported = false;
+			String blockedAction = null;
+			long waited;
+			try {
+				// Poll the heartbeat, so that a blocked EDT is caught while it is still blocked
+				while (heartbeatRan == Long.MIN_VALUE) {
+					Thread.sleep(10);
+					waited = (System.nanoTime() - posted) / 1000000;
+					if (!reported && waited >= THRESHOLD_MILLIS) {
+						reported = true;
+						stalls++;
+						blockedAction = action;
+						reportStall(waited, blockedAction);
+					}
+				}
+				waited = (heartbeatRan - posted) / 1000000;
+				if (reported) {
+					write(LocalDateTime.now() + " EDT released after " + waited + " ms" + tag(blockedAction));
+				}
+				if (samples < latencies.length) {
+					latencies[samples++] = waited;
+				}
+				if ((System.nanoTime() - summaryStart) / 1000000 >= SUMMARY_MILLIS) {
+					reportSummary(latencies, samples, stalls);
+					samples = 0;
+					stalls = 0;
+					summaryStart = System.nanoTime();
+				}
+				Thread.sleep(PERIOD_MILLIS);
+			}
+			catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+     * Writes the stack of the blocked EDT to the report.
+     *
+     * @param waited How long the heartbeat has waited so far, in milliseconds.
+     * @param blockedAction The action being handled by the EDT, or null if none.
+     */
+	private static void reportStall(long waited, String blockedAction) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(LocalDateTime.now()).append(" EDT blocked for ").append(waited).append(" ms").append(tag(blockedAction));
+		Thread t = edt;
+		if (t != null) {
+			StackTraceElement[] stack = t.getStackTrace();
+			for (int i = 0; i < stack.length && i < MAX_STACK_DEPTH; i++) {
+				sb.append(System.lineSeparator()).append("\tat ").append(stack[i]);
+			}
+			if (stack.length > MAX_STACK_DEPTH) {
+				sb.append(System.lineSeparator()).append("\t... ").append(stack.length - MAX_STACK_DEPTH).append(" more");
+			}
+		}
+		write(sb.toString());
+	}
+
+	/**
+     * Writes the summary of the latencies measured since the previous summary to the report.
+     *
+     * @param latencies The latencies of the heartbeats, in milliseconds.
+     * @param samples The number of latencies measured.
+     * @param stalls The number of times the EDT was reported as blocked.
+     */
+	private static void reportSummary(long[] latencies, int samples, int stalls) {
+		if (samples == 0) {
+			return;
+		}
+		long[] sorted = Arrays.copyOf(latencies, samples);
+		Arrays.sort(sorted);
+		write(String.format("%s EDT latency over %d heartbeats: median %d ms, 99th percentile %d ms, max %d ms, %d blocked",
+				LocalDateTime.now(), samples, sorted[samples / 2], sorted[(int) (samples * 0.99)], sorted[samples - 1], stalls));
+	}
+
+	/**
+     * Describes the action being handled when the EDT was blocked.
+     *
+     * @param blockedAction The action, or null if none.
+     * @return The text to append to a line of the report.
+     */
+	private static String tag(String blockedAction) {
+		return blockedAction == null ? " outside any action" : " during " + blockedAction;
+	}
+
+	/**
+     * Appends an entry to the report with the stack trace of an error.
+     *
+     * @param entry The entry.
+     * @param error The error.
+     */
+	static void write(String entry, Throwable error) {
+		StringWriter trace = new StringWriter();
+		error.printStackTrace(new PrintWriter(trace));
+		write(entry + System.lineSeparator() + trace.toString().trim());
+	}
+
+	/**
+     * Appends an entry to the report, starting a new report if the current one is too large. Entries may come from
+     * several threads, so they are written one at a time.
+     *
+     * @param entry The entry.
+     */
+	static synchronized void write(String entry) {
+		if (REPORT.length() > MAX_REPORT_BYTES) {
+			File old = new File(REPORT.getPath() + ".1");
+			old.delete();
+			REPORT.renameTo(old);
+		}
+		try (PrintWriter out = new PrintWriter(new FileWriter(REPORT, true))) {
+			out.println(entry);
+		}
+		catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
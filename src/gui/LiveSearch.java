@@ -0,0 +1,268 @@
+package gui;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.JComponent;
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+import logic.Person;
+import logic.PhoneAction;
+import logic.User;
+import table.MatchMode;
+import table.ResultPage;
+import table.Table;
+
+/**
+ * Searches the contacts while the user types in the search field, showing the results in the contacts list.
+ * The keystrokes are debounced, so a word typed quickly runs one search instead of one per letter, and a search still
+ * waiting or running when the text changes again is cancelled. The search runs on the in-memory indexes of the user's
+ * table, never on the database; when the new text only extends the previous one, and the previous results were
+ * complete and the table has not changed since, the new results are filtered from the previous ones instead.
+ * The results come in pages of {@value #LIMIT} contacts, in the order of the list, through the keyset pager of the
+ * table; when more contacts match, the "more" control of the frame is shown and loads the next page after the last
+ * contact shown. The searches run on a thread of their own, not behind the database calls of the frame, and do not show the frame
+ * as busy, since they are quick and replaced at the next keystroke.
+ * <p>
+ * Every method must be called on the Event Dispatch Thread.
+ * @author Leuti Michele
+ */
+final class LiveSearch implements DocumentListener {
+	/**
+	 * The time the user must stop typing for before the search runs, in milliseconds.
+	 */
+	static final int DEBOUNCE_MILLIS = 150;
+	/**
+	 * The number of contacts in a page of results.
+	 */
+	static final int LIMIT = 500;
+	private static final int FUZZY_RESULTS = 20;
+	private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "phonebook-search");
+		t.setDaemon(true);
+		return t;
+	});
+	private final User user;
+	private final ContactListModel model;
+	private final Consumer<Throwable> onError;
+	private final JComponent more;
+	private final Timer timer;
+	private JTextField field;
+	private BackgroundTask<Results> task;
+	private Results previous;
+
+	/**
+     * Constructs the live search of a frame.
+     *
+     * @param user The user whose contacts are searched.
+     * @param model The model of the contacts list showing the results.
+     * @param onError Shows the error of a search that failed.
+     * @param more The control loading the next page of results, shown only when there is one.
+     */
+	LiveSearch(User user, ContactListModel model, Consumer<Throwable> onError, JComponent more) {
+		this.user = user;
+		this.model = model;
+		this.onError = onError;
+		this.more = more;
+		more.setVisible(false);
+		this.timer = new Timer(DEBOUNCE_MILLIS, e -> {
+			EdtWatchdog.actionStarted("LiveSearch", "search");
+			try {
+				this.search();
+			}
+			finally {
+				EdtWatchdog.actionEnded();
+			}
+		});
+		this.timer.setRepeats(false);
+	}
+
+	/**
+     * Follows the text typed in a search field, replacing the field followed before.
+     *
+     * @param searchField The search field.
+     */
+	void attach(JTextField searchField) {
+		if (this.field != null) {
+			this.field.getDocument().removeDocumentListener(this);
+		}
+		this.field = searchField;
+		searchField.getDocument().addDocumentListener(this);
+	}
+
+	/**
+     * Cancels the search waiting for the user to stop typing and the one running, whose results would be out of date.
+     */
+	void cancel() {
+		this.timer.stop();
+		if (this.task != null) {
+			this.task.cancel();
+			this.task = null;
+		}
+	}
+
+	/**
+     * Searches the text of the field right away, without waiting for the user to stop typing.
+     */
+	void searchNow() {
+		this.search();
+	}
+	
+	/**
+     * Restarts the wait for the user to stop typing after text is inserted.
+     *
+     * @param e The event of the change.
+     */
+	@Override
+	public void insertUpdate(DocumentEvent e) {
+		this.timer.restart();
+	}
+
+	/**
+     * Restarts the wait for the user to stop typing after text is removed.
+     *
+     * @param e The event of the change.
+     */
+	@Override
+	public void removeUpdate(DocumentEvent e) {
+		this.timer.restart();
+	}
+
+	/**
+     * Ignores changes of attributes, which plain text fields do not have.
+     *
+     * @param e The event of the change.
+     */
+	@Override
+	public void changedUpdate(DocumentEvent e) {
+	}
+
+	/**
+     * Searches the text of the field once the user has stopped typing. An empty field, or one showing its placeholder,
+     * shows all the contacts again.
+     */
+	private void search() {
+		this.cancel();
+		if (this.field == null) {
+			return;
+		}
+		String text = this.field.getText();
+		if (text.equals("Search...") || text.trim().isEmpty()) {
+			this.previous = null;
+			this.more.setVisible(false);
+			if (!this.model.showsAll()) {
+				this.model.setContacts(this.user.getContacts(), true);
+			}
+			return;
+		}
+		String query = text.trim().toLowerCase(Locale.ROOT);
+		Results base = this.previous;
+		Table table = this.user.getTable();
+		this.task = BackgroundTask.runOn(EXECUTOR, () -> {
+			long version = table.getVersion();
+			if (base != null && base.refinable(query, version)) {
+				return new Results(query, Table.refineSearch(base.persons, query), true, null, version);
+			}
+			ResultPage page = table.searchPage(query, null, LIMIT);
+			if (!page.getPersons().isEmpty()) {
+				return new Results(query, page.getPersons(), !page.hasNext(), page.getNextCursor(), version);
+			}
+			// Nothing starts with the text: look for names that sound like it, then for names with typos
+			ArrayList<Person> found = PhoneAction.Search(this.user, query, MatchMode.PHONETIC, LIMIT);
+			if (found.isEmpty()) {
+				found = PhoneAction.fuzzySearch(this.user, query, FUZZY_RESULTS);
+			}
+			return new Results(query, found, false, null, version);
+		}, this::show, this::fail);
+	}
+
+	/**
+     * Adds the next page of the results shown to the contacts list, if there is one. The page starts after the last
+     * contact of the previous one, so it neither repeats nor skips contacts, even if the table changed in between.
+     */
+	void more() {
+		Results base = this.previous;
+		if (base == null || base.next == null || this.task != null) {
+			return;
+		}
+		this.timer.stop();
+		Table table = this.user.getTable();
+		this.task = BackgroundTask.runOn(EXECUTOR, () -> {
+			ResultPage page = table.searchPage(base.query, base.next, LIMIT);
+			ArrayList<Person> persons = new ArrayList<Person>(base.persons.size() + page.getPersons().size());
+			persons.addAll(base.persons);
+			persons.addAll(page.getPersons());
+			// The pages form all the results only if no change ran between them
+			boolean complete = !page.hasNext() && table.getVersion() == base.version;
+			return new Results(base.query, persons, complete, page.getNextCursor(), base.version);
+		}, this::show, this::fail);
+	}
+
+	/**
+     * Shows the results of a search in the contacts list.
+     *
+     * @param results The results.
+     */
+	private void show(Results results) {
+		this.task = null;
+		this.previous = results;
+		this.more.setVisible(results.next != null);
+		this.model.setContacts(results.persons, false);
+	}
+
+	/**
+     * Shows the error of a search that failed.
+     *
+     * @param ex The exception thrown by the search.
+     */
+	private void fail(Throwable ex) {
+		this.task = null;
+		this.onError.accept(ex);
+	}
+	
+	/**
+     * The results of a search, with what is needed to tell whether a longer query can be answered from them.
+     */
+	private static final class Results {
+		private final String query;
+		private final ArrayList<Person> persons;
+		private final boolean prefix;
+		private final String next;
+		private final long version;
+
+		/**
+         * Constructs the results of a search.
+         *
+         * @param query The query, trimmed and in lower case.
+         * @param persons The contacts found.
+         * @param prefix True if the contacts are all the contacts matching the query by prefix, false if the list was
+         * cut at the end of a page or comes from a phonetic or fuzzy search.
+         * @param next The cursor of the next page, or null if there is none.
+         * @param version The version of the table the search ran on.
+         */
+		Results(String query, ArrayList<Person> persons, boolean prefix, String next, long version) {
+			this.query = query;
+			this.persons = persons;
+			this.prefix = prefix;
+			this.next = next;
+			this.version = version;
+		}
+
+		/**
+         * Checks whether the results of a longer query can be filtered from these results: every contact matching a
+         * query that extends this one matches this one too.
+         *
+         * @param query The longer query, trimmed and in lower case.
+         * @param version The current version of the table.
+         * @return True if filtering these results gives all the results of the query.
+         */
+		boolean refinable(String query, long version) {
+			return this.prefix && this.version == version && query.startsWith(this.query);
+		}
+	}
+}
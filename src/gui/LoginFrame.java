@@ -3,6 +3,8 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import logic.*;
 import utilities.*;
 
@@ -107,6 +109,7 @@ public class LoginFrame extends JFrame implements ActionListener {
 
         this.loginButton = RoundedButton.createRoundedButton("LOGIN", new Color (50, 110, 140),new Color (50, 110, 140), Color.white);
         this.loginButton.setBounds(50, 230, 200, 40);
+        this.loginButton.setActionCommand("login");
         this.loginButton.addActionListener(this);
         this.loginPanel.add(loginButton);
 
@@ -122,6 +125,7 @@ public class LoginFrame extends JFrame implements ActionListener {
         
         this.signInButton = RoundedButton.createRoundedButton("SIGN UP", new Color (50, 110, 140),new Color (50, 110, 140), Color.white);
         this.signInButton.setBounds(50, 320, 200, 40);
+        this.signInButton.setActionCommand("openSignUp");
         this.signInButton.addActionListener(this);
         this.loginPanel.add(this.signInButton);
         add(this.loginPanel);
@@ -186,6 +190,7 @@ public class LoginFrame extends JFrame implements ActionListener {
         this.doneButton = RoundedButton.createRoundedButton("SIGN IN", new Color (50, 110, 140),new Color (50, 110, 140), Color.white);
         this.doneButton.setPreferredSize(new Dimension(200,35));
         this.doneButton.setBounds(50, 330, 200, 35);
+        this.doneButton.setActionCommand("signUp");
         this.doneButton.addActionListener(this);
         this.signInPanel.add(this.doneButton);
         
@@ -194,6 +199,7 @@ public class LoginFrame extends JFrame implements ActionListener {
         this.backButton.setBounds(10,8,35,35);
         this.backButton.setBorder(null);
         this.backButton.setBackground(null);
+        this.backButton.setActionCommand("back");
         this.backButton.addActionListener(this);
         this.signInPanel.add(this.backButton);
         
@@ -207,11 +213,29 @@ public class LoginFrame extends JFrame implements ActionListener {
      * This method responds to events from the login button, sign-in button, done button, and back button,
      * facilitating user login, navigation to the sign-in panel, user registration, and navigation back to the login panel, respectively.
      * 
+     * While the event is handled, the work of the EDT is tagged with its command for the reports of {@link EdtWatchdog}.
+     * 
      * @param e The action event triggered by the user.
      */
-	@SuppressWarnings("deprecation")
 	@Override
 	public void actionPerformed(ActionEvent e) {
+		EdtWatchdog.actionStarted("LoginFrame", e.getActionCommand());
+		try {
+			this.handleAction(e);
+		}
+		finally {
+			EdtWatchdog.actionEnded();
+		}
+	}
+	
+	/**
+     * Routes an action event to the login, the sign-up panel, the registration or the login panel, according to the
+     * button that fired it.
+     * 
+     * @param e The action event triggered by the user.
+     */
+	@SuppressWarnings("deprecation")
+	private void handleAction(ActionEvent e) {
 		if (e.getSource() == this.loginButton) {
 			if (this.passwordField.getText().equals("Password")|| this.passwordField.getText().isEmpty()) {
 				JOptionPane.showMessageDialog(this, "The password field must not be empty!", "Warning", JOptionPane.WARNING_MESSAGE);
@@ -220,18 +244,9 @@ public class LoginFrame extends JFrame implements ActionListener {
 				JOptionPane.showMessageDialog(this, "The username field must not be empty!", "Warning", JOptionPane.WARNING_MESSAGE);
 			}
 			String username = this.userField.getText();
-			User u = PhoneAction.searchUser(username);
-			
-			if (u == null) {
-				JOptionPane.showMessageDialog(this, "User not found!", "Error", JOptionPane.ERROR_MESSAGE);
-			}
-			else if (u.checkPassword((this.passwordField.getText()))){
-				PhonebookFrame.user = u;
-				WindowsManager.switchToPhonebookFrame();
-			}
-			else {
-				JOptionPane.showMessageDialog(this, "The password is incorrect!", "Error", JOptionPane.ERROR_MESSAGE);
-			}
+			String password = this.passwordField.getText();
+			// Loading the user reads all its contacts, so it runs in the background like the check of the password
+			BackgroundTask.run(this, () -> PhoneAction.searchUser(username), u -> this.login(u, password), this::showError, this.loginButton);
 		}
 		
 		else if(e.getSource() == this.signInButton) {
@@ -247,30 +262,23 @@ public class LoginFrame extends JFrame implements ActionListener {
 				JOptionPane.showMessageDialog(this, "All fields must not be empty!", "Warning", JOptionPane.WARNING_MESSAGE);
 			}
 			
-			User u = PhoneAction.searchUser(this.userUsernameField.getText());
-			if(u != null) {
-				JOptionPane.showMessageDialog(this, "The username: \"" + this.userUsernameField.getText() + "\"" + " already exists!", "Warning", JOptionPane.WARNING_MESSAGE);
-			}
-			
-			else{
-				try {
-					String info[] = new String[4];
-					info[0] = this.userNameField.getText();
-					info[1] = this.userSurnameField.getText();
-					info[2] = this.userUsernameField.getText();
-					info[3] = this.newPasswordField.getText();
-					User user = new User(info);
-					PhoneAction.addUser(user);
-					JOptionPane.showMessageDialog(this, "User added successfully!", "Info", JOptionPane.INFORMATION_MESSAGE);
-					this.signInPanel.setVisible(false);
-					setTitle("User login");
-					this.loginPanel.setVisible(true);
-				}
-				catch(Exception e1) {
-					JOptionPane.showMessageDialog(this, e1.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
-				}
-			}
-			
+			String info[] = new String[4];
+			info[0] = this.userNameField.getText();
+			info[1] = this.userSurnameField.getText();
+			info[2] = this.userUsernameField.getText();
+			info[3] = this.newPasswordField.getText();
+			// The username is checked, the password hashed and the user saved in the background
+			BackgroundTask.run(this, () -> {
+				PhoneAction.checkUsername(info[2]);
+				User user = new User(info);
+				PhoneAction.addUser(user);
+				return user;
+			}, user -> {
+				JOptionPane.showMessageDialog(this, "User added successfully!", "Info", JOptionPane.INFORMATION_MESSAGE);
+				this.signInPanel.setVisible(false);
+				setTitle("User login");
+				this.loginPanel.setVisible(true);
+			}, this::showWarning, this.doneButton, this.backButton);
 		}
 		
 		else if(e.getSource() == this.backButton) {
@@ -281,5 +289,52 @@ public class LoginFrame extends JFrame implements ActionListener {
 		}
 	}
 	
+	/**
+     * Checks the password of a user found by username and opens the phonebook if it is correct.
+     * The check runs on the verification pool; the login button stays disabled until its answer is back on the EDT.
+     *
+     * @param u The user found by username, or null if there is none.
+     * @param password The password typed by the user.
+     */
+	private void login(User u, String password) {
+		if (u == null) {
+			JOptionPane.showMessageDialog(this, "User not found!", "Error", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+		this.loginButton.setEnabled(false);
+		PhoneAction.login(u, password).whenComplete((correct, ex) -> SwingUtilities.invokeLater(() -> {
+			this.loginButton.setEnabled(true);
+			if (ex != null) {
+				Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+				String message = cause instanceof RejectedExecutionException ? "Too many login attempts at once, please try again!" : cause.getMessage();
+				JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+			}
+			else if (correct) {
+				PhonebookFrame.user = u;
+				WindowsManager.switchToPhonebookFrame();
+			}
+			else {
+				JOptionPane.showMessageDialog(this, "The password is incorrect!", "Error", JOptionPane.ERROR_MESSAGE);
+			}
+		}));
+	}
+	
+	/**
+     * Shows the error of a task that failed in the background.
+     *
+     * @param ex The exception thrown by the task.
+     */
+	private void showError(Throwable ex) {
+		JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+	}
+	
+	/**
+     * Shows a task that failed in the background because of the data typed by the user.
+     *
+     * @param ex The exception thrown by the task.
+     */
+	private void showWarning(Throwable ex) {
+		JOptionPane.showMessageDialog(this, ex.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
+	}
 }
 
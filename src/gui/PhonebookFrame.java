@@ -6,11 +6,11 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.File;
-import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletionException;
 import logic.*;
 import utilities.*;
 
@@ -25,7 +25,9 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 	private JPanel deletePanel;
 	private RoundedPanel addPanel;
 	private RoundedPanel userPanel;
-	private ArrayList<PersonPanel> personsPanel;
+	private ContactListModel contactsModel;
+	private JList<Person> contactList;
+	private HashSet<Person> checkedContacts;
 	private SvgButton userButton;
 	private SvgButton deleteButton;
 	private SvgButton addButton;
@@ -52,13 +54,28 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 	private JTextField pAddress;
 	private JTextField pPhone;
 	private JTextField pAge;
+	private JTextField aName;
+	private JTextField aSurname;
+	private JTextField aAddress;
+	private JTextField aPhone;
+	private JTextField aAge;
+	private ShadowLabel pTitleName;
+	private ShadowLabel pTitleSurname;
+	private ShadowLabel uTitle;
+	private RoundedPanel contactFields;
+	private RoundedPanel userFields;
+	private JComponent[] contactActions;
+	private JComponent[] userActions;
 	private JTextField uName;
 	private JTextField uSurname;
 	private JTextField uUsername;
-	private int selected;
+	private Person selected;
 	private Font pFont = new Font("a", Font.BOLD, 12);
 	private Color background;
 	private Color steelBlue;
+	private LiveSearch liveSearch;
+	private JButton moreButton;
+	private final Map<Object, Runnable> handlers = new WeakHashMap<Object, Runnable>();
 
 	/**
      * Constructs a {@code PhonebookFrame} and initializes the user interface components.
@@ -81,32 +98,69 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		setLocationRelativeTo(null);
 		setVisible(true);
 		setResizable(false);
-		addMainComponent(false, false, user.getContacts());
+		this.contactsModel = new ContactListModel();
+		user.getTable().addTableListener(this.contactsModel);
+		this.contactsModel.setContacts(user.getContacts(), true);
+		this.moreButton = RoundedButton.createRoundedButton("MORE RESULTS", steelBlue, background, steelBlue);
+		this.moreButton.setFont(new Font("Arial", Font.BOLD, 11));
+		onAction(this.moreButton, "moreResults", this::moreResults);
+		this.liveSearch = new LiveSearch(user, this.contactsModel, this::showError, this.moreButton);
+		this.createScrollableContactPanel();
+		this.createCoverPanel();
+		addMainComponent(false, false);
+	}
+	
+	/**
+     * Stops following the changes of the user's contacts and releases the frame.
+     */
+	@Override
+	public void dispose() {
+		if (this.contactsModel != null) {
+			user.getTable().removeTableListener(this.contactsModel);
+		}
+		super.dispose();
 	}
 	
 	/**
-     * Adds the main components to the frame, including the top panel with action buttons,
-     * a scrollable contacts panel, and an optional cover panel.
+     * Adds the main components to the frame, showing all the contacts of the user: the top panel with action buttons,
+     * the scrollable contacts panel, and an optional cover panel.
+     * The contacts panel is created once and kept up to date by the changes of the user's table, so only the top panel
+     * is created again; the contacts are read again only if the list was showing the results of a search.
      * 
      * @param flag1 Indicates if certain UI elements should be disabled or made transparent (used for edit mode).
      * @param flag2 Indicates if the deletion mode is enabled, altering how contacts are displayed.
-     * @param contacts The list of {@code Person} objects to display.
      */
-	private void addMainComponent(boolean flag1, boolean flag2, ArrayList<Person> contacts) {
+	private void addMainComponent(boolean flag1, boolean flag2) {
+		if (!this.contactsModel.showsAll()) {
+			this.contactsModel.setContacts(user.getContacts(), true);
+		}
+		this.showMainComponent(flag1, flag2);
+	}
+	
+	/**
+     * Adds the top panel, the contacts panel and, outside of deletion mode, the cover panel to the frame.
+     * 
+     * @param flag1 Indicates if certain UI elements should be disabled or made transparent (used for edit mode).
+     * @param flag2 Indicates if the deletion mode is enabled, altering how contacts are displayed.
+     */
+	private void showMainComponent(boolean flag1, boolean flag2) {
 		this.createTopPanel(flag1);
-		this.createScrollableContactPanel(contacts, flag2);
-		this.createCoverPanel();
+		this.setDeletionMode(flag2);
 		if (!flag2) {
+			this.coverPanel.setVisible(true);
 			add(coverPanel);
 		}
         add(topPanel);
+        this.contactsPanel.setVisible(true);
         add(contactsPanel);
 	}
 	
 	/**
      * Removes the main components from the frame, typically in preparation for refreshing the UI or switching modes.
+     * A search still running is cancelled, since its results would replace the new view.
      */
 	private void removeMainComponent() {
+		this.liveSearch.cancel();
 		this.contactsPanel.setVisible(false);
 		this.topPanel.setVisible(false);
 		this.coverPanel.setVisible(false);
@@ -118,13 +172,15 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 	
 	/**
      * Creates the cover panel that appears at the bottom part of the frame.
-     * This panel is used to cover any unused space in the frame below the contacts list.
+     * This panel is used to cover any unused space in the frame below the contacts list, and holds the button loading
+     * the next page of the results of a search, shown only when there is one.
      * It is styled to match the overall application theme.
      */
 	private void createCoverPanel() {
 		coverPanel = new JPanel();
 		coverPanel.setBackground(steelBlue);
 		coverPanel.setBounds(0, this.contactsPanel.getY() + this.contactsPanel.getHeight(), 350, 450 - (this.contactsPanel.getY() + this.contactsPanel.getHeight()));
+		coverPanel.add(this.moreButton);
 	}
 	
 	 /**
@@ -158,7 +214,7 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		}
 		userButton.setBounds(2,8,45,45);
 		userButton.setBorder(null);
-		userButton.addActionListener(this);
+		onAction(userButton, "openUserPanel", this::openUserPanel);
         topPanel.add(userButton);
         
         ShadowLabel Username = new ShadowLabel(user.getUsername());
@@ -186,7 +242,8 @@ public class PhonebookFrame extends JFrame implements ActionListener{
         	searchField.setEditable(true);
         	searchField.setBounds(25,2,135,30);
             searchField.setBorder(new MatteBorder(0,0,0,0,new Color(0,0,0,0)));
-            searchField.addActionListener(this);
+            onAction(searchField, "searchContacts", this::searchContacts);
+            this.liveSearch.attach(searchField);
             panel.add(searchField);
         }    
         
@@ -203,7 +260,7 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		}
 		searchButton.setBounds(5, 9,15,15);
 		searchButton.setBorder(null);
-		searchButton.addActionListener(this);
+		onAction(searchButton, "searchContacts", this::searchContacts);
         panel.add(searchButton);
         
         filePath = "Images/deleteUser1.svg";
@@ -219,7 +276,7 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		}
 		deleteButton.setBounds(280,30,35,35);
 		deleteButton.setBorder(null);
-		deleteButton.addActionListener(this);
+		onAction(deleteButton, "enterDeletionMode", this::enterDeletionMode);
         topPanel.add(deleteButton);
         
         filePath = "Images/addUser.svg";
@@ -235,7 +292,7 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		}
 		addButton.setBounds(240,30,35,35);
 		addButton.setBorder(null);
-		addButton.addActionListener(this);
+		onAction(addButton, "openAddPanel", this::openAddPanel);
         topPanel.add(addButton);
         
         filePath = "Images/icon2.svg";
@@ -258,151 +315,84 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 	}
 	
 	/**
-     * Creates a scrollable panel for displaying contacts. This panel hosts individual contact panels, allowing the user to scroll through their contacts.
-     * Contacts can be displayed in a default or deletion mode, controlled by the flag parameter.
-     *
-     * @param contacts The list of contacts to display within the panel.
-     * @param flag Indicates if the panel is in deletion mode, which affects how contacts are displayed and interacted with.
+     * Creates the scrollable panel displaying the contacts of the model. The contacts are shown by a list that paints
+     * only the visible rows with a shared renderer, so opening a phonebook of thousands of contacts creates a handful of
+     * components, and a change of a contact repaints only its row.
+     * Clicking a row opens the contact, or in deletion mode marks it for deletion.
      */
-	private void createScrollableContactPanel(ArrayList<Person> contacts, boolean flag) {
-	    this.personsPanel = new ArrayList<>();
-	    
+	private void createScrollableContactPanel() {
 	    this.contactsPanel = new JPanel(null); // Set to null layout
-	    if (!flag) {
-	    	this.contactsPanel.setBounds(15, 85, 300, 315);
-		    this.contactsPanel.setBackground(new Color(245, 245, 245));
-		    this.contactsPanel.setBorder(null);
-	    }
-	    else {
-	    	this.contactsPanel.setBounds(15, 85, 300, 285);
-		    this.contactsPanel.setBackground(new Color(245, 245, 245));
-		    this.contactsPanel.setBorder(null);
-	    }
-
-	    JPanel labelsPanel = new JPanel();
-	    labelsPanel.setBackground(new Color(245, 245, 245));
-	    // Even with a null layout in the parent, labelsPanel can use BoxLayout for its children
-	    labelsPanel.setLayout(null);
+	    this.contactsPanel.setBackground(new Color(245, 245, 245));
+	    this.contactsPanel.setBorder(null);
 
-	    // Sorting and adding person panels
-	    Collections.sort(contacts, Comparator.comparing(person -> person.getName().toLowerCase()));
-	    for (Person p : contacts) {
-	        PersonPanel personPanel = flag ? this.createContactDeletePanel(contacts.indexOf(p), contacts) :
-	                                         this.createContactPanel(contacts.indexOf(p), contacts);
-	        labelsPanel.add(personPanel);
-	    }
+	    JList<Person> list = new JList<Person>(this.contactsModel);
+	    this.contactList = list;
+	    list.setBackground(new Color(245, 245, 245));
+	    list.setFocusable(false);
+	    // Fixed row sizes spare the list from measuring every row, so only the visible ones are ever rendered
+	    list.setFixedCellHeight(ContactCellRenderer.ROW_HEIGHT);
+	    list.setFixedCellWidth(ContactCellRenderer.ROW_WIDTH);
+	    list.addMouseListener(new MouseAdapter() {
+	    	@Override
+	    	public void mouseClicked(MouseEvent e) {
+	    		int i = list.locationToIndex(e.getPoint());
+	    		if (i >= 0 && SwingUtilities.isLeftMouseButton(e) && list.getCellBounds(i, i).contains(e.getPoint())) {
+	    			EdtWatchdog.actionStarted("PhonebookFrame", "contactClicked");
+	    			try {
+	    				contactClicked(list, i);
+	    			}
+	    			finally {
+	    				EdtWatchdog.actionEnded();
+	    			}
+	    		}
+	    	}
+	    });
 
-	    // Manually set the preferred size of labelsPanel based on content
-	    int totalHeight = contacts.size() * 45; // Assuming each PersonPanel has a height of 45
-	    labelsPanel.setPreferredSize(new Dimension(this.contactsPanel.getWidth(), totalHeight));
-
-	    JScrollPane scrollPane = new JScrollPane(labelsPanel);
+	    JScrollPane scrollPane = new JScrollPane(list);
+	    scrollPane.setBorder(null);
 	    scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
 	    scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
-	    scrollPane.setBounds(0, 0, this.contactsPanel.getWidth(), this.contactsPanel.getHeight()); // Manually set bounds as contactPanel uses null layout
+	    scrollPane.getVerticalScrollBar().setUnitIncrement(ContactCellRenderer.ROW_HEIGHT / 3);
 
 	    this.contactsPanel.add(scrollPane); // Add scrollPane directly to contactPanel
+	    this.setDeletionMode(false);
 	}
-
+	
 	/**
-     * Creates a panel for a single contact in the contacts list. This panel includes the contact's name, surname, and phone number.
-     * It also prepares an SVG button for further interaction, such as entering edit mode or selecting the contact for deletion.
+     * Switches the contacts panel between the default mode and the deletion mode, in which the rows show a box marking
+     * the contact for deletion and the panel leaves room for the deletion buttons. Entering the deletion mode starts
+     * with no contact marked.
      *
-     * @param i The index of the contact in the contacts list, used for positioning the panel within its parent container.
-     * @param contacts The full list of contacts, from which the specific contact's details are extracted.
-     * @return A {@code PersonPanel} object, which is a customized panel displaying the contact's information.
+     * @param flag Indicates if the deletion mode is enabled.
      */
-	private PersonPanel createContactPanel(int i, ArrayList <Person> contacts) {
-		PersonPanel panel = new PersonPanel(contacts.get(i));
-		this.personsPanel.add(panel);
-		panel.setBackground(background);
-		panel.setMinimumSize(new Dimension(280, 45));
-		panel.setMaximumSize(new Dimension(280, 45));
-		panel.setBorder(new MatteBorder(0,0,2,0, new Color (50, 110, 140)));
-		panel.setBounds(0, 45 * i, 280, 45);
-		panel.setLayout(null);
-		
-        String filePath = "Images/contact2.svg";
-		SvgButton icon = new SvgButton(filePath);
-		icon.setBorder(new RoundedCornerBorder(15, null));
-		icon.setBackground(background);
-		icon.setMinimumSize(new Dimension(35,35));
-		icon.setBounds(5,5,35,35);
-		icon.setBorder(new MatteBorder(0,0,0,0,new Color(240,240,240)));
-        panel.add(icon);
-        this.personsPanel.get(i).setContactSvgButton(icon);
-        this.personsPanel.get(i).getContactButton().addActionListener(this);
-		
-		JLabel label = new JLabel(contacts.get(i).getName() + " " + contacts.get(i).getSurname());
-		label.setPreferredSize(new Dimension(90,30));
-		label.setFont(new Font("Arial", Font.BOLD, 13));
-		label.setBounds(65,3,150,20);
-		panel.add(label);
-		
-		JLabel label1 = new JLabel(contacts.get(i).getPhone());
-		label1.setForeground(new Color (50, 110, 140));
-		label1.setPreferredSize(new Dimension(100,30));
-		label1.setFont(new Font("Arial", Font.BOLD, 13));
-		label1.setBounds(65, 22, 150, 20);
-		panel.add(label1);
-		
-        return panel;
+	private void setDeletionMode(boolean flag) {
+		this.contactsPanel.setBounds(15, 85, 300, flag ? 285 : 315);
+		this.contactsPanel.getComponent(0).setBounds(0, 0, this.contactsPanel.getWidth(), this.contactsPanel.getHeight()); // Manually set bounds as contactPanel uses null layout
+		this.contactsPanel.validate();
+		this.checkedContacts = flag ? new HashSet<Person>() : null;
+		this.contactList.setCellRenderer(new ContactCellRenderer(background, steelBlue, this.checkedContacts));
 	}
-	
+
 	/**
-     * Similar to {@link #createContactPanel(int, ArrayList)}, but specifically for deletion mode.
-     * This version of the contact panel includes a button for selecting the contact for deletion.
+     * Handles a click on a row of the contacts list: in deletion mode the contact is marked or unmarked for deletion,
+     * otherwise its contact card is opened.
      *
-     * @param i The index of the contact in the contacts list.
-     * @param contacts The full list of contacts.
-     * @return A {@code PersonPanel} designed for contact selection and deletion.
+     * @param list The contacts list.
+     * @param i The index of the clicked row.
      */
-	private PersonPanel createContactDeletePanel(int i, ArrayList <Person> contacts) {
-		PersonPanel panel = new PersonPanel(contacts.get(i));
-		this.personsPanel.add(panel);
-		panel.setBackground(background);
-		panel.setMinimumSize(new Dimension(330, 45));
-		panel.setMaximumSize(new Dimension(330, 45));
-		panel.setBorder(new MatteBorder(0,0,2,0, new Color (50, 110, 140)));
-		panel.setBounds(0, 45 * i, 330, 45);
-		panel.setLayout(null);
-		
-        String filePath = "Images/contact2.svg";
-		SvgButton icon = new SvgButton(filePath);
-		icon.setBorder(new RoundedCornerBorder(15, null));
-		icon.setBackground(background);
-		icon.setMinimumSize(new Dimension(35,35));
-		icon.setBounds(5,5,35,35);
-		icon.setBorder(new MatteBorder(0,0,0,0,new Color(240,240,240)));
-        panel.add(icon);
-        this.personsPanel.get(i).setContactSvgButton(icon);
-        this.personsPanel.get(i).getContactButton().addActionListener(this);
-        
-		JLabel label = new JLabel(contacts.get(i).getName() + " " + contacts.get(i).getSurname());
-		label.setPreferredSize(new Dimension(90,30));
-		label.setFont(new Font("Arial", Font.BOLD, 13));
-		label.setBounds(65,3,150,20);
-		panel.add(label);
-		
-		JLabel label1 = new JLabel(contacts.get(i).getPhone());
-		label1.setForeground(new Color (50, 110, 140));
-		label1.setPreferredSize(new Dimension(100,30));
-		label1.setFont(new Font("Arial", Font.BOLD, 13));
-		label1.setBounds(65, 22, 150, 20);
-		panel.add(label1);
-		
-		filePath = "Images/empty.svg";
-		SvgButton icon1 = new SvgButton(filePath);
-		icon1.setBorder(new RoundedCornerBorder(15, null));
-		icon1.setBackground(background);
-		icon1.setMinimumSize(new Dimension(35,35));
-		icon1.setBounds(240,10,25,25);
-		icon1.setBorder(new MatteBorder(0,0,0,0,new Color(240,240,240)));
-		icon1.setFilePath(filePath);
-        panel.add(icon1);
-        this.personsPanel.get(i).setDeleteSvgButton(icon1);
-        this.personsPanel.get(i).getDeleteButton().addActionListener(this);;
-		return panel;
+	private void contactClicked(JList<Person> list, int i) {
+		if (this.checkedContacts != null) {
+			Person p = this.contactsModel.getElementAt(i);
+			if (!this.checkedContacts.remove(p)) {
+				this.checkedContacts.add(p);
+			}
+			list.repaint(list.getCellBounds(i, i));
+		}
+		else {
+			selected = this.contactsModel.getElementAt(i);
+			removeMainComponent();
+			this.showContactInfoPanel(selected, false);
+		}
 	}
 	
 	/**
@@ -424,7 +414,7 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		doneButton.setBorder(new MatteBorder(0,0,0,0,background));
 		doneButton.setFocusable(false);
 		doneButton.setBackground(background);
-		doneButton.addActionListener(this);
+		onAction(doneButton, "deleteCheckedContacts", this::deleteCheckedContacts);
 		deletePanel.add(doneButton);
 		
 		filePath = "Images/undo2.svg";
@@ -433,7 +423,7 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		undoButton.setBackground(background);
 		undoButton.setBounds(95,0,25,25);
 		undoButton.setFocusable(false);
-		undoButton.addActionListener(this);
+		onAction(undoButton, "cancelDeletion", this::cancelDeletion);
 		deletePanel.add(undoButton);
 		add(deletePanel);
 	}
@@ -443,11 +433,39 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 	 * and provides options for editing or deleting the user account based on the specified mode.
 	 * In edit mode, input fields become editable, allowing the user to update their information.
 	 * Buttons for saving changes or canceling the edit process are also displayed.
+	 * The panel is built the first time it is shown; afterwards it is only filled with the current user and switched
+	 * to the requested mode.
 	 *
-	 * @param flag If true, the panel is initialized in edit mode with editable fields and appropriate action buttons.
+	 * @param flag If true, the panel is shown in edit mode with editable fields and appropriate action buttons.
 	 *             If false, the panel displays the user's information in a read-only format.
 	 */
-	private void createUserPanel(boolean flag) {
+	private void showUserPanel(boolean flag) {
+		if (this.userPanel == null) {
+			this.buildUserPanel();
+		}
+		this.uTitle.setText(user.getUsername());
+		this.uName.setText(user.getName());
+		this.uSurname.setText(user.getSurname());
+		this.uUsername.setText(user.getUsername());
+		for (JComponent c : this.userActions) {
+			c.setVisible(!flag);
+		}
+		this.userFields.setLocation(25, flag ? 170 : 230);
+		Color foreground = flag ? Color.LIGHT_GRAY.darker() : UIManager.getColor("TextField.foreground");
+		for (JTextField f : new JTextField[] {this.uName, this.uSurname, this.uUsername}) {
+			f.setEditable(flag);
+			f.setForeground(foreground);
+		}
+		this.uConfirmEdit.setVisible(flag);
+		this.uCancelEdit.setVisible(flag);
+		this.userPanel.setVisible(true);
+		add(this.userPanel);
+	}
+	
+	/**
+     * Builds the components of the user profile panel and installs their listeners, once for the life of the frame.
+     */
+	private void buildUserPanel() {
 		this.userPanel = new RoundedPanel(25);
 		userPanel.setBackground(Color.white);
 		userPanel.setBounds(15,10,300,390);
@@ -466,175 +484,175 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		uBackButton.setBackground(Color.white);
 		uBackButton.setBorder(null);
 		uBackButton.setBounds(8,3,35,35);
-		uBackButton.addActionListener(this);
+		onAction(uBackButton, "closeUserPanel", this::closeUserPanel);
 		userPanel.add(uBackButton);
 		
-		if (!flag) {
-			RoundedPanel p = new RoundedPanel(25);
-	        p.setBackground(new Color(0,0,0,0));
-	        p.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        p.setBounds(15, 140, 120, 34);
-	        p.setLayout(null);
-	        p.addMouseListener(new MouseAdapter() {
-	            @Override
-	            public void mouseClicked(MouseEvent e) {
-	                if (SwingUtilities.isLeftMouseButton(e)) {
-	                    uEditButton.doClick();
-	                }
-	            }
-	        });
-	        userPanel.add(p);
-	        
-			RoundedPanel panel = new RoundedPanel(25);
-	        panel.setBackground(Color.white);
-	        panel.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        panel.setBounds(15, 140, 120, 34);
-	        panel.setLayout(null);
-	        
-	        JTextField t = RoundedTextField.createRoundedTextField("Edit credentials", null);
-	        t.setBackground(Color.white);
-	        t.setForeground(steelBlue);
-	        t.setOpaque(false);
-	        t.setEditable(false);
-	        t.setFocusable(false);
-	        t.setBounds(25,1,85,30);
-	        t.setBorder(null);
-	        panel.add(t);
-	        
-	        filePath = "Images/edit1.svg";
-	        uEditButton = new SvgButton(filePath);
-	        uEditButton.setBorder(new RoundedCornerBorder(15, null));
-	        uEditButton.setBackground(Color.white);
-	        uEditButton.setBounds(5, 9,15,15);
-	        uEditButton.setBorder(new MatteBorder(0,0,0,0,background));
-	        uEditButton.addActionListener(this);
-	        panel.add(uEditButton);
-	        
-	        userPanel.add(panel);
-	        
-	        RoundedPanel p1 = new RoundedPanel(25);
-	        p1.setBackground(new Color(0,0,0,0));
-	        p1.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        p1.setBounds(15, 180, 120, 34);
-	        p1.setLayout(null);
-	        p1.addMouseListener(new MouseAdapter() {
-	            @Override
-	            public void mouseClicked(MouseEvent e) {
-	                if (SwingUtilities.isLeftMouseButton(e)) {
-	                    uEditPasswordButton.doClick();
-	                }
-	            }
-	        });
-	        userPanel.add(p1);
-	        
-	        RoundedPanel panel1 = new RoundedPanel(25);
-	        panel1.setBackground(Color.white);
-	        panel1.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        panel1.setBounds(15, 180, 120, 34);
-	        panel1.setLayout(null);
-	        
-	        JTextField t1 = RoundedTextField.createRoundedTextField("Edit password", null);
-	        t1.setBackground(Color.white);
-	        t1.setEditable(false);
-	        t1.setForeground(steelBlue);
-	        t1.setBounds(25,1,85,30);
-	        t1.setFocusable(false);
-	        t1.setBorder(null);
-	        panel1.add(t1);
-	        
-	        filePath = "Images/password.svg";
-	        uEditPasswordButton = new SvgButton(filePath);
-	        uEditPasswordButton.setBorder(new RoundedCornerBorder(15, null));
-	        uEditPasswordButton.setBackground(Color.white);
-	        uEditPasswordButton.setBounds(5, 9,15,15);
-	        uEditPasswordButton.setBorder(new MatteBorder(0,0,0,0,background));
-	        uEditPasswordButton.addActionListener(this);
-	        panel1.add(uEditPasswordButton);
-	        
-	        userPanel.add(panel1);
-	        
-	        RoundedPanel p2 = new RoundedPanel(25);
-	        p2.setBackground(new Color(0,0,0,0));
-	        p2.setBorder(new RoundedCornerBorder(25, new Color(227,49,49)));
-	        p2.setBounds(150, 140, 120, 34);
-	        p2.setLayout(null);
-	        p2.addMouseListener(new MouseAdapter() {
-	            @Override
-	            public void mouseClicked(MouseEvent e) {
-	                if (SwingUtilities.isLeftMouseButton(e)) {
-	                	uEliminate.doClick();
-	                }
-	            }
-	        });
-	        userPanel.add(p2);
-	        
-	        RoundedPanel panel2 = new RoundedPanel(25);
-	        panel2.setBackground(Color.white);
-	        panel2.setBorder(new RoundedCornerBorder(25, new Color(227,49,49)));
-	        panel2.setBounds(150, 140, 120, 34);
-	        panel2.setLayout(null);
+		RoundedPanel p = new RoundedPanel(25);
+		p.setBackground(new Color(0,0,0,0));
+		p.setBorder(new RoundedCornerBorder(25, steelBlue));
+		p.setBounds(15, 140, 120, 34);
+		p.setLayout(null);
+		p.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (SwingUtilities.isLeftMouseButton(e)) {
+					uEditButton.doClick();
+				}
+			}
+		});
+		userPanel.add(p);
+		
+		RoundedPanel panel = new RoundedPanel(25);
+		panel.setBackground(Color.white);
+		panel.setBorder(new RoundedCornerBorder(25, steelBlue));
+		panel.setBounds(15, 140, 120, 34);
+		panel.setLayout(null);
+		
+		JTextField t = RoundedTextField.createRoundedTextField("Edit credentials", null);
+		t.setBackground(Color.white);
+		t.setForeground(steelBlue);
+		t.setOpaque(false);
+		t.setEditable(false);
+		t.setFocusable(false);
+		t.setBounds(25,1,85,30);
+		t.setBorder(null);
+		panel.add(t);
+		
+		filePath = "Images/edit1.svg";
+		uEditButton = new SvgButton(filePath);
+		uEditButton.setBorder(new RoundedCornerBorder(15, null));
+		uEditButton.setBackground(Color.white);
+		uEditButton.setBounds(5, 9,15,15);
+		uEditButton.setBorder(new MatteBorder(0,0,0,0,background));
+		onAction(uEditButton, "editUser", this::editUser);
+		panel.add(uEditButton);
+		
+		userPanel.add(panel);
+		
+		RoundedPanel p1 = new RoundedPanel(25);
+		p1.setBackground(new Color(0,0,0,0));
+		p1.setBorder(new RoundedCornerBorder(25, steelBlue));
+		p1.setBounds(15, 180, 120, 34);
+		p1.setLayout(null);
+		p1.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (SwingUtilities.isLeftMouseButton(e)) {
+					uEditPasswordButton.doClick();
+				}
+			}
+		});
+		userPanel.add(p1);
+		
+		RoundedPanel panel1 = new RoundedPanel(25);
+		panel1.setBackground(Color.white);
+		panel1.setBorder(new RoundedCornerBorder(25, steelBlue));
+		panel1.setBounds(15, 180, 120, 34);
+		panel1.setLayout(null);
+		
+		JTextField t1 = RoundedTextField.createRoundedTextField("Edit password", null);
+		t1.setBackground(Color.white);
+		t1.setEditable(false);
+		t1.setForeground(steelBlue);
+		t1.setBounds(25,1,85,30);
+		t1.setFocusable(false);
+		t1.setBorder(null);
+		panel1.add(t1);
+		
+		filePath = "Images/password.svg";
+		uEditPasswordButton = new SvgButton(filePath);
+		uEditPasswordButton.setBorder(new RoundedCornerBorder(15, null));
+		uEditPasswordButton.setBackground(Color.white);
+		uEditPasswordButton.setBounds(5, 9,15,15);
+		uEditPasswordButton.setBorder(new MatteBorder(0,0,0,0,background));
+		onAction(uEditPasswordButton, "changePassword", this::changePassword);
+		panel1.add(uEditPasswordButton);
+		
+		userPanel.add(panel1);
+		
+		RoundedPanel p2 = new RoundedPanel(25);
+		p2.setBackground(new Color(0,0,0,0));
+		p2.setBorder(new RoundedCornerBorder(25, new Color(227,49,49)));
+		p2.setBounds(150, 140, 120, 34);
+		p2.setLayout(null);
+		p2.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (SwingUtilities.isLeftMouseButton(e)) {
+					uEliminate.doClick();
+				}
+			}
+		});
+		userPanel.add(p2);
+		
+		RoundedPanel panel2 = new RoundedPanel(25);
+		panel2.setBackground(Color.white);
+		panel2.setBorder(new RoundedCornerBorder(25, new Color(227,49,49)));
+		panel2.setBounds(150, 140, 120, 34);
+		panel2.setLayout(null);
 
-	        JTextField t2 = RoundedTextField.createRoundedTextField("Delete account", null);
-	        t2.setBackground(Color.white);
-	        t2.setEditable(false);
-	        t2.setForeground(new Color(227,49,49));
-	        t2.setBounds(25,1,85,30);
-	        t2.setFocusable(false);
-	        t2.setBorder(null);
-	        panel2.add(t2);
-	        
-	        filePath = "Images/ElUser.svg";
-	        uEliminate = new SvgButton(filePath);
-	        uEliminate.setBorder(new RoundedCornerBorder(15, null));
-	        uEliminate.setBackground(Color.white);
-	        uEliminate.setBounds(5, 9,15,15);
-	        uEliminate.setBorder(new MatteBorder(0,0,0,0,background));
-	        uEliminate.addActionListener(this);
-	        panel2.add(uEliminate);
-	        
-	        userPanel.add(panel2);
-	        
-	        RoundedPanel p3 = new RoundedPanel(25);
-	        p3.setBackground(new Color(0,0,0,0));
-	        p3.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        p3.setBounds(150, 180, 120, 34);
-	        p3.setLayout(null);
-	        p3.addMouseListener(new MouseAdapter() {
-	            @Override
-	            public void mouseClicked(MouseEvent e) {
-	                if (SwingUtilities.isLeftMouseButton(e)) {
-	                	logout.doClick();
-	                }
-	            }
-	        });
-	        userPanel.add(p3);
-	        
-	        RoundedPanel panel3 = new RoundedPanel(25);
-	        panel3.setBackground(Color.white);
-	        panel3.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        panel3.setBounds(150, 180, 120, 34);
-	        panel3.setLayout(null);
+		JTextField t2 = RoundedTextField.createRoundedTextField("Delete account", null);
+		t2.setBackground(Color.white);
+		t2.setEditable(false);
+		t2.setForeground(new Color(227,49,49));
+		t2.setBounds(25,1,85,30);
+		t2.setFocusable(false);
+		t2.setBorder(null);
+		panel2.add(t2);
+		
+		filePath = "Images/ElUser.svg";
+		uEliminate = new SvgButton(filePath);
+		uEliminate.setBorder(new RoundedCornerBorder(15, null));
+		uEliminate.setBackground(Color.white);
+		uEliminate.setBounds(5, 9,15,15);
+		uEliminate.setBorder(new MatteBorder(0,0,0,0,background));
+		onAction(uEliminate, "deleteAccount", this::deleteAccount);
+		panel2.add(uEliminate);
+		
+		userPanel.add(panel2);
+		
+		RoundedPanel p3 = new RoundedPanel(25);
+		p3.setBackground(new Color(0,0,0,0));
+		p3.setBorder(new RoundedCornerBorder(25, steelBlue));
+		p3.setBounds(150, 180, 120, 34);
+		p3.setLayout(null);
+		p3.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (SwingUtilities.isLeftMouseButton(e)) {
+					logout.doClick();
+				}
+			}
+		});
+		userPanel.add(p3);
+		
+		RoundedPanel panel3 = new RoundedPanel(25);
+		panel3.setBackground(Color.white);
+		panel3.setBorder(new RoundedCornerBorder(25, steelBlue));
+		panel3.setBounds(150, 180, 120, 34);
+		panel3.setLayout(null);
 
-	        JTextField t3 = RoundedTextField.createRoundedTextField("Log Out", null);
-	        t3.setBackground(Color.white);
-	        t3.setEditable(false);
-	        t3.setForeground(steelBlue);
-	        t3.setBounds(40,1,65,30);
-	        t3.setFocusable(false);
-	        t3.setBorder(null);
-	        panel3.add(t3);
-	        
-	        filePath = "Images/logout.svg";
-	        logout = new SvgButton(filePath);
-	        logout.setBorder(new RoundedCornerBorder(15, null));
-	        logout.setBackground(Color.white);
-	        logout.setBounds(5, 9,15,15);
-	        logout.setBorder(new MatteBorder(0,0,0,0,background));
-	        logout.addActionListener(this);
-	        panel3.add(logout);
-	        
-	        userPanel.add(panel3);
-		}
+		JTextField t3 = RoundedTextField.createRoundedTextField("Log Out", null);
+		t3.setBackground(Color.white);
+		t3.setEditable(false);
+		t3.setForeground(steelBlue);
+		t3.setBounds(40,1,65,30);
+		t3.setFocusable(false);
+		t3.setBorder(null);
+		panel3.add(t3);
+		
+		filePath = "Images/logout.svg";
+		logout = new SvgButton(filePath);
+		logout.setBorder(new RoundedCornerBorder(15, null));
+		logout.setBackground(Color.white);
+		logout.setBounds(5, 9,15,15);
+		logout.setBorder(new MatteBorder(0,0,0,0,background));
+		onAction(logout, "logOut", this::logOut);
+		panel3.add(logout);
+		
+		userPanel.add(panel3);
+		
+		this.userActions = new JComponent[] {p, panel, p1, panel1, p2, panel2, p3, panel3};
 		
 		filePath = "Images/user.svg";
 		SvgIconPanel card = new SvgIconPanel(filePath);
@@ -642,83 +660,99 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		card.setBounds(5,30,110,110);
 		userPanel.add(card);
 		
-		ShadowLabel titleName = new ShadowLabel(user.getUsername());
-		titleName.setBackground(Color.white);
-		titleName.setForeground(steelBlue);
-		titleName.setFont(new Font("Arial", Font.BOLD, 22));
-		titleName.setBounds(130,70,150,30);
-		userPanel.add(titleName);
+		this.uTitle = new ShadowLabel("");
+		uTitle.setBackground(Color.white);
+		uTitle.setForeground(steelBlue);
+		uTitle.setFont(new Font("Arial", Font.BOLD, 22));
+		uTitle.setBounds(130,70,150,30);
+		userPanel.add(uTitle);
 		
-		RoundedPanel whitePanel = new RoundedPanel(15);
-		if (!flag) {
-			whitePanel.setBounds(25,230,250,115);	
-		}
-		else {
-			whitePanel.setBounds(25,170,250,115);	
-		}
-		whitePanel.setBackground(Color.white);
-		whitePanel.setBorder(new RoundedCornerBorder(15, steelBlue));
-		whitePanel.setLayout(null);
+		this.userFields = new RoundedPanel(15);
+		userFields.setSize(250,115);
+		userFields.setBackground(Color.white);
+		userFields.setBorder(new RoundedCornerBorder(15, steelBlue));
+		userFields.setLayout(null);
 		
-		uName = new JTextField(user.getName());
-		uName.setEditable(flag);
+		uName = new JTextField();
 		uName.setFont(pFont);
 		uName.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		uName.setBackground(Color.white);
 		uName.setBounds(25,10,200,25);
-		whitePanel.add(uName);
+		userFields.add(uName);
 		
-		uSurname = new JTextField(user.getSurname());
-		uSurname.setEditable(flag);
+		uSurname = new JTextField();
 		uSurname.setFont(pFont);
 		uSurname.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		uSurname.setBackground(Color.white);
 		uSurname.setBounds(25,45,200,25);
-		whitePanel.add(uSurname);
+		userFields.add(uSurname);
 		
-		uUsername = new JTextField(user.getUsername());
-		uUsername.setEditable(flag);
+		uUsername = new JTextField();
 		uUsername.setFont(pFont);
 		uUsername.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		uUsername.setBackground(Color.white);
 		uUsername.setBounds(25,80,200,25);
-		whitePanel.add(uUsername);
+		userFields.add(uUsername);
 		
-		if (flag) {
-			uName.setForeground(Color.LIGHT_GRAY.darker());
-			uSurname.setForeground(Color.LIGHT_GRAY.darker());
-			uUsername.setForeground(Color.LIGHT_GRAY.darker());
-			
-			filePath = "Images/confirm.svg";
-			this.uConfirmEdit = new SvgButton(filePath);
-			uConfirmEdit.setBackground(Color.white);
-			uConfirmEdit.setBorder(null);
-			uConfirmEdit.setBounds(180,305,30,30);
-			uConfirmEdit.addActionListener(this);
-			userPanel.add(uConfirmEdit);
-			
-			filePath = "Images/undo2.svg";
-			this.uCancelEdit = new SvgButton(filePath);
-			uCancelEdit.setBackground(Color.white);
-			uCancelEdit.setBounds(90,305,30,30);
-			uCancelEdit.setBorder(null);
-			uCancelEdit.addActionListener(this);
-			userPanel.add(uCancelEdit);
-		}
-		userPanel.add(whitePanel);
-		add(userPanel);
+		filePath = "Images/confirm.svg";
+		this.uConfirmEdit = new SvgButton(filePath);
+		uConfirmEdit.setBackground(Color.white);
+		uConfirmEdit.setBorder(null);
+		uConfirmEdit.setBounds(180,305,30,30);
+		onAction(uConfirmEdit, "confirmUserEdit", this::confirmUserEdit);
+		userPanel.add(uConfirmEdit);
+		
+		filePath = "Images/undo2.svg";
+		this.uCancelEdit = new SvgButton(filePath);
+		uCancelEdit.setBackground(Color.white);
+		uCancelEdit.setBounds(90,305,30,30);
+		uCancelEdit.setBorder(null);
+		onAction(uCancelEdit, "cancelUserEdit", this::cancelUserEdit);
+		userPanel.add(uCancelEdit);
+		userPanel.add(userFields);
 	}
 	
 	/**
-	 * Creates and displays a detailed view of a selected contact's information in a dedicated panel.
+	 * Displays a detailed view of a selected contact's information in a dedicated panel.
 	 * This panel includes the contact's name, surname, address, phone number, and age. If the 'flag'
 	 * parameter is true, the panel is set to edit mode, allowing the user to modify the contact's information.
 	 * Edit and delete buttons are provided to save changes or remove the contact.
+	 * The panel is built the first time it is shown; afterwards it is only filled with the contact and switched to the
+	 * requested mode.
 	 *
-	 * @param i The index of the selected contact in the contacts list to display detailed information for.
+	 * @param person The selected contact to display detailed information for.
 	 * @param flag When true, the panel allows editing of the contact's information. Otherwise, it displays the information in a read-only format.
 	 */
-	private void createContactInfoPanel(int i, boolean flag) {
+	private void showContactInfoPanel(Person person, boolean flag) {
+		if (this.personPanel == null) {
+			this.buildContactInfoPanel();
+		}
+		this.pTitleName.setText(person.getName());
+		this.pTitleSurname.setText(person.getSurname());
+		this.pName.setText(person.getName());
+		this.pSurname.setText(person.getSurname());
+		this.pAddress.setText(person.getAddress());
+		this.pPhone.setText(person.getPhone());
+		this.pAge.setText(Integer.toString(person.getAge()));
+		for (JComponent c : this.contactActions) {
+			c.setVisible(!flag);
+		}
+		this.contactFields.setLocation(25, flag ? 150 : 170);
+		Color foreground = flag ? Color.LIGHT_GRAY.darker() : UIManager.getColor("TextField.foreground");
+		for (JTextField f : new JTextField[] {this.pName, this.pSurname, this.pAddress, this.pPhone, this.pAge}) {
+			f.setEditable(flag);
+			f.setForeground(foreground);
+		}
+		this.pConfirmEdit.setVisible(flag);
+		this.pCancelEdit.setVisible(flag);
+		this.personPanel.setVisible(true);
+		add(this.personPanel);
+	}
+	
+	/**
+     * Builds the components of the contact info panel and installs their listeners, once for the life of the frame.
+     */
+	private void buildContactInfoPanel() {
 		this.personPanel = new RoundedPanel(25);
 		personPanel.setBackground(Color.white);
 		personPanel.setBounds(15,10,300,390);
@@ -737,93 +771,93 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		pBackButton.setBackground(Color.white);
 		pBackButton.setBorder(null);
 		pBackButton.setBounds(8,3,35,35);
-		pBackButton.addActionListener(this);
+		onAction(pBackButton, "closeContactInfo", this::closeContactInfo);
 		personPanel.add(pBackButton);
 		
-		if (!flag) {
-			RoundedPanel p = new RoundedPanel(25);
-	        p.setBackground(new Color(0,0,0,0));
-	        p.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        p.setBounds(15, 130, 120, 34);
-	        p.setLayout(null);
-	        p.addMouseListener(new MouseAdapter() {
-	            @Override
-	            public void mouseClicked(MouseEvent e) {
-	                if (SwingUtilities.isLeftMouseButton(e)) {
-	                    pEditButton.doClick();
-	                }
-	            }
-	        });
-	        personPanel.add(p);
-	        
-			RoundedPanel panel = new RoundedPanel(25);
-	        panel.setBackground(Color.white);
-	        panel.setBorder(new RoundedCornerBorder(25, steelBlue));
-	        panel.setBounds(15, 130, 120, 34);
-	        panel.setLayout(null);
-	        
-	        JTextField t = RoundedTextField.createRoundedTextField("Edit credentials", null);
-	        t.setBackground(Color.white);
-	        t.setForeground(steelBlue);
-	        t.setOpaque(false);
-	        t.setEditable(false);
-	        t.setFocusable(false);
-	        t.setBounds(25,1,85,30);
-	        t.setBorder(null);
-	        panel.add(t);
-	        
-	        filePath = "Images/edit1.svg";
-	        pEditButton = new SvgButton(filePath);
-	        pEditButton.setBorder(new RoundedCornerBorder(15, null));
-	        pEditButton.setBackground(Color.white);
-	        pEditButton.setBounds(5, 9,15,15);
-	        pEditButton.setBorder(new MatteBorder(0,0,0,0,background));
-	        pEditButton.addActionListener(this);
-	        panel.add(pEditButton);
-	        
-	        personPanel.add(panel);
-	        
-	        RoundedPanel p1 = new RoundedPanel(25);
-	        p1.setBackground(new Color(0,0,0,0));
-	        p1.setBorder(new RoundedCornerBorder(25, new Color(227,49,49)));
-	        p1.setBounds(160, 130, 120, 34);
-	        p1.setLayout(null);
-	        p1.addMouseListener(new MouseAdapter() {
-	            @Override
-	            public void mouseClicked(MouseEvent e) {
-	                if (SwingUtilities.isLeftMouseButton(e)) {
-	                    deletePerson.doClick();
-	                }
-	            }
-	        });
-	        personPanel.add(p1);
-	        
-	        RoundedPanel panel1 = new RoundedPanel(25);
-	        panel1.setBackground(Color.white);
-	        panel1.setBorder(null);
-	        panel1.setBounds(160, 130, 120, 34);
-	        panel1.setLayout(null);
-	        
-	        JTextField t1 = RoundedTextField.createRoundedTextField("Delete contact", null);
-	        t1.setBackground(Color.white);
-	        t1.setEditable(false);
-	        t1.setForeground(new Color(227,49,49));
-	        t1.setBounds(25,3,85,26);
-	        t1.setFocusable(false);
-	        t1.setBorder(null);
-	        panel1.add(t1);
-	        
-	        filePath = "Images/ElUser.svg";
-	        deletePerson = new SvgButton(filePath);
-	        deletePerson.setBorder(new RoundedCornerBorder(15, null));
-	        deletePerson.setBackground(Color.white);
-	        deletePerson.setBounds(5, 9,15,15);
-	        deletePerson.setBorder(new MatteBorder(0,0,0,0,background));
-	        deletePerson.addActionListener(this);
-	        panel1.add(deletePerson);
-	        
-	        personPanel.add(panel1);
-		}
+		RoundedPanel p = new RoundedPanel(25);
+		p.setBackground(new Color(0,0,0,0));
+		p.setBorder(new RoundedCornerBorder(25, steelBlue));
+		p.setBounds(15, 130, 120, 34);
+		p.setLayout(null);
+		p.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (SwingUtilities.isLeftMouseButton(e)) {
+					pEditButton.doClick();
+				}
+			}
+		});
+		personPanel.add(p);
+		
+		RoundedPanel panel = new RoundedPanel(25);
+		panel.setBackground(Color.white);
+		panel.setBorder(new RoundedCornerBorder(25, steelBlue));
+		panel.setBounds(15, 130, 120, 34);
+		panel.setLayout(null);
+		
+		JTextField t = RoundedTextField.createRoundedTextField("Edit credentials", null);
+		t.setBackground(Color.white);
+		t.setForeground(steelBlue);
+		t.setOpaque(false);
+		t.setEditable(false);
+		t.setFocusable(false);
+		t.setBounds(25,1,85,30);
+		t.setBorder(null);
+		panel.add(t);
+		
+		filePath = "Images/edit1.svg";
+		pEditButton = new SvgButton(filePath);
+		pEditButton.setBorder(new RoundedCornerBorder(15, null));
+		pEditButton.setBackground(Color.white);
+		pEditButton.setBounds(5, 9,15,15);
+		pEditButton.setBorder(new MatteBorder(0,0,0,0,background));
+		onAction(pEditButton, "editSelectedContact", this::editSelectedContact);
+		panel.add(pEditButton);
+		
+		personPanel.add(panel);
+		
+		RoundedPanel p1 = new RoundedPanel(25);
+		p1.setBackground(new Color(0,0,0,0));
+		p1.setBorder(new RoundedCornerBorder(25, new Color(227,49,49)));
+		p1.setBounds(160, 130, 120, 34);
+		p1.setLayout(null);
+		p1.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (SwingUtilities.isLeftMouseButton(e)) {
+					deletePerson.doClick();
+				}
+			}
+		});
+		personPanel.add(p1);
+		
+		RoundedPanel panel1 = new RoundedPanel(25);
+		panel1.setBackground(Color.white);
+		panel1.setBorder(null);
+		panel1.setBounds(160, 130, 120, 34);
+		panel1.setLayout(null);
+		
+		JTextField t1 = RoundedTextField.createRoundedTextField("Delete contact", null);
+		t1.setBackground(Color.white);
+		t1.setEditable(false);
+		t1.setForeground(new Color(227,49,49));
+		t1.setBounds(25,3,85,26);
+		t1.setFocusable(false);
+		t1.setBorder(null);
+		panel1.add(t1);
+		
+		filePath = "Images/ElUser.svg";
+		deletePerson = new SvgButton(filePath);
+		deletePerson.setBorder(new RoundedCornerBorder(15, null));
+		deletePerson.setBackground(Color.white);
+		deletePerson.setBounds(5, 9,15,15);
+		deletePerson.setBorder(new MatteBorder(0,0,0,0,background));
+		onAction(deletePerson, "deleteSelectedContact", this::deleteSelectedContact);
+		panel1.add(deletePerson);
+		
+		personPanel.add(panel1);
+		
+		this.contactActions = new JComponent[] {p, panel, p1, panel1};
 		
 		filePath = "Images/contactCard.svg";
 		SvgIconPanel card = new SvgIconPanel(filePath);
@@ -831,107 +865,106 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		card.setBounds(10,20,120,120);
 		personPanel.add(card);
 		
-		ShadowLabel titleName = new ShadowLabel(this.personsPanel.get(i).getPerson().getName());
-		titleName.setBackground(Color.white);
-		titleName.setForeground(steelBlue);
-		titleName.setFont(new Font("Arial", Font.BOLD, 22));
-		titleName.setBounds(140,55,150,30);
-		personPanel.add(titleName);
+		this.pTitleName = new ShadowLabel("");
+		pTitleName.setBackground(Color.white);
+		pTitleName.setForeground(steelBlue);
+		pTitleName.setFont(new Font("Arial", Font.BOLD, 22));
+		pTitleName.setBounds(140,55,150,30);
+		personPanel.add(pTitleName);
 		
-		ShadowLabel titleSurname = new ShadowLabel(this.personsPanel.get(i).getPerson().getSurname());
-		titleSurname.setBackground(Color.white);
-		titleSurname.setForeground(steelBlue);
-		titleSurname.setFont(new Font("Arial", Font.BOLD, 22));
-		titleSurname.setBounds(140,95,150,30);
-		personPanel.add(titleSurname);
+		this.pTitleSurname = new ShadowLabel("");
+		pTitleSurname.setBackground(Color.white);
+		pTitleSurname.setForeground(steelBlue);
+		pTitleSurname.setFont(new Font("Arial", Font.BOLD, 22));
+		pTitleSurname.setBounds(140,95,150,30);
+		personPanel.add(pTitleSurname);
 		
-		RoundedPanel whitePanel = new RoundedPanel(15);
-		if (!flag) {
-			whitePanel.setBounds(25,170,250,185);	
-		}
-		else {
-			whitePanel.setBounds(25,150,250,185);	
-		}
-		whitePanel.setBackground(Color.white);
-		whitePanel.setBorder(new RoundedCornerBorder(15, steelBlue));
-		whitePanel.setLayout(null);
+		this.contactFields = new RoundedPanel(15);
+		contactFields.setSize(250,185);
+		contactFields.setBackground(Color.white);
+		contactFields.setBorder(new RoundedCornerBorder(15, steelBlue));
+		contactFields.setLayout(null);
 		
-		pName = new JTextField(this.personsPanel.get(i).getPerson().getName());
-		pName.setEditable(flag);
+		pName = new JTextField();
 		pName.setFont(pFont);
 		pName.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		pName.setBackground(Color.white);
 		pName.setBounds(25,10,200,25);
-		whitePanel.add(pName);
+		contactFields.add(pName);
 		
-		pSurname = new JTextField(this.personsPanel.get(i).getPerson().getSurname());
-		pSurname.setEditable(flag);
+		pSurname = new JTextField();
 		pSurname.setFont(pFont);
 		pSurname.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		pSurname.setBackground(Color.white);
 		pSurname.setBounds(25,45,200,25);
-		whitePanel.add(pSurname);
+		contactFields.add(pSurname);
 		
-		pAddress = new JTextField(this.personsPanel.get(i).getPerson().getAddress());
-		pAddress.setEditable(flag);
+		pAddress = new JTextField();
 		pAddress.setFont(pFont);
 		pAddress.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		pAddress.setBackground(Color.white);
 		pAddress.setBounds(25,80,200,25);
-		whitePanel.add(pAddress);
+		contactFields.add(pAddress);
 		
-		pPhone = new JTextField(this.personsPanel.get(i).getPerson().getPhone());
-		pPhone.setEditable(flag);
+		pPhone = new JTextField();
 		pPhone.setFont(pFont);
 		pPhone.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		pPhone.setBackground(Color.white);
 		pPhone.setBounds(25,115,200,25);
-		whitePanel.add(pPhone);
+		contactFields.add(pPhone);
 		
-		pAge = new JTextField(Integer.toString(this.personsPanel.get(i).getPerson().getAge()));
-		pAge.setEditable(flag);
+		pAge = new JTextField();
 		pAge.setFont(pFont);
 		pAge.setBorder(new MatteBorder(0,0,1,0,steelBlue));
 		pAge.setBackground(Color.white);
 		pAge.setBounds(25,150,200,25);
-		whitePanel.add(pAge);
+		contactFields.add(pAge);
 		
-		if (flag) {
-			pName.setForeground(Color.LIGHT_GRAY.darker());
-			pSurname.setForeground(Color.LIGHT_GRAY.darker());
-			pAddress.setForeground(Color.LIGHT_GRAY.darker());
-			pPhone.setForeground(Color.LIGHT_GRAY.darker());
-			pAge.setForeground(Color.LIGHT_GRAY.darker());
-			
-			filePath = "Images/confirm.svg";
-			this.pConfirmEdit = new SvgButton(filePath);
-			pConfirmEdit.setBackground(Color.white);
-			pConfirmEdit.setBorder(null);
-			pConfirmEdit.setBounds(180,345,30,30);
-			pConfirmEdit.addActionListener(this);
-			personPanel.add(pConfirmEdit);
-			
-			filePath = "Images/undo2.svg";
-			this.pCancelEdit = new SvgButton(filePath);
-			pCancelEdit.setBackground(Color.white);
-			pCancelEdit.setBounds(90,345,30,30);
-			pCancelEdit.setBorder(null);
-			pCancelEdit.addActionListener(this);
-			personPanel.add(pCancelEdit);
-		}
-		personPanel.add(whitePanel);
-		add(personPanel);
+		filePath = "Images/confirm.svg";
+		this.pConfirmEdit = new SvgButton(filePath);
+		pConfirmEdit.setBackground(Color.white);
+		pConfirmEdit.setBorder(null);
+		pConfirmEdit.setBounds(180,345,30,30);
+		onAction(pConfirmEdit, "confirmContactEdit", this::confirmContactEdit);
+		personPanel.add(pConfirmEdit);
+		
+		filePath = "Images/undo2.svg";
+		this.pCancelEdit = new SvgButton(filePath);
+		pCancelEdit.setBackground(Color.white);
+		pCancelEdit.setBounds(90,345,30,30);
+		pCancelEdit.setBorder(null);
+		onAction(pCancelEdit, "cancelContactEdit", this::cancelContactEdit);
+		personPanel.add(pCancelEdit);
+		personPanel.add(contactFields);
 	}
 	
 	/**
-	 * Initializes a panel for adding a new contact to the phonebook. This panel includes text fields
+	 * Displays the panel for adding a new contact to the phonebook. This panel includes text fields
 	 * for inputting the new contact's name, surname, address, phone number, and age. Additionally, it provides
 	 * 'Confirm' and 'Cancel' buttons for submitting the new contact information or aborting the add operation.
+	 * The panel is built the first time it is shown; afterwards its fields are only cleared back to their placeholders.
 	 */
-	private void createAddPanel() {
+	private void showAddPanel() {
 		this.createTopPanel(true);
 		add(topPanel);
-		
+		if (this.addPanel == null) {
+			this.buildAddPanel();
+		}
+		String[] placeholders = {"Name", "Surname", "Address", "Phone", "Age"};
+		JTextField[] fields = {this.aName, this.aSurname, this.aAddress, this.aPhone, this.aAge};
+		for (int i = 0; i < fields.length; i++) {
+			fields[i].setText(placeholders[i]);
+			fields[i].setForeground(Color.LIGHT_GRAY);
+		}
+		this.addPanel.setVisible(true);
+		add(this.addPanel);
+	}
+	
+	/**
+     * Builds the components of the panel for adding a contact and installs their listeners, once for the life of the
+     * frame.
+     */
+	private void buildAddPanel() {
 		this.addPanel = new RoundedPanel(25);
 		addPanel.setBounds(20,90,295,280);
 		addPanel.setBackground(Color.white);
@@ -939,40 +972,40 @@ public class PhonebookFrame extends JFrame implements ActionListener{
 		addPanel.setBorder(new RoundedCornerBorder(15, steelBlue));
 		addPanel.setLayout(null);
 		
-		pName = RoundedTextField.createRoundedTextField("Name", null);
-		pName.setFont(pFont);
-		pName.setBorder(new MatteBorder(0,0,1,0,steelBlue));
-		pName.setBackground(Color.white);
-		pName.setBounds(15,10,260,25);
-		addPanel.add(pName);
+		aName = RoundedTextField.createRoundedTextField("Name", null);
+		aName.setFont(pFont);
+		aName.setBorder(new MatteBorder(0,0,1,0,steelBlue));
+		aName.setBackground(Color.white);
+		aName.setBounds(15,10,260,25);
+		addPanel.add(aName);
 		
-		pSurname = RoundedTextField.createRoundedTextField("Surname", null);
-		pSurname.setFont(pFont);
-		pSurname.setBorder(new MatteBorder(0,0,1,0,steelBlue));
-		pSurname.setBackground(Color.white);
-		pSurname.setBounds(15,45,260,25);
-		addPanel.add(pSurname);
+		aSurname = RoundedTextField.createRoundedTextField("Surname", null);
+		aSurname.setFont(pFont);
+		aSurname.setBorder(new MatteBorder(0,0,1,0,steelBlue));
+		aSurname.setBackground(Color.white);
+		aSurname.setBounds(15,45,260,25);
+		addPanel.add(aSurname);
 		
-		pAddress = RoundedTextField.createRoundedTextField("Address", null);
-		pAddress.setFont(pFont);
-		pAddress.setBorder(new MatteBorder(0,0,1,0,steelBlue));
-		pAddress.setBackground(Color.white);
-		pAddress.setBounds(15,80,260,25);
-		addPanel.add(pAddress);
+		aAddress = RoundedTextField.createRoundedTextField("Address", null);
+		aAddress.setFont(pFont);
+		aAddress.setBorder(new MatteBorder(0,0,1,0,steelBlue));
+		aAddress.setBackground(Color.white);
+		aAddress.setBounds(15,80,260,25);
+		addPanel.add(aAddress);
 		
-		pPhone = RoundedTextField.createRoundedTextField("Phone", null);
-		pPhone.setFont(pFont);
-		pPhone.setBorder(new MatteBorder(0,0,1,0,steelBlue));
-		pPhone.setBackground(Color.white);
-		pPhone.setBounds(15,115,260,25);
-		addPanel.add(pPhone);
+		aPhone = RoundedTextField.createRoundedTextField("Phone", null);
+		aPhone.setFont(pFont);
+		aPhone.setBorder(new MatteBorder(0,0,1,0,steelBlue));
+		aPhone.setBackground(Color.white);
+		aPhone.setBounds(15,115,260,25);
+		addPanel.add(aPhone);
 		
-		pAge = RoundedTextField.createRoundedTextField("Age", null);
-		pAge.setFont(pFont);
-		pAge.setBorder(new MatteBorder(0,0,1,0,steelBlue));
-		pAge.setBackground(Color.white);
-		pAge.setBounds(17,150,260,25);
-		addPanel.add(pAge);
+		aAge = RoundedTextField.createRoundedTextField("Age", null);
+		aAge.setFont(pFont);
+		aAge.setBorder(new MatteBorder(0,0,1,0,steelBlue));
+		aAge.setBackground(Color.white);
+		aAge.setBounds(17,150,260,25);
+		addPanel.add(aAge);
 		
 		RoundedPanel p = new RoundedPanel(25);
         p.setBackground(new Color(0,0,0,0));
@@ -1009,7 +1042,7 @@ public class PhonebookFrame extends JFrame implements ActionListener{
         addCancelButton.setBackground(Color.white);
         addCancelButton.setBounds(5,3,25,25);
         addCancelButton.setBorder(null);
-        addCancelButton.addActionListener(this);
+        onAction(addCancelButton, "cancelAddContact", this::cancelAddContact);
         panel.add(addCancelButton);
         
         addPanel.add(panel);
@@ -1049,329 +1082,456 @@ public class PhonebookFrame extends JFrame implements ActionListener{
         addConfirmButton.setBackground(Color.white);
         addConfirmButton.setBounds(3,6,20,20);
         addConfirmButton.setBorder(null);
-        addConfirmButton.addActionListener(this);
+        onAction(addConfirmButton, "confirmAddContact", this::confirmAddContact);
         panel1.add(addConfirmButton);
         
         addPanel.add(panel1);
-        add(addPanel);
+	}
+	
+	/**
+     * Shows the error of a task that failed in the background.
+     *
+     * @param ex The exception thrown by the task.
+     */
+	private void showError(Throwable ex) {
+		JOptionPane.showMessageDialog(this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+	}
+	
+	/**
+     * Shows a task that failed in the background because of the data typed by the user.
+     *
+     * @param ex The exception thrown by the task.
+     */
+	private void showWarning(Throwable ex) {
+		JOptionPane.showMessageDialog(this, ex.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
 	}
 	
 	/**
 	 * Handles actions performed on the GUI components, such as button clicks for adding, deleting,
-	 * and editing contacts, as well as navigating between different UI panels. This method routes
-	 * each action to its appropriate handler based on the source of the event.
+	 * and editing contacts, as well as navigating between different UI panels. The handler of the
+	 * source of the event is looked up in the map filled by {@link #onAction(AbstractButton, String, Runnable)},
+	 * so the work done per click does not depend on the number of buttons or contacts. While the handler
+	 * runs, the work of the EDT is tagged with its command for the reports of {@link EdtWatchdog}.
 	 *
 	 * @param e The action event generated by interacting with GUI components.
 	 */
 	@Override
 	public void actionPerformed(ActionEvent e) {
-		if (e.getSource() == this.deleteButton) {
-			removeMainComponent();
-			addMainComponent(false, true, user.getContacts());
-			repaint();
-			createDeletePanel();
-			repaint();
-		}
-		
-		for (int i = 0; i < this.personsPanel.size(); i++) {
-			if (e.getSource() == this.personsPanel.get(i).getDeleteButton()) {
-				if (this.personsPanel.get(i).getDeleteButton().getFilePath().equals("Images/empty.svg")) {
-					this.personsPanel.get(i).setSelected(true);
-					String filePath = "Images/check.svg";
-					File file = new File(filePath);
-					URI svgUri = file.toURI();
-					this.personsPanel.get(i).getDeleteButton().setSvgURI(svgUri);
-					this.personsPanel.get(i).getDeleteButton().setFilePath(filePath);
-				}
-				else {
-					this.personsPanel.get(i).setSelected(false);
-					String filePath = "Images/empty.svg";
-					File file = new File(filePath);
-					URI svgUri = file.toURI();
-					this.personsPanel.get(i).getDeleteButton().setSvgURI(svgUri);
-					this.personsPanel.get(i).getDeleteButton().setFilePath(filePath);
-				}
+		Runnable handler = this.handlers.get(e.getSource());
+		if (handler != null) {
+			EdtWatchdog.actionStarted("PhonebookFrame", e.getActionCommand());
+			try {
+				handler.run();
 			}
-			
-			if (e.getSource() == this.personsPanel.get(i).getContactButton()) {
-				removeMainComponent();
-				this.createContactInfoPanel(i, false);
-				selected = i;
+			finally {
+				EdtWatchdog.actionEnded();
 			}
-			
 		}
-		
-		if (e.getSource() == this.undoButton) {
-			this.deletePanel.setVisible(false);
-			this.remove(deletePanel);
-			removeMainComponent();
-			addMainComponent(false, false, user.getContacts());
-			repaint();
-		}
-		
-		if (e.getSource() == this.doneButton) {
-			int response = JOptionPane.showConfirmDialog(this, "Eliminate contacts?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
-			if (response == JOptionPane.YES_OPTION) {
-				for (int i = 0; i < this.personsPanel.size(); i++) {
-					if (this.personsPanel.get(i).getSelected() == true) {
-						PhoneAction.deletePerson(this.personsPanel.get(i).getPerson(), user);			
-					}
+	}
+	
+	/**
+     * Registers the handler run when a button is pressed. The user, contact and add panels are built once, but the top
+     * panel, with its buttons and search field, is built again every time the main view is shown or switches to and
+     * from deletion mode, so the map holds the components weakly and forgets the ones of the replaced top panels.
+     *
+     * @param button The button.
+     * @param command The name of the action of the button, used as its action command.
+     * @param handler The handler of the button.
+     */
+	private void onAction(AbstractButton button, String command, Runnable handler) {
+		button.setActionCommand(command);
+		this.handlers.put(button, handler);
+		button.addActionListener(this);
+	}
+	
+	/**
+     * Registers the handler run when Enter is pressed in a text field, as {@link #onAction(AbstractButton, String, Runnable)}
+     * does for a button.
+     *
+     * @param field The text field.
+     * @param command The name of the action of the field, used as its action command.
+     * @param handler The handler of the field.
+     */
+	private void onAction(JTextField field, String command, Runnable handler) {
+		field.setActionCommand(command);
+		this.handlers.put(field, handler);
+		field.addActionListener(this);
+	}
+	
+	/**
+     * Switches the main view to deletion mode, where contacts are checked to be deleted together.
+     */
+	private void enterDeletionMode() {
+		removeMainComponent();
+		addMainComponent(false, true);
+		repaint();
+		createDeletePanel();
+		repaint();
+	}
+	
+	/**
+     * Leaves deletion mode without deleting any contact.
+     */
+	private void cancelDeletion() {
+		this.deletePanel.setVisible(false);
+		this.remove(deletePanel);
+		removeMainComponent();
+		addMainComponent(false, false);
+		repaint();
+	}
+	
+	/**
+     * Deletes the contacts checked in deletion mode, after the user confirms, and leaves deletion mode.
+     */
+	private void deleteCheckedContacts() {
+		int response = JOptionPane.showConfirmDialog(this, "Eliminate contacts?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
+		if (response == JOptionPane.YES_OPTION) {
+			ArrayList<Person> selectedPersons = new ArrayList<Person>();
+			for (int i = 0; i < this.contactsModel.getSize(); i++) {
+				if (this.checkedContacts.contains(this.contactsModel.getElementAt(i))) {
+					selectedPersons.add(this.contactsModel.getElementAt(i));
 				}
-				this.deletePanel.setVisible(false);
-				remove(deletePanel);
-				removeMainComponent();
-				repaint();
-				addMainComponent(false, false, user.getContacts());
-				repaint();
 			}
-			else {
+			BackgroundTask.run(this, () -> {
+				PhoneAction.deletePersons(selectedPersons, user);
+				return null;
+			}, done -> {
 				this.deletePanel.setVisible(false);
 				remove(deletePanel);
 				removeMainComponent();
 				repaint();
-				addMainComponent(false, false, user.getContacts());
+				addMainComponent(false, false);
 				repaint();
-			}
+			}, this::showError, this.doneButton, this.undoButton);
 		}
-		
-		if (e.getSource() == this.deletePerson) {
-			int response = JOptionPane.showConfirmDialog(this, "Eliminate contact?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
-			if (response == JOptionPane.YES_OPTION) {
-				PhoneAction.deletePerson(this.personsPanel.get(selected).getPerson(), user);
-				selected = -1;
+		else {
+			this.deletePanel.setVisible(false);
+			remove(deletePanel);
+			removeMainComponent();
+			repaint();
+			addMainComponent(false, false);
+			repaint();
+		}
+	}
+	
+	/**
+     * Deletes the contact shown in the contact info panel, after the user confirms.
+     */
+	private void deleteSelectedContact() {
+		int response = JOptionPane.showConfirmDialog(this, "Eliminate contact?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
+		if (response == JOptionPane.YES_OPTION) {
+			Person p = selected;
+			BackgroundTask.run(this, () -> {
+				PhoneAction.deletePerson(p, user);
+				return null;
+			}, done -> {
+				selected = null;
 				personPanel.setVisible(false);
 				remove(personPanel);
 				removeMainComponent();
-				addMainComponent(false, false, user.getContacts());
+				addMainComponent(false, false);
 				repaint();
-			}
+			}, this::showError, this.deletePerson, this.pBackButton);
 		}
-		
-		if (e.getSource() == this.pEditButton) {
-				this.personPanel.setVisible(false);
-				remove(personPanel);
-				this.createContactInfoPanel(selected, true);
-				repaint();
-		}
-		
-		if (e.getSource() == this.uEditButton) {
-			this.userPanel.setVisible(false);
-			remove(userPanel);
-			this.createUserPanel(true);
-			repaint();
-		}
-		
-		if (e.getSource() == this.pConfirmEdit) {	
-			int response = JOptionPane.showConfirmDialog(this, "Edit contact?", "Confirm edit", JOptionPane.YES_NO_OPTION);
-			if (response == JOptionPane.YES_OPTION) {
-				try {
-					this.personsPanel.get(selected).getPerson().setName(this.pName.getText());
-					this.personsPanel.get(selected).getPerson().setSurname(this.pSurname.getText());
-					this.personsPanel.get(selected).getPerson().setAddress(this.pAddress.getText());
-					this.personsPanel.get(selected).getPerson().setPhone(this.pPhone.getText());
-					this.personsPanel.get(selected).getPerson().setAge(Integer.parseInt(this.pAge.getText()));
-				}
-				catch(Exception e1) {
-					JOptionPane.showMessageDialog(this, e1.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
+	}
+	
+	/**
+     * Shows the contact info panel in edit mode.
+     */
+	private void editSelectedContact() {
+		this.personPanel.setVisible(false);
+		remove(personPanel);
+		this.showContactInfoPanel(selected, true);
+		repaint();
+	}
+	
+	/**
+     * Shows the user panel in edit mode.
+     */
+	private void editUser() {
+		this.userPanel.setVisible(false);
+		remove(userPanel);
+		this.showUserPanel(true);
+		repaint();
+	}
+	
+	/**
+     * Saves the edited contact, after the user confirms, and shows it again.
+     */
+	private void confirmContactEdit() {
+		int response = JOptionPane.showConfirmDialog(this, "Edit contact?", "Confirm edit", JOptionPane.YES_NO_OPTION);
+		if (response == JOptionPane.YES_OPTION) {
+			try {
+				Person edited = selected.toBuilder()
+						.name(this.pName.getText())
+						.surname(this.pSurname.getText())
+						.address(this.pAddress.getText())
+						.phone(this.pPhone.getText())
+						.age(Integer.parseInt(this.pAge.getText()))
+						.build();
+				BackgroundTask.run(this, () -> {
+					PhoneAction.editPerson(user, edited);
+					return null;
+				}, done -> {
+					selected = edited;
 					personPanel.setVisible(false);
 					remove(personPanel);
-					this.createContactInfoPanel(selected, true);
+					this.showContactInfoPanel(selected, false);
 					repaint();
-				}
-				PhoneAction.editPerson(user, this.personsPanel.get(selected).getPerson());
-				personPanel.setVisible(false);
-				remove(personPanel);
-				this.createContactInfoPanel(selected, false);
-				repaint();
+				}, this::showWarning, this.pConfirmEdit, this.pCancelEdit, this.pBackButton);
 			}
-			else {
+			catch(Exception e1) {
+				JOptionPane.showMessageDialog(this, e1.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
 				personPanel.setVisible(false);
 				remove(personPanel);
-				repaint();
-				this.createContactInfoPanel(selected, false);
-				repaint();
-			}	
-		}
-		
-		if (e.getSource() == this.uConfirmEdit) {
-			int response = JOptionPane.showConfirmDialog(this, "Edit user credentials?", "Confirm edit", JOptionPane.YES_NO_OPTION);
-			if (response == JOptionPane.YES_OPTION) {
-				try {
-					user.setName(uName.getText());
-					user.setSurname(uSurname.getText());
-					if (!uUsername.getText().equals(user.getUsername())) {
-						user.setUsername(uUsername.getText());
-						PhoneAction.checkUsername(uUsername.getText());
-						PhoneAction.editUser(user);
-					}
-					userPanel.setVisible(false);
-					remove(userPanel);
-					repaint();
-					this.createUserPanel(false);
-					repaint();
-				}
-				catch(Exception e1) {
-					JOptionPane.showMessageDialog(this, e1.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
-				}
-			}
-			else {
-				userPanel.setVisible(false);
-				remove(userPanel);
-				repaint();
-				this.createUserPanel(false);
+				this.showContactInfoPanel(selected, true);
 				repaint();
 			}
 		}
-		
-		if(e.getSource() == this.pCancelEdit) {
-			this.personPanel.setVisible(false);
+		else {
+			personPanel.setVisible(false);
 			remove(personPanel);
 			repaint();
-			this.createContactInfoPanel(selected, false);
+			this.showContactInfoPanel(selected, false);
 			repaint();
 		}	
-		
-		if (e.getSource() == this.uCancelEdit) {
-				this.userPanel.setVisible(false);
+	}
+	
+	/**
+     * Saves the edited credentials of the user, after the user confirms, and shows them again.
+     */
+	private void confirmUserEdit() {
+		int response = JOptionPane.showConfirmDialog(this, "Edit user credentials?", "Confirm edit", JOptionPane.YES_NO_OPTION);
+		if (response == JOptionPane.YES_OPTION) {
+			String name = uName.getText();
+			String surname = uSurname.getText();
+			String username = uUsername.getText();
+			try {
+				user.checkIfNotEmpty(name);
+				user.checkIfNotEmpty(surname);
+				user.checkIfNotEmpty(username);
+			}
+			catch (IllegalArgumentException e) {
+				this.showWarning(e);
+				return;
+			}
+			// The user is changed only once the credentials are saved, so a taken username leaves it as it was
+			BackgroundTask.run(this, () -> {
+				PhoneAction.editUser(user, name, surname, username);
+				return null;
+			}, done -> {
+				user.setName(name);
+				user.setSurname(surname);
+				user.setUsername(username);
+				userPanel.setVisible(false);
 				remove(userPanel);
 				repaint();
-				this.createUserPanel(false);
+				this.showUserPanel(false);
 				repaint();
+			}, this::showWarning, this.uConfirmEdit, this.uCancelEdit);
 		}
-		
-		
-		if (e.getSource() == this.pBackButton) {
-			selected = -1;
-			this.personPanel.setVisible(false);
-			remove(personPanel);
+		else {
+			userPanel.setVisible(false);
+			remove(userPanel);
 			repaint();
-			addMainComponent(false, false, user.getContacts());
+			this.showUserPanel(false);
 			repaint();
 		}
-		
-		if (e.getSource() == this.uBackButton) {
-			this.userPanel.setVisible(false);
+	}
+	
+	/**
+     * Discards the changes to the contact and shows it again.
+     */
+	private void cancelContactEdit() {
+		this.personPanel.setVisible(false);
+		remove(personPanel);
+		repaint();
+		this.showContactInfoPanel(selected, false);
+		repaint();
+	}
+	
+	/**
+     * Discards the changes to the credentials of the user and shows them again.
+     */
+	private void cancelUserEdit() {
+		this.userPanel.setVisible(false);
+		remove(userPanel);
+		repaint();
+		this.showUserPanel(false);
+		repaint();
+	}
+	
+	/**
+     * Closes the contact info panel and goes back to the main view.
+     */
+	private void closeContactInfo() {
+		selected = null;
+		this.personPanel.setVisible(false);
+		remove(personPanel);
+		repaint();
+		addMainComponent(false, false);
+		repaint();
+	}
+	
+	/**
+     * Closes the user panel and goes back to the main view.
+     */
+	private void closeUserPanel() {
+		this.userPanel.setVisible(false);
+		remove(userPanel);
+		repaint();
+		addMainComponent(false, false);
+		repaint();
+	}
+	
+	/**
+     * Shows the user panel in place of the main view.
+     */
+	private void openUserPanel() {
+		removeMainComponent();
+		this.showUserPanel(false);
+		repaint();
+	}
+	
+	/**
+     * Asks the user for the old and the new password and changes the password in the background.
+     */
+	private void changePassword() {
+		String OldPassword = JOptionPane.showInputDialog(this, "Enter your old password:");
+
+        if (OldPassword != null) {
+            // Both passwords are asked first, so the slow hash checks can run together off the EDT
+            String newPassword = JOptionPane.showInputDialog(this, "Enter your new password:");
+            if (newPassword != null && !newPassword.isEmpty()) {
+            	this.uEditPasswordButton.setEnabled(false);
+            	PhoneAction.changePassword(user, OldPassword, newPassword).whenComplete((changed, ex) -> SwingUtilities.invokeLater(() -> {
+            		this.uEditPasswordButton.setEnabled(true);
+            		if (ex != null) {
+            			Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            			JOptionPane.showMessageDialog(this, cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            		}
+            		else if (changed) {
+            			JOptionPane.showMessageDialog(this, "Password changed successfully!");
+            		}
+            		else {
+            			JOptionPane.showMessageDialog(this, "Incorrect old password.", "Error", JOptionPane.ERROR_MESSAGE);
+            		}
+            	}));
+            } 
+            else {
+            	JOptionPane.showMessageDialog(this, "Password must not be empty", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        } else {
+            JOptionPane.showMessageDialog(this, "Operation canceled.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+	}
+	
+	/**
+     * Deletes the account of the user, after the user confirms, and goes back to the login frame.
+     */
+	private void deleteAccount() {
+		int response = JOptionPane.showConfirmDialog(this, "Eliminate account?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
+		if (response == JOptionPane.YES_OPTION) {
+			BackgroundTask.run(this, () -> {
+				PhoneAction.deleteUser(user);
+				return null;
+			}, done -> WindowsManager.switchToLoginFrame(), this::showError, this.uEliminate, this.uBackButton);
+		}
+		else {
+			userPanel.setVisible(false);
 			remove(userPanel);
 			repaint();
-			addMainComponent(false, false, user.getContacts());
-			repaint();
-		}
-		
-		if (e.getSource() == this.userButton) {
-			removeMainComponent();
-			this.createUserPanel(false);
+			this.showUserPanel(false);
 			repaint();
 		}
-		
-		if (e.getSource() == this.uEditPasswordButton) {
-			String OldPassword = JOptionPane.showInputDialog(this, "Enter your old password:");
-			
-	        if (OldPassword != null && user.checkPassword(OldPassword)) {
-	            // If the old password is correct, prompt for a new password
-	            String newPassword = JOptionPane.showInputDialog(this, "Enter your new password:");
-	            if (newPassword != null && !newPassword.isEmpty()) {
-	            	try {
-	            		user.setPassword(newPassword);
-	            		PhoneAction.editUser(user);
-		                JOptionPane.showMessageDialog(this, "Password changed successfully!");
-	            	}
-	                catch(Exception e1) {
-	                	JOptionPane.showMessageDialog(this, e1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-	                }
-	            } 
-	            else {
-	            	JOptionPane.showMessageDialog(this, "Password must not be empty", "Error", JOptionPane.ERROR_MESSAGE);
-	            }
-	        } else {
-	            JOptionPane.showMessageDialog(this, "Operation canceled or incorrect old password.", "Error", JOptionPane.ERROR_MESSAGE);
-	        }
-		}
-		
-		if (e.getSource() == this.uEliminate) {
-			int response = JOptionPane.showConfirmDialog(this, "Eliminate account?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
-			if (response == JOptionPane.YES_OPTION) {
-				PhoneAction.deleteUser(user);
-				WindowsManager.switchToLoginFrame();
-			}
-			else {
-				userPanel.setVisible(false);
-				remove(userPanel);
-				repaint();
-				this.createUserPanel(false);
-				repaint();
-			}
-		}
-		
-		if (e.getSource() == this.searchButton) {
-			String s = this.searchField.getText();
-			if (s.equals("Search...") || s.trim().isEmpty()) {
-				removeMainComponent();
-				addMainComponent(false, false, user.getContacts());
-				repaint();
+	}
+	
+	/**
+     * Searches the contacts for the text of the search field right away, without waiting for the user to stop typing,
+     * when the search button or Enter is pressed.
+     */
+	private void searchContacts() {
+		this.liveSearch.searchNow();
+	}
+	
+	/**
+     * Adds the next page of the results of the search to the contacts list.
+     */
+	private void moreResults() {
+		this.liveSearch.more();
+	}
+	
+	/**
+     * Shows the panel to add a contact in place of the main view.
+     */
+	private void openAddPanel() {
+		removeMainComponent();
+		showAddPanel();
+            repaint();
+	}
+	
+	/**
+     * Adds the contact filled in the add panel and goes back to the main view.
+     */
+	private void confirmAddContact() {
+		try {
+			String[] info = {aName.getText(), aSurname.getText(), aAddress.getText(), aPhone.getText(), aAge.getText()};
+			if (info[0].equals("Name")|| info[1].equals("Surname") || info[2].equals("Address") || info[3].equals("Phone") || info[4].equals("Age")) {
+				JOptionPane.showMessageDialog(this, "All fields must not be empty", "Warning", JOptionPane.WARNING_MESSAGE);
 			}
-			else {
-				ArrayList<Person > contacts = PhoneAction.Search(user, s);
-				if (contacts.size() == 0) {
-					JOptionPane.showMessageDialog(this, "Contact not found.", "Info", JOptionPane.INFORMATION_MESSAGE);
-					removeMainComponent();
-					addMainComponent(false, false, user.getContacts());
-					repaint();
-				}
-				else {
-					removeMainComponent();
-					addMainComponent(false, false, contacts);
-					repaint();
-				}
 
-			}
-		}
-		if (e.getSource() == this.addButton) {
-			removeMainComponent();
-			createAddPanel();
-            repaint();
-		}
-		if (e.getSource() == this.addConfirmButton) {
-			try {
-				String[] info = {pName.getText(), pSurname.getText(), pAddress.getText(),pPhone.getText(), pAge.getText()};
-				if (info[0].equals("Name")|| info[1].equals("Surname") || info[2].equals("Address") || info[3].equals("Phone") || info[4].equals("Age")) {
+			for (int i = 0; i < info.length; i++) {
+				if (info[i].trim().isEmpty()) {
 					JOptionPane.showMessageDialog(this, "All fields must not be empty", "Warning", JOptionPane.WARNING_MESSAGE);
 				}
-				
-				for (int i = 0; i < info.length; i++) {
-					if (info[i].trim().isEmpty()) {
-						JOptionPane.showMessageDialog(this, "All fields must not be empty", "Warning", JOptionPane.WARNING_MESSAGE);
-					}
+			}
+			Person p = new Person(info, user);
+			ArrayList<Person> duplicates = PhoneAction.samePhone(user, p);
+			if (!duplicates.isEmpty()) {
+				Person d = duplicates.get(0);
+				int response = JOptionPane.showConfirmDialog(this, "The phone number already belongs to " + d.getName() + " " + d.getSurname() + ". Add the contact anyway?", "Duplicate phone number", JOptionPane.YES_NO_OPTION);
+				if (response != JOptionPane.YES_OPTION) {
+					return;
 				}
-				Person p = new Person(info, user);
+			}
+			BackgroundTask.run(this, () -> {
 				PhoneAction.addPerson(p, user);
+				return null;
+			}, done -> {
 				addPanel.setVisible(false);
 				topPanel.setVisible(false);
 				remove(addPanel);
 				remove(topPanel);
 				repaint();
-				addMainComponent(false, false, user.getContacts());
+				addMainComponent(false, false);
 				repaint();
-			}
-			catch(Exception e1) {
-				JOptionPane.showMessageDialog(this, e1.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
-			}
+			}, this::showWarning, this.addConfirmButton, this.addCancelButton);
 		}
-		
-		if (e.getSource() == this.addCancelButton) {
-			addPanel.setVisible(false);
-			topPanel.setVisible(false);
-			remove(addPanel);
-			remove(topPanel);
-			repaint();
-			addMainComponent(false, false, user.getContacts());
-			repaint();
+		catch(Exception e1) {
+			JOptionPane.showMessageDialog(this, e1.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
 		}
-		
-		if(e.getSource() == this.logout) {
-			int response = JOptionPane.showConfirmDialog(this, "Log Out?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
-			if (response == JOptionPane.YES_OPTION) {
-				WindowsManager.switchToLoginFrame();
-			}
+	}
+	
+	/**
+     * Closes the add panel without adding a contact and goes back to the main view.
+     */
+	private void cancelAddContact() {
+		addPanel.setVisible(false);
+		topPanel.setVisible(false);
+		remove(addPanel);
+		remove(topPanel);
+		repaint();
+		addMainComponent(false, false);
+		repaint();
+	}
+	
+	/**
+     * Logs the user out, after the user confirms, and goes back to the login frame.
+     */
+	private void logOut() {
+		int response = JOptionPane.showConfirmDialog(this, "Log Out?", "Confirm deletion", JOptionPane.YES_NO_OPTION);
+		if (response == JOptionPane.YES_OPTION) {
+			WindowsManager.switchToLoginFrame();
 		}
 	}
 	
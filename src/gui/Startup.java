@@ -0,0 +1,179 @@
+package gui;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Font;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JWindow;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+import database.DatabaseManager;
+import utilities.SvgImageCache;
+
+/**
+ * Starts the application in phases that run at the same time: while a lightweight splash window is shown, one thread
+ * parses all the SVG icons of the {@code Images} directory and another loads the JDBC driver, reads the database
+ * properties and opens a first connection, which also upgrades the schema. The first frame is shown as soon as the
+ * icons are parsed, so it no longer parses them on the Event Dispatch Thread; the warm-up of the database may go on
+ * after it, since the first database call is only made when the user logs in, and then finds the driver loaded.
+ * <p>
+ * The time of every phase is written to the report of {@link EdtWatchdog} when it ends, together with the time to
+ * interactive: the time from the start until the first frame is shown, and the uptime of the JVM at that moment.
+ * A phase that fails is written there with its stack trace. The times measured on the Event Dispatch Thread are
+ * written from the common pool, so the EDT never waits for the file of the report; the startup executor cannot be
+ * used, as it stops accepting tasks once the two phases are submitted.
+ * @author Leuti Michele
+ */
+final class Startup {
+	private static final String IMAGES_DIRECTORY = "Images";
+
+	/**
+     * Prevents the instantiation of this class, which only has static methods.
+     */
+	private Startup() {
+	}
+
+	/**
+     * Runs the startup pipeline and shows the first frame at its end.
+     *
+     * @param showFirstFrame Creates and shows the first frame; run on the EDT.
+     */
+	static void run(Runnable showFirstFrame) {
+		long start = System.nanoTime();
+		JWindow[] splash = new JWindow[1];
+		SwingUtilities.invokeLater(() -> {
+			splash[0] = createSplash();
+			long shown = System.nanoTime();
+			// The report is a file, so it is written off the EDT
+			CompletableFuture.runAsync(() -> report("splash shown", start, shown));
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(2, r -> {
+			Thread t = new Thread(r, "phonebook-startup");
+			t.setDaemon(true);
+			return t;
+		});
+		CompletableFuture<Integer> icons = CompletableFuture.supplyAsync(Startup::preloadIcons, executor);
+		CompletableFuture<Void> database = CompletableFuture.runAsync(Startup::warmUpDatabase, executor);
+		executor.shutdown();
+
+		icons.whenComplete((count, ex) -> {
+			if (ex != null) {
+				EdtWatchdog.write(LocalDateTime.now() + " Startup: icon preload failed", ex);
+			}
+			else {
+				report(count + " icons parsed", start);
+			}
+			SwingUtilities.invokeLater(() -> {
+				showFirstFrame.run();
+				if (splash[0] != null) {
+					splash[0].dispose();
+				}
+				String interactive = String.format("%s Startup: interactive after %d ms (JVM uptime %d ms)", LocalDateTime.now(),
+						(System.nanoTime() - start) / 1000000, ManagementFactory.getRuntimeMXBean().getUptime());
+				CompletableFuture.runAsync(() -> EdtWatchdog.write(interactive));
+			});
+		});
+		database.whenComplete((done, ex) -> {
+			if (ex != null) {
+				// The application still starts: the error is shown again by the first database call
+				EdtWatchdog.write(String.format("%s Startup: database warm-up failed after %d ms", LocalDateTime.now(),
+						(System.nanoTime() - start) / 1000000), ex);
+			}
+			else {
+				report("database ready", start);
+			}
+		});
+	}
+
+	/**
+     * Creates and shows the splash window. It has no icons, so it appears before any SVG is parsed.
+     *
+     * @return The splash window.
+     */
+	private static JWindow createSplash() {
+		JWindow window = new JWindow();
+		JPanel panel = new JPanel(new BorderLayout());
+		panel.setBackground(new Color(50, 110, 140));
+		panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+		JLabel title = new JLabel("Phonebook", SwingConstants.CENTER);
+		title.setFont(new Font("Arial", Font.BOLD, 22));
+		title.setForeground(Color.WHITE);
+		panel.add(title, BorderLayout.CENTER);
+		JLabel loading = new JLabel("Loading...", SwingConstants.CENTER);
+		loading.setFont(new Font("Arial", Font.PLAIN, 12));
+		loading.setForeground(new Color(245, 245, 245));
+		panel.add(loading, BorderLayout.SOUTH);
+		window.setContentPane(panel);
+		window.setSize(250, 120);
+		window.setLocationRelativeTo(null);
+		window.setVisible(true);
+		return window;
+	}
+
+	/**
+     * Parses every SVG file of the {@code Images} directory into the cache of the SVG library. The files are parsed
+     * one after the other, since the cache of the library is not meant to be filled by several threads.
+     *
+     * @return The number of files parsed.
+     */
+	static int preloadIcons() {
+		File[] files = new File(IMAGES_DIRECTORY).listFiles((dir, name) -> name.endsWith(".svg"));
+		if (files == null) {
+			return 0;
+		}
+		int count = 0;
+		for (File f : files) {
+			if (SvgImageCache.diagram(f.toURI()) != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+     * Loads the database properties and the JDBC driver and opens a first connection, which also upgrades the schema.
+     *
+     * @throws RuntimeException If the database cannot be reached.
+     */
+	static void warmUpDatabase() {
+		try (Connection connection = DatabaseManager.getConnection()) {
+			connection.isValid(5);
+		}
+		catch (SQLException e) {
+			throw new RuntimeException("Error connecting to the database", e);
+		}
+	}
+
+	/**
+     * Writes the time a phase of the startup ended at to the report.
+     *
+     * @param phase The phase.
+     * @param start The time the startup began at, as given by {@link System#nanoTime()}.
+     */
+	private static void report(String phase, long start) {
+		report(phase, start, System.nanoTime());
+	}
+
+	/**
+     * Writes the time a phase of the startup ended at to the report, once the phase is over.
+     *
+     * @param phase The phase.
+     * @param start The time the startup began at, as given by {@link System#nanoTime()}.
+     * @param end The time the phase ended at, as given by {@link System#nanoTime()}.
+     */
+	private static void report(String phase, long start, long end) {
+		EdtWatchdog.write(String.format("%s Startup: %s after %d ms", LocalDateTime.now(), phase, (end - start) / 1000000));
+	}
+}
@@ -14,12 +14,15 @@ public class WindowsManager {
     
     /**
      * Initializes and displays the LoginFrame as the entry point of the application.
-     * This method should be called to start the GUI application.
+     * This method should be called to start the GUI application. A splash window is shown while the icons are
+     * parsed and the database connection is warmed up in the background, see {@link Startup}. From then on the
+     * responsiveness of the user interface is watched by {@link EdtWatchdog}.
      */
     public static void start() {
-    	 SwingUtilities.invokeLater(() -> {
-             login = new LoginFrame();
-         });
+    	EdtWatchdog.start();
+    	Startup.run(() -> {
+    		login = new LoginFrame();
+    	});
     }
     
     /**
@@ -0,0 +1,191 @@
+package logic;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Imports large numbers of contacts from raw records, such as the lines of a file.
+ * The records are read in chunks; the records of a chunk are validated in parallel, and the valid contacts are handed
+ * to the persistence layer as one batch, on a writer thread, while the next chunk is validated. At most two chunks are
+ * held in memory, so files with millions of rows can be imported. Invalid records do not stop the import: each one is
+ * reported in the {@link ImportResult} with its row number and the reason it was rejected.
+ * @author Leuti Michele
+ */
+public final class ContactImporter {
+	/**
+	 * The default number of records validated and saved together.
+	 */
+	public static final int CHUNK_SIZE = 10000;
+	private final User user;
+	private final Predicate<List<Person>> sink;
+	private final int chunkSize;
+
+	/**
+     * Constructs an importer with the default chunk size.
+     *
+     * @param user The user who will own the imported contacts.
+     * @param sink Saves a batch of valid contacts, returning false if the batch could not be saved.
+     */
+	public ContactImporter(User user, Predicate<List<Person>> sink) {
+		this(user, sink, CHUNK_SIZE);
+	}
+
+	/**
+     * Constructs an importer.
+     *
+     * @param user The user who will own the imported contacts.
+     * @param sink Saves a batch of valid contacts, returning false if the batch could not be saved.
+     * @param chunkSize The number of records validated and saved together.
+     * @throws IllegalArgumentException If the chunk size is not positive.
+     */
+	public ContactImporter(User user, Predicate<List<Person>> sink, int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("The chunk size must be positive!");
+		}
+		this.user = user;
+		this.sink = sink;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+     * Imports the contacts of a text file with one contact per line, in the format
+     * {@code NAME; SURNAME; ADDRESS; PHONE; AGE}. The fields are trimmed, and the row number of an error is its line.
+     *
+     * @param file The file to import, encoded in UTF-8.
+     * @return The outcome of the import.
+     * @throws IOException If the file cannot be read.
+     */
+	public ImportResult importFile(Path file) throws IOException {
+		try (Stream<String> lines = Files.lines(file, StandardCharsets.UTF_8)) {
+			return this.importRecords(lines.map(ContactImporter::parseLine).iterator());
+		}
+	}
+
+	/**
+     * Imports the contacts of a sequence of records, each holding name, surname, address, phone number and age.
+     * The row number of an error is the position of its record in the sequence, starting from 1.
+     *
+     * @param records The records to import.
+     * @return The outcome of the import.
+     */
+	public ImportResult importRecords(Iterator<String[]> records) {
+		ExecutorService writer = Executors.newSingleThreadExecutor();
+		ArrayList<ImportResult.RowError> errors = new ArrayList<ImportResult.RowError>();
+		int read = 0;
+		int imported = 0;
+		try {
+			Chunk saving = null;
+			CompletableFuture<Boolean> saved = null;
+			while (records.hasNext()) {
+				ArrayList<String[]> raw = new ArrayList<String[]>(this.chunkSize);
+				while (raw.size() < this.chunkSize && records.hasNext()) {
+					raw.add(records.next());
+				}
+				Chunk chunk = this.validate(raw, read + 1, errors);
+				read += raw.size();
+				// Wait for the previous chunk, so no more than two chunks are held at once
+				if (saved != null) {
+					imported += saving.count(saved.join(), errors);
+				}
+				saving = chunk;
+				saved = CompletableFuture.supplyAsync(() -> this.sink.test(chunk.persons), writer);
+			}
+			if (saved != null) {
+				imported += saving.count(saved.join(), errors);
+			}
+		}
+		finally {
+			writer.shutdown();
+		}
+		errors.sort(Comparator.comparingInt(ImportResult.RowError::getRow));
+		return new ImportResult(read, imported, errors);
+	}
+
+	/**
+     * Validates the records of a chunk in parallel and creates the contacts of the valid ones.
+     * Every record is validated by its own task, which writes only its own slot of the result arrays.
+     *
+     * @param raw The records of the chunk.
+     * @param firstRow The row number of the first record.
+     * @param errors The list to which the errors of the invalid records are added, in order.
+     * @return The valid contacts of the chunk.
+     */
+	private Chunk validate(ArrayList<String[]> raw, int firstRow, ArrayList<ImportResult.RowError> errors) {
+		Person[] persons = new Person[raw.size()];
+		String[] messages = new String[raw.size()];
+		IntStream.range(0, raw.size()).parallel().forEach(i -> {
+			String[] error = new String[1];
+			persons[i] = Person.fromRecord(raw.get(i), this.user, error);
+			messages[i] = error[0];
+		});
+		ArrayList<Person> valid = new ArrayList<Person>(raw.size());
+		for (int i = 0; i < persons.length; i++) {
+			if (persons[i] != null) {
+				valid.add(persons[i]);
+			}
+			else {
+				errors.add(new ImportResult.RowError(firstRow + i, messages[i]));
+			}
+		}
+		return new Chunk(valid, firstRow, firstRow + raw.size() - 1);
+	}
+
+	/**
+     * Splits a line of an import file into the fields of a contact.
+     *
+     * @param line The line.
+     * @return The trimmed fields of the line.
+     */
+	private static String[] parseLine(String line) {
+		String[] fields = line.split(";", -1);
+		for (int i = 0; i < fields.length; i++) {
+			fields[i] = fields[i].trim();
+		}
+		return fields;
+	}
+
+	/**
+     * The valid contacts of a chunk of records, with the rows the chunk spans.
+     */
+	private static final class Chunk {
+		private final ArrayList<Person> persons;
+		private final int firstRow;
+		private final int lastRow;
+
+		Chunk(ArrayList<Person> persons, int firstRow, int lastRow) {
+			this.persons = persons;
+			this.firstRow = firstRow;
+			this.lastRow = lastRow;
+		}
+
+		/**
+	     * Counts the contacts of the chunk that were saved, reporting an error if the chunk could not be saved.
+	     *
+	     * @param saved Whether the sink saved the chunk.
+	     * @param errors The list to which the error is added.
+	     * @return The number of contacts saved.
+	     */
+		int count(boolean saved, ArrayList<ImportResult.RowError> errors) {
+			if (saved) {
+				return this.persons.size();
+			}
+			if (!this.persons.isEmpty()) {
+				errors.add(new ImportResult.RowError(this.firstRow,
+						"The valid contacts of rows " + this.firstRow + " to " + this.lastRow + " could not be saved"));
+			}
+			return 0;
+		}
+	}
+}
@@ -0,0 +1,432 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import table.EditDistance;
+import table.MatchMode;
+import table.Soundex;
+import table.Table;
+
+/**
+ * Finds contacts that are probably the same person typed in different ways, such as "Jon Smith, +39 555 1234" and
+ * "John Smith, 5551234". Comparing every pair of contacts is quadratic, so contacts are first grouped into blocks by
+ * blocking keys: the canonical phone number, the Soundex code of the surname with the initial of the name, and the
+ * Soundex code of the name with the initial of the surname. Only contacts sharing a block are compared; in a block
+ * larger than {@value #WINDOW} contacts, sorted by surname, name and phone, each contact is compared only with the
+ * following ones inside a window of that size, so the work stays near-linear even for very common names.
+ * <p>
+ * Each candidate pair gets a score from 0 to 1, a weighted sum of the similarities of phone, name, surname, address and
+ * age, and the pairs scoring at least the threshold are joined into clusters. Phone numbers differing by up to
+ * {@value #PHONE_TYPOS} typed digits still count as similar, so "Jon Smith, 5551234567" and "John Smith, 5551234568"
+ * with the same address and age are duplicates. A different name is taken for a typo only if the ages do not tell the
+ * contacts apart: relatives sharing phone, surname and address, even with names as close as Mario and Maria, are not
+ * duplicates when both ages are known and differ. Detection runs either as a full parallel pass over all the contacts,
+ * or incrementally for a single new contact against the indexes of a table.
+ * @author Leuti Michele
+ */
+public final class DuplicateDetector {
+	/**
+	 * The default score from which two contacts are considered duplicates.
+	 */
+	public static final double DEFAULT_THRESHOLD = 0.8;
+	/**
+	 * The number of contacts each contact is compared with, in the blocks too large to compare every pair.
+	 */
+	public static final int WINDOW = 20;
+	/**
+	 * The number of digits two phone numbers can differ by and still be considered similar.
+	 */
+	public static final int PHONE_TYPOS = 2;
+	private static final double PHONE_WEIGHT = 0.3;
+	private static final double NAME_WEIGHT = 0.3;
+	private static final double SURNAME_WEIGHT = 0.2;
+	private static final double ADDRESS_WEIGHT = 0.1;
+	private static final double AGE_WEIGHT = 0.1;
+	private static final Comparator<Profile> BLOCK_ORDER = Comparator
+			.comparing((Profile p) -> p.surname)
+			.thenComparing(p -> p.name)
+			.thenComparingLong(p -> p.phoneKey);
+	private final double threshold;
+
+	/**
+     * Constructs a detector with the default threshold.
+     */
+	public DuplicateDetector() {
+		this(DEFAULT_THRESHOLD);
+	}
+
+	/**
+     * Constructs a detector.
+     *
+     * @param threshold The score from which two contacts are considered duplicates, between 0 and 1.
+     * @throws IllegalArgumentException If the threshold is not between 0 and 1.
+     */
+	public DuplicateDetector(double threshold) {
+		if (threshold < 0 || threshold > 1) {
+			throw new IllegalArgumentException("The threshold must be between 0 and 1!");
+		}
+		this.threshold = threshold;
+	}
+
+	/**
+     * Scores how likely two contacts are the same person.
+     *
+     * @param a The first contact.
+     * @param b The second contact.
+     * @return A score from 0, nothing in common, to 1, identical contacts.
+     */
+	public double score(Person a, Person b) {
+		return score(new Profile(a), new Profile(b), 0);
+	}
+
+	/**
+     * Checks whether two contacts are duplicates.
+     *
+     * @param a The first contact.
+     * @param b The second contact.
+     * @return True if their score reaches the threshold and their names and ages do not tell them apart, false
+     * otherwise.
+     */
+	public boolean isDuplicate(Person a, Person b) {
+		return this.isDuplicate(new Profile(a), new Profile(b));
+	}
+
+	/**
+     * Checks whether two profiled contacts are duplicates.
+     *
+     * @param a The first contact.
+     * @param b The second contact.
+     * @return True if their score reaches the threshold and their names and ages do not tell them apart, false
+     * otherwise.
+     */
+	private boolean isDuplicate(Profile a, Profile b) {
+		if (a.person.hasSameId(b.person)) {
+			return false;
+		}
+		// Different names with different ages are two persons, however similar the names: Mario and Maria Rossi
+		if (!a.name.equals(b.name) && a.age >= 0 && b.age >= 0 && a.age != b.age) {
+			return false;
+		}
+		return score(a, b, this.threshold) >= this.threshold;
+	}
+
+	/**
+     * Finds the clusters of duplicates among a set of contacts, in a full parallel pass: the blocking keys are computed
+     * and the blocks are compared in parallel, then the duplicate pairs are joined into clusters.
+     *
+     * @param contacts The contacts to check.
+     * @return The clusters of two or more contacts that are duplicates of each other, directly or through other
+     * contacts of the cluster, in the order of their first contact.
+     */
+	public List<List<Person>> findClusters(Collection<Person> contacts) {
+		ArrayList<Person> persons = new ArrayList<Person>(contacts);
+		Profile[] profiles = new Profile[persons.size()];
+		IntStream.range(0, profiles.length).parallel().forEach(i -> profiles[i] = new Profile(persons.get(i)));
+		HashMap<String, ArrayList<Integer>> blocks = new HashMap<String, ArrayList<Integer>>();
+		for (int i = 0; i < profiles.length; i++) {
+			for (String key : profiles[i].keys) {
+				blocks.computeIfAbsent(key, k -> new ArrayList<Integer>()).add(i);
+			}
+		}
+		List<long[]> pairs = blocks.entrySet().parallelStream()
+				.filter(e -> e.getValue().size() > 1)
+				.map(e -> this.comparePairs(e.getKey(), e.getValue(), profiles, blocks))
+				.collect(Collectors.toList());
+
+		int[] parent = new int[persons.size()];
+		for (int i = 0; i < parent.length; i++) {
+			parent[i] = i;
+		}
+		for (long[] found : pairs) {
+			for (long pair : found) {
+				union(parent, (int) (pair >>> 32), (int) pair);
+			}
+		}
+		// The root of a cluster is its smallest index, so the clusters come in the order of their first contact
+		LinkedHashMap<Integer, List<Person>> clusters = new LinkedHashMap<Integer, List<Person>>();
+		for (int i = 0; i < parent.length; i++) {
+			clusters.computeIfAbsent(find(parent, i), r -> new ArrayList<Person>()).add(persons.get(i));
+		}
+		clusters.values().removeIf(c -> c.size() < 2);
+		return new ArrayList<List<Person>>(clusters.values());
+	}
+
+	/**
+     * Finds the contacts of a table that are probably duplicates of a contact, typically one about to be inserted.
+     * The candidates are fetched from the indexes of the table, the phone index and the phonetic index, so the check
+     * costs as much as the blocks of the contact and not the whole table.
+     *
+     * @param p The contact to check.
+     * @param t The table holding the existing contacts.
+     * @return The duplicates of the contact, from the highest to the lowest score.
+     */
+	public List<Person> findDuplicates(Person p, Table t) {
+		Profile profile = new Profile(p);
+		Map<Person, Profile> candidates = new TreeMap<Person, Profile>(Person::compareId);
+		if (p.getPhoneKey() != 0) {
+			for (Person c : t.lookupByPhone(PhoneNumber.fromKey(p.getPhoneKey()))) {
+				candidates.put(c, new Profile(c));
+			}
+		}
+		for (String word : new String[] {p.getSurname(), p.getName()}) {
+			for (Person c : t.searchContacts(word, MatchMode.PHONETIC, Integer.MAX_VALUE)) {
+				// A phonetic block can be large, so the contacts that cannot reach the threshold are not profiled
+				if (maxScore(p, c) < this.threshold || candidates.containsKey(c)) {
+					continue;
+				}
+				Profile other = new Profile(c);
+				if (firstSharedKey(profile.keys, other.keys) != null) {
+					candidates.put(c, other);
+				}
+			}
+		}
+		ArrayList<Profile> result = new ArrayList<Profile>();
+		for (Profile c : candidates.values()) {
+			if (this.isDuplicate(profile, c)) {
+				result.add(c);
+			}
+		}
+		result.sort(Comparator.comparingDouble((Profile c) -> score(profile, c, 0)).reversed());
+		ArrayList<Person> duplicates = new ArrayList<Person>(result.size());
+		for (Profile c : result) {
+			duplicates.add(c.person);
+		}
+		return duplicates;
+	}
+
+	/**
+     * Compares the candidate pairs of a block. A pair sharing several blocks is compared only in the first block both
+     * contacts have in common, unless that block is too large to compare every pair.
+     *
+     * @param key The key of the block.
+     * @param members The indexes of the contacts of the block.
+     * @param profiles The profiles of all the contacts.
+     * @param blocks All the blocks, by key.
+     * @return The duplicate pairs found, each as the two indexes packed in a long, the smaller one first.
+     */
+	private long[] comparePairs(String key, ArrayList<Integer> members, Profile[] profiles, Map<String, ArrayList<Integer>> blocks) {
+		ArrayList<Integer> sorted = new ArrayList<Integer>(members);
+		if (sorted.size() > WINDOW) {
+			sorted.sort(Comparator.comparing(i -> profiles[i], BLOCK_ORDER));
+		}
+		ArrayList<Long> found = new ArrayList<Long>();
+		for (int x = 0; x < sorted.size(); x++) {
+			int i = sorted.get(x);
+			for (int y = x + 1; y < sorted.size() && y < x + WINDOW; y++) {
+				int j = sorted.get(y);
+				String first = firstSharedKey(profiles[i].keys, profiles[j].keys);
+				if (!first.equals(key) && blocks.get(first).size() <= WINDOW) {
+					continue;
+				}
+				if (this.isDuplicate(profiles[i], profiles[j])) {
+					found.add(((long) Math.min(i, j) << 32) | Math.max(i, j));
+				}
+			}
+		}
+		long[] pairs = new long[found.size()];
+		for (int k = 0; k < pairs.length; k++) {
+			pairs[k] = found.get(k);
+		}
+		return pairs;
+	}
+
+	/**
+     * Scores two profiled contacts, the cheap exact comparisons first. When a bound is given, the scoring stops as
+     * soon as the fields left to compare could no longer bring the score up to it.
+     *
+     * @param a The first contact.
+     * @param b The second contact.
+     * @param bound The score of interest, or 0 to always compute the whole score.
+     * @return The score of the pair, or a lower value if it is below the bound.
+     */
+	private static double score(Profile a, Profile b, double bound) {
+		double score = PHONE_WEIGHT * phoneSimilarity(a.phoneKey, b.phoneKey);
+		if (a.age >= 0 && a.age == b.age) {
+			score += AGE_WEIGHT;
+		}
+		if (score + SURNAME_WEIGHT + NAME_WEIGHT + ADDRESS_WEIGHT < bound) {
+			return score;
+		}
+		score += SURNAME_WEIGHT * similarity(a.surname, b.surname);
+		if (score + NAME_WEIGHT + ADDRESS_WEIGHT < bound) {
+			return score;
+		}
+		score += NAME_WEIGHT * similarity(a.name, b.name);
+		if (score + ADDRESS_WEIGHT < bound) {
+			return score;
+		}
+		return score + ADDRESS_WEIGHT * similarity(a.address, b.address);
+	}
+
+	/**
+     * Computes the highest score two contacts could get from their phone numbers and ages alone, assuming names and
+     * addresses to be identical.
+     *
+     * @param a The first contact.
+     * @param b The second contact.
+     * @return An upper bound of the score of the pair.
+     */
+	private static double maxScore(Person a, Person b) {
+		double score = SURNAME_WEIGHT + NAME_WEIGHT + ADDRESS_WEIGHT + PHONE_WEIGHT * phoneSimilarity(a.getPhoneKey(), b.getPhoneKey());
+		if (a.hasAge() && a.getAge() == b.getAge()) {
+			score += AGE_WEIGHT;
+		}
+		return score;
+	}
+
+	/**
+     * Finds the first blocking key of a contact that another contact also has.
+     *
+     * @param a The keys of the first contact.
+     * @param b The keys of the second contact.
+     * @return The first key of {@code a} found in {@code b}, or null if the contacts share no block.
+     */
+	private static String firstSharedKey(String[] a, String[] b) {
+		for (String key : a) {
+			for (String other : b) {
+				if (key.equals(other)) {
+					return key;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+     * Computes the similarity of two phone numbers: 1 for the same number, and one minus their edit distance relative
+     * to the longer one when they differ by at most {@value #PHONE_TYPOS} digits. Numbers differing by more are
+     * different numbers, however many digits they share.
+     *
+     * @param a The key of the first number, or 0 if it has none.
+     * @param b The key of the second number, or 0 if it has none.
+     * @return The similarity, from 0 to 1; 0 if either number is missing.
+     */
+	private static double phoneSimilarity(long a, long b) {
+		if (a == 0 || b == 0) {
+			return 0;
+		}
+		if (a == b) {
+			return 1;
+		}
+		String x = Long.toString(a);
+		String y = Long.toString(b);
+		int distance = EditDistance.distance(x, y, PHONE_TYPOS);
+		return distance > PHONE_TYPOS ? 0 : 1 - (double) distance / Math.max(x.length(), y.length());
+	}
+
+	/**
+     * Computes the similarity of two normalized fields as one minus their edit distance relative to the longer one.
+     *
+     * @param a The first field.
+     * @param b The second field.
+     * @return The similarity, from 0 to 1; 0 if either field is empty.
+     */
+	private static double similarity(String a, String b) {
+		if (a.isEmpty() || b.isEmpty()) {
+			return 0;
+		}
+		int length = Math.max(a.length(), b.length());
+		return 1 - (double) EditDistance.distance(a, b, length) / length;
+	}
+
+	/**
+     * Normalizes a field for comparison, keeping only its letters and digits in lower case, so that "Via Roma, 1"
+     * and "via roma 1" are equal.
+     *
+     * @param field The field. Can be null.
+     * @return The normalized field; empty if the field is null.
+     */
+	private static String normalize(String field) {
+		if (field == null) {
+			return "";
+		}
+		StringBuilder sb = new StringBuilder(field.length());
+		for (int i = 0; i < field.length(); i++) {
+			char c = field.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				sb.append(Character.toLowerCase(c));
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+     * Finds the root of the cluster of a contact, halving the path on the way.
+     *
+     * @param parent The parent of every contact in the union-find forest.
+     * @param i The index of the contact.
+     * @return The index of the root.
+     */
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	/**
+     * Joins the clusters of two contacts, keeping the smaller root.
+     *
+     * @param parent The parent of every contact in the union-find forest.
+     * @param i The index of the first contact.
+     * @param j The index of the second contact.
+     */
+	private static void union(int[] parent, int i, int j) {
+		int a = find(parent, i);
+		int b = find(parent, j);
+		if (a != b) {
+			parent[Math.max(a, b)] = Math.min(a, b);
+		}
+	}
+
+	/**
+     * The fields of a contact normalized for comparison, with its blocking keys, computed once per contact.
+     */
+	private static final class Profile {
+		private final Person person;
+		private final String name;
+		private final String surname;
+		private final String address;
+		private final long phoneKey;
+		private final int age;
+		private final String[] keys;
+
+		/**
+	     * Profiles a contact. The blocking keys are the canonical phone number, the Soundex code of the surname with
+	     * the initial of the name, and the Soundex code of the name with the initial of the surname, in this order.
+	     *
+	     * @param p The contact.
+	     */
+		Profile(Person p) {
+			this.person = p;
+			this.name = normalize(p.getName());
+			this.surname = normalize(p.getSurname());
+			this.address = normalize(p.getAddress());
+			this.phoneKey = p.getPhoneKey();
+			this.age = p.hasAge() ? p.getAge() : -1;
+			ArrayList<String> keys = new ArrayList<String>(3);
+			if (this.phoneKey != 0) {
+				keys.add("phone:" + this.phoneKey);
+			}
+			String surnameCode = Soundex.encode(this.surname);
+			String nameCode = Soundex.encode(this.name);
+			if (!surnameCode.isEmpty() && !this.name.isEmpty()) {
+				keys.add("surname:" + surnameCode + this.name.charAt(0));
+			}
+			if (!nameCode.isEmpty() && !this.surname.isEmpty()) {
+				keys.add("name:" + nameCode + this.surname.charAt(0));
+			}
+			this.keys = keys.toArray(new String[0]);
+		}
+	}
+}
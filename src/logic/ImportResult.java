@@ -0,0 +1,113 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of an import of contacts: how many records were read and saved, and the error of every record that was
+ * rejected, with its row number.
+ * @author Leuti Michele
+ */
+public final class ImportResult {
+	private final int read;
+	private final int imported;
+	private final ArrayList<RowError> errors;
+
+	/**
+     * Constructs the result of an import.
+     *
+     * @param read The number of records read.
+     * @param imported The number of contacts saved.
+     * @param errors The errors, ordered by row number.
+     */
+	ImportResult(int read, int imported, ArrayList<RowError> errors) {
+		this.read = read;
+		this.imported = imported;
+		this.errors = errors;
+	}
+
+	/**
+     * Retrieves the number of records read.
+     *
+     * @return The number of records, valid or not.
+     */
+	public int getRead() {
+		return this.read;
+	}
+
+	/**
+     * Retrieves the number of contacts saved.
+     *
+     * @return The number of contacts added to the phonebook.
+     */
+	public int getImported() {
+		return this.imported;
+	}
+
+	/**
+     * Retrieves the errors of the import.
+     *
+     * @return The errors, ordered by row number; empty if every record was imported.
+     */
+	public List<RowError> getErrors() {
+		return Collections.unmodifiableList(this.errors);
+	}
+
+	/**
+     * Returns a summary of the import, such as "998 of 1000 contacts imported, 2 errors".
+     *
+     * @return A summary of the import.
+     */
+	@Override
+	public String toString() {
+		return this.imported + " of " + this.read + " contacts imported, " + this.errors.size() + " errors";
+	}
+
+	/**
+     * The error of a rejected record.
+     */
+	public static final class RowError {
+		private final int row;
+		private final String message;
+
+		/**
+	     * Constructs the error of a record.
+	     *
+	     * @param row The row number of the record, starting from 1.
+	     * @param message The reason the record was rejected.
+	     */
+		RowError(int row, String message) {
+			this.row = row;
+			this.message = message;
+		}
+
+		/**
+	     * Retrieves the row number of the record.
+	     *
+	     * @return The row number, starting from 1.
+	     */
+		public int getRow() {
+			return this.row;
+		}
+
+		/**
+	     * Retrieves the reason the record was rejected.
+	     *
+	     * @return The error message.
+	     */
+		public String getMessage() {
+			return this.message;
+		}
+
+		/**
+	     * Returns the error with its row, such as "Row 12: The phone field is invalid".
+	     *
+	     * @return The error with its row number.
+	     */
+		@Override
+		public String toString() {
+			return "Row " + this.row + ": " + this.message;
+		}
+	}
+}
@@ -0,0 +1,195 @@
+package logic;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Hashes and verifies the passwords of the users with PBKDF2-HMAC-SHA256 and a random salt for every password.
+ * A stored password has the form {@code pbkdf2_sha256$iterations$salt$hash}, salt and hash in Base64, so the cost can
+ * be raised later without invalidating the existing hashes. The cost is read from the system property
+ * {@code phonebook.password.iterations} and defaults to 600000 iterations.
+ * <p>
+ * A check costs tens or hundreds of milliseconds on purpose, so verifications run on a dedicated pool with one thread
+ * per core (system property {@code phonebook.password.threads}) and a bounded queue of waiting checks (system property
+ * {@code phonebook.password.queue}). A burst of logins is served at the steady rate of the pool, and the checks
+ * beyond the queue are rejected at once instead of piling up.
+ * @author Leuti Michele
+ */
+public final class PasswordHasher {
+	/**
+	 * The number of PBKDF2 iterations of the new hashes.
+	 */
+	public static final int ITERATIONS = Integer.getInteger("phonebook.password.iterations", 600000);
+	/**
+	 * The number of threads of the verification pool.
+	 */
+	public static final int THREADS = Integer.getInteger("phonebook.password.threads", Runtime.getRuntime().availableProcessors());
+	private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+	private static final String PREFIX = "pbkdf2_sha256";
+	private static final int SALT_BYTES = 16;
+	private static final int HASH_BYTES = 32;
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final ExecutorService POOL = createPool(THREADS, Integer.getInteger("phonebook.password.queue", 32));
+
+	/**
+     * Prevents the instantiation of this class, which only has static methods.
+     */
+	private PasswordHasher() {
+	}
+
+	/**
+     * Hashes a password with a new random salt and the configured cost.
+     *
+     * @param password The password in plain text.
+     * @return The stored form of the password.
+     */
+	public static String hash(String password) {
+		byte[] salt = new byte[SALT_BYTES];
+		RANDOM.nextBytes(salt);
+		Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+		return PREFIX + "$" + ITERATIONS + "$" + encoder.encodeToString(salt) + "$"
+				+ encoder.encodeToString(pbkdf2(password, salt, ITERATIONS));
+	}
+
+	/**
+     * Checks a password against its stored form on the calling thread. A stored form that is not a hash is a password
+     * saved in plain text before hashing was introduced, and is compared as it is.
+     * Both comparisons take the same time whatever the position of the first differing character.
+     *
+     * @param password The password in plain text.
+     * @param stored The stored form of the password.
+     * @return True if the password is correct, false otherwise.
+     */
+	public static boolean matches(String password, String stored) {
+		String[] parts = split(stored);
+		if (parts == null) {
+			return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+		}
+		Base64.Decoder decoder = Base64.getDecoder();
+		byte[] expected = decoder.decode(parts[3]);
+		return MessageDigest.isEqual(expected, pbkdf2(password, decoder.decode(parts[2]), Integer.parseInt(parts[1])));
+	}
+
+	/**
+     * Checks a password against its stored form on the verification pool.
+     *
+     * @param password The password in plain text.
+     * @param stored The stored form of the password.
+     * @return A future completed with true if the password is correct and false otherwise, or completed exceptionally
+     * with a {@link RejectedExecutionException} if too many checks are already waiting.
+     */
+	public static CompletableFuture<Boolean> verify(String password, String stored) {
+		return submit(() -> matches(password, stored));
+	}
+
+	/**
+     * Runs a task on the verification pool, for work that includes hashing a password.
+     *
+     * @param <T> The type of the result of the task.
+     * @param task The task to run.
+     * @return A future completed with the result of the task, or completed exceptionally with the exception thrown by
+     * the task or with a {@link RejectedExecutionException} if too many checks are already waiting.
+     */
+	public static <T> CompletableFuture<T> submit(Supplier<T> task) {
+		try {
+			return CompletableFuture.supplyAsync(task, POOL);
+		}
+		catch (RejectedExecutionException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**
+     * Checks whether a stored password should be hashed again: because it was saved in plain text, or because it was
+     * hashed with a cost different from the configured one.
+     *
+     * @param stored The stored form of the password.
+     * @return True if the password should be hashed again at the next successful login, false otherwise.
+     */
+	public static boolean needsRehash(String stored) {
+		String[] parts = split(stored);
+		return parts == null || Integer.parseInt(parts[1]) != ITERATIONS;
+	}
+
+	/**
+     * Splits a stored password into its four parts.
+     *
+     * @param stored The stored form of the password.
+     * @return The prefix, the iterations, the salt and the hash, or null if the stored form is not a valid hash.
+     */
+	private static String[] split(String stored) {
+		String[] parts = stored.split("\\$", -1);
+		if (parts.length != 4 || !parts[0].equals(PREFIX) || parts[1].isEmpty() || parts[1].length() > 9) {
+			return null;
+		}
+		for (int i = 0; i < parts[1].length(); i++) {
+			if (parts[1].charAt(i) < '0' || parts[1].charAt(i) > '9') {
+				return null;
+			}
+		}
+		try {
+			Base64.Decoder decoder = Base64.getDecoder();
+			if (decoder.decode(parts[2]).length == 0 || decoder.decode(parts[3]).length != HASH_BYTES) {
+				return null;
+			}
+		}
+		catch (IllegalArgumentException e) {
+			return null;
+		}
+		return Integer.parseInt(parts[1]) > 0 ? parts : null;
+	}
+
+	/**
+     * Derives the hash of a password.
+     *
+     * @param password The password in plain text.
+     * @param salt The salt.
+     * @param iterations The number of iterations.
+     * @return The hash of the password.
+     */
+	private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BYTES * 8);
+		try {
+			return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+		}
+		catch (GeneralSecurityException e) {
+			// Every Java platform is required to provide PBKDF2WithHmacSHA256
+			throw new IllegalStateException(e);
+		}
+		finally {
+			spec.clearPassword();
+		}
+	}
+
+	/**
+     * Creates the verification pool, whose threads are daemons so the pool never keeps the application alive.
+     *
+     * @param threads The number of threads.
+     * @param queue The number of checks that can wait for a thread.
+     * @return The pool.
+     */
+	private static ExecutorService createPool(int threads, int queue) {
+		AtomicInteger count = new AtomicInteger();
+		ThreadFactory factory = r -> {
+			Thread t = new Thread(r, "password-verifier-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+		return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(queue),
+				factory, new ThreadPoolExecutor.AbortPolicy());
+	}
+}
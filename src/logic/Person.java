@@ -1,7 +1,5 @@
 package logic;
 
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
 import java.util.UUID;
 
 /**
@@ -9,16 +7,27 @@ import java.util.UUID;
  * address, phone number, and age, along with unique identifiers for the person and their associated user.
  * It provides constructors for creating a new person instance either with a new unique identifier or with an existing one,
  * and includes input validation for the contact information.
+ * A person is immutable: changing a field, through one of the {@code with} methods or a {@link Builder}, creates a new
+ * version of the person with the same ID. Persons can therefore be shared between threads and cached without copies.
+ * The class is final, so that no subclass can make a person mutable again.
  * @author Leuti Michele
  */
-public class Person {
-	private String name;
-	private String surname;
-	private String address;
-	private String phone;
-	private Integer age;
-	private UUID id;
-	private UUID userID;
+public final class Person {
+	private final String name;
+	private final String surname;
+	private final String address;
+	private final String phone;
+	private final long phoneKey;
+	private final int age;
+	// The ID is kept as the two halves of the UUID instead of a separate UUID object
+	private final long idMostBits;
+	private final long idLeastBits;
+	// Shared with the user and all of its contacts, so it costs a single reference
+	private final UUID userID;
+	private static final int NO_AGE = -1;
+	private static final String EMPTY_FIELD = "All fields must not be empty!";
+	private static final String INVALID_PHONE = "The phone field is invalid";
+	private static final String NEGATIVE_AGE = "The age field must not be a negative value!";
 	
 	 /**
      * Constructs a new Person instance with automatically generated unique identifier (UUID) for the person and their associated user.
@@ -29,14 +38,7 @@ public class Person {
      * @throws IllegalArgumentException If any of the personInfo elements are empty or if the phone number and age are not valid.
      */
 	public Person(String[] personInfo, User user) {
-		this.checkValidity(personInfo);
-		this.name = personInfo[0];
-		this.surname = personInfo[1];
-		this.address = personInfo[2];
-		this.phone = personInfo[3];
-		this.age = Integer.parseInt(personInfo[4]);
-		this.userID = user.getId();
-		this.id = UUID.randomUUID();
+		this(personInfo, checkValidity(personInfo), UUID.randomUUID(), user.getId());
 	}
 	
 	/**
@@ -48,58 +50,110 @@ public class Person {
      * @param id The unique identifier of the person in string format.
      */
 	public Person(String[] personInfo, User user, String id) {
-		this.name = personInfo[0];
-		this.surname = personInfo[1];
-		this.address = personInfo[2];
-		this.phone = personInfo[3];
-		this.age = Integer.parseInt(personInfo[4]);
-		this.id = UUID.fromString(id);
-		this.userID = user.getId();
+		this(personInfo, Integer.parseInt(personInfo[4]), UUID.fromString(id), user.getId());
 	}
 	
 	/**
-     * Constructs a new Person instance intended for creating a new user with only name and surname specified.
-     * This constructor is used when minimal information is provided, and a new unique identifier is automatically generated.
+     * Constructs a person from its contact information once the age has been read from it.
      * 
-     * @param isUser Indicates that this constructor is being used to create a new user.
-     * @param info An array containing the person's (or user's) name and surname.
-     * @throws IllegalArgumentException If the name or surname fields are empty.
+     * @param personInfo An array of strings containing the person's name, surname, address and phone number.
+     * @param age The age, already parsed.
+     * @param id The unique identifier of the person.
+     * @param userID The unique identifier of the user owning the contact.
      */
-	public Person(boolean isUser, String[] info) {
-			checkIfNotEmpty(info[0]);
-			checkIfNotEmpty(info[1]);
-			this.name = info[0];
-			this.surname = info[1];
-			this.id = UUID.randomUUID();
+	private Person(String[] personInfo, int age, UUID id, UUID userID) {
+		this(personInfo[0], personInfo[1], personInfo[2], personInfo[3], age, id, userID);
 	}
 	
 	/**
-     * Constructs a new Person instance with a specified unique identifier, used for users with known IDs.
-     * This constructor initializes a person with their name, surname, and an existing unique identifier, without validating the input.
+     * Constructs a person from already validated fields. Every other constructor, wither and the builder end here.
      * 
-     * @param info An array containing the person's name and surname.
-     * @param id The unique identifier of the person in string format.
+     * @param name The name.
+     * @param surname The surname.
+     * @param address The address, or null for a user.
+     * @param phone The phone number, or null for a user.
+     * @param age The age, or -1 for a user.
+     * @param id The unique identifier of the person.
+     * @param userID The unique identifier of the user owning the contact, or null for a user.
      */
-	public Person(String[] info, String id) {
-			this.name = info[0];
-			this.surname = info[1];
-			this.id = UUID.fromString(id);
-		}
+	private Person(String name, String surname, String address, String phone, int age, UUID id, UUID userID) {
+		this.name = name;
+		this.surname = surname;
+		this.address = address;
+		this.phone = phone;
+		this.phoneKey = PhoneNumber.toKey(phone);
+		this.age = age;
+		this.idMostBits = id.getMostSignificantBits();
+		this.idLeastBits = id.getLeastSignificantBits();
+		this.userID = userID;
+	}
 	
 	/**
      * Validates the person's contact information, ensuring that no fields are empty, and that the phone number and age are valid.
+     * It runs before any field is read, so a missing field is reported as such.
      * 
      * @param personInfo An array of strings containing the person's contact information to be validated.
+     * @return The age, parsed once by the validation.
      * @throws IllegalArgumentException If any validation checks fail.
      */
-	private void checkValidity(String[] personInfo) {
-		checkIfNotEmpty(personInfo[0]);
-		checkIfNotEmpty(personInfo[1]);
-		checkIfNotEmpty(personInfo[2]);
-		checkIfNotEmpty(personInfo[3]);
-		checkIfNotEmpty(personInfo[4]);
-		checkIfValidPhone(personInfo[3]);
-		checkIfValidAge(Integer.parseInt(personInfo[4]));
+	private static int checkValidity(String[] personInfo) {
+		String[] error = new String[1];
+		int age = validate(personInfo, error);
+		if (error[0] != null) {
+			throw new IllegalArgumentException(error[0]);
+		}
+		return age;
+	}
+	
+	/**
+     * Creates a new contact from a record of an import, validating the record once and without throwing, so that
+     * invalid records cost no exception. A record is valid exactly when {@link #Person(String[], User)} accepts it.
+     * 
+     * @param personInfo An array of strings containing the person's name, surname, address, phone number, and age.
+     * @param user The user associated with this person.
+     * @param error The array whose first element receives the message of the first failed check.
+     * @return The new contact, or null if the record is invalid.
+     */
+	static Person fromRecord(String[] personInfo, User user, String[] error) {
+		int age = validate(personInfo, error);
+		return error[0] == null ? new Person(personInfo, age, UUID.randomUUID(), user.getId()) : null;
+	}
+	
+	/**
+     * Runs every check on the contact information of a person, parsing the age only once.
+     * 
+     * @param personInfo An array of strings containing the person's name, surname, address, phone number, and age.
+     * @param error The array whose first element receives the message of the first failed check.
+     * @return The age, or {@value #NO_AGE} if a check failed.
+     */
+	private static int validate(String[] personInfo, String[] error) {
+		if (personInfo == null || personInfo.length < 5) {
+			error[0] = "A contact must have a name, a surname, an address, a phone number and an age!";
+			return NO_AGE;
+		}
+		for (int i = 0; i < 5; i++) {
+			if (personInfo[i] == null || !isNotEmpty(personInfo[i])) {
+				error[0] = EMPTY_FIELD;
+				return NO_AGE;
+			}
+		}
+		if (!isValidPhone(personInfo[3])) {
+			error[0] = INVALID_PHONE;
+			return NO_AGE;
+		}
+		int age;
+		try {
+			age = Integer.parseInt(personInfo[4]);
+		}
+		catch (NumberFormatException e) {
+			error[0] = "The age field must be a number!";
+			return NO_AGE;
+		}
+		if (age < 0) {
+			error[0] = NEGATIVE_AGE;
+			return NO_AGE;
+		}
+		return age;
 	}
 	
 	/**
@@ -112,14 +166,14 @@ public class Person {
 	}
 	
 	/**
-     * Sets the name of the person after validating that the input is not empty.
+     * Creates a new version of the person with another name, after validating that the input is not empty.
      * 
-     * @param name The new name to be assigned to the person.
+     * @param name The new name of the person.
+     * @return The new version of the person, with the same ID.
      * @throws IllegalArgumentException If the name is empty or consists only of whitespace characters.
      */
-	public void setName(String name) {
-		checkIfNotEmpty(name);
-		this.name = name;
+	public Person withName(String name) {
+		return new Person(requireNotEmpty(name), this.surname, this.address, this.phone, this.age, getId(), this.userID);
 	}
 	
 	/**
@@ -131,15 +185,15 @@ public class Person {
 	    return this.surname;
 	}
 	
-	 /**
-	 * Sets the surname of the person after validating that the input is not empty.
-	 * 
-	 * @param surname The new surname to be assigned to the person.
-	 * @throws IllegalArgumentException If the surname is empty or consists only of whitespace characters.
-	 */
-	public void setSurname(String surname) {
-    	checkIfNotEmpty(surname);
-    	this.surname = surname;
+	/**
+     * Creates a new version of the person with another surname, after validating that the input is not empty.
+     * 
+     * @param surname The new surname of the person.
+     * @return The new version of the person, with the same ID.
+     * @throws IllegalArgumentException If the surname is empty or consists only of whitespace characters.
+     */
+	public Person withSurname(String surname) {
+		return new Person(this.name, requireNotEmpty(surname), this.address, this.phone, this.age, getId(), this.userID);
 	}
 	
 	/**
@@ -152,14 +206,14 @@ public class Person {
 	}
 	
 	/**
-     * Sets the address of the person after validating that the input is not empty.
+     * Creates a new version of the person with another address, after validating that the input is not empty.
      * 
-     * @param address The new address to be assigned to the person.
+     * @param address The new address of the person.
+     * @return The new version of the person, with the same ID.
      * @throws IllegalArgumentException If the address is empty or consists only of whitespace characters.
      */
-	public void setAddress(String address) {
-    	checkIfNotEmpty(address);
-    	this.address = address;
+	public Person withAddress(String address) {
+		return new Person(this.name, this.surname, requireNotEmpty(address), this.phone, this.age, getId(), this.userID);
 	}
 	
 	 /**
@@ -172,45 +226,104 @@ public class Person {
 	}
 	
 	/**
-     * Sets the phone number of the person after validating that the input is not empty and conforms to a valid phone number format.
+     * Creates a new version of the person with another phone number, after validating that the input is not empty
+     * and conforms to a valid phone number format.
      * 
-     * @param phone The new phone number to be assigned to the person.
+     * @param phone The new phone number of the person.
+     * @return The new version of the person, with the same ID.
      * @throws IllegalArgumentException If the phone number is empty, consists only of whitespace characters, or does not match a valid phone number pattern.
      */
-	public void setPhone(String phone) {
-    	checkIfNotEmpty(phone);
-	 	checkIfValidPhone(phone);
-    	this.phone = phone;	
+	public Person withPhone(String phone) {
+		requireNotEmpty(phone);
+		requireValidPhone(phone);
+		return new Person(this.name, this.surname, this.address, phone, this.age, getId(), this.userID);
+	}
+	
+	/**
+     * Retrieves the canonical key of the phone number, the E.164 digits of the number read as a long.
+     * Two persons have the same phone number when their keys are equal, however the numbers were typed.
+     * 
+     * @return The key of the phone number, or 0 if the number could not be normalized.
+     * @see PhoneNumber
+     */
+	public long getPhoneKey() {
+		return this.phoneKey;
 	}
 	
 	 /**
      * Retrieves the age of the person.
      * 
-     * @return The age of the person.
+     * @return The age of the person, or -1 if the person has no age, as for a user.
      */
-	public Integer getAge() {
+	public int getAge() {
 	    return this.age;
 	}
 	
 	/**
-     * Sets the age of the person after validating that the input is not negative and not empty.
+     * Checks whether the person has an age. Users are persons without contact information and have none.
      * 
-     * @param age The new age to be assigned to the person.
-     * @throws IllegalArgumentException If the age is negative or the input string is empty.
+     * @return True if the person has an age, false otherwise.
      */
-	public void setAge(int age) {
-    	checkIfNotEmpty(Integer.toString(age));
-    	checkIfValidAge(age);
-    	this.age = age;
+	public boolean hasAge() {
+	    return this.age != NO_AGE;
 	}
 	
 	/**
-     * Retrieves the unique identifier (UUID) of the person.
+     * Creates a new version of the person with another age, after validating that the input is not negative.
+     * 
+     * @param age The new age of the person.
+     * @return The new version of the person, with the same ID.
+     * @throws IllegalArgumentException If the age is negative.
+     */
+	public Person withAge(int age) {
+		return new Person(this.name, this.surname, this.address, this.phone, requireValidAge(age), getId(), this.userID);
+	}
+	
+	/**
+     * Retrieves the unique identifier (UUID) of the person. The UUID is rebuilt from the two halves stored in the person;
+     * to compare the IDs of two persons, {@link #hasSameId(Person)} and {@link #compareId(Person)} avoid creating it.
      * 
      * @return The UUID of the person.
      */
 	public UUID getId() {
-		return this.id;
+		return new UUID(this.idMostBits, this.idLeastBits);
+	}
+	
+	/**
+     * Checks whether another person has the same ID as this one, without creating any UUID.
+     * 
+     * @param other The person to compare with.
+     * @return True if both persons have the same ID, false otherwise.
+     */
+	public boolean hasSameId(Person other) {
+		return this.idMostBits == other.idMostBits && this.idLeastBits == other.idLeastBits;
+	}
+	
+	/**
+     * Compares the ID of this person with the ID of another one, in the order of {@link UUID#compareTo(UUID)}, without
+     * creating any UUID. As a {@code Comparator<Person>}, {@code Person::compareId} lets sorted maps and sets find
+     * persons by ID.
+     * 
+     * @param other The person to compare with.
+     * @return A negative number, zero or a positive number as the ID of this person is less than, equal to or greater
+     * than the ID of the other one.
+     */
+	public int compareId(Person other) {
+		return this.compareId(other.idMostBits, other.idLeastBits);
+	}
+	
+	/**
+     * Compares the ID of this person with an ID given as the two halves of a UUID, in the order of
+     * {@link UUID#compareTo(UUID)}, without creating any UUID.
+     * 
+     * @param mostBits The most significant bits of the other ID.
+     * @param leastBits The least significant bits of the other ID.
+     * @return A negative number, zero or a positive number as the ID of this person is less than, equal to or greater
+     * than the other ID.
+     */
+	public int compareId(long mostBits, long leastBits) {
+		int c = Long.compare(this.idMostBits, mostBits);
+		return c != 0 ? c : Long.compare(this.idLeastBits, leastBits);
 	}
 	
 	/**
@@ -231,29 +344,86 @@ public class Person {
      * @throws IllegalArgumentException if the input string is empty or consists only of whitespace characters.
      */
 	public boolean checkIfNotEmpty(String info) {
-		if (info.equals("") || info.trim().isEmpty()) {
-	        throw new IllegalArgumentException("All fields must not be empty!");
-	    }
+		requireNotEmpty(info);
 		return true;
 	}
 	
+	/**
+     * Checks that a field is not empty or made only of whitespace characters, as {@link #checkIfNotEmpty(String)}.
+     *
+     * @param info The field to check.
+     * @return The field itself.
+     * @throws IllegalArgumentException if the field is empty or consists only of whitespace characters.
+     */
+	static String requireNotEmpty(String info) {
+		if (!isNotEmpty(info)) {
+			throw new IllegalArgumentException(EMPTY_FIELD);
+		}
+		return info;
+	}
+	
+	/**
+     * Tells whether a field has a character other than whitespace.
+     *
+     * @param info The field to check.
+     * @return True if the field is not empty, false otherwise.
+     */
+	private static boolean isNotEmpty(String info) {
+		// Same test as info.trim().isEmpty(), without building the trimmed copy
+		for (int i = 0; i < info.length(); i++) {
+			if (info.charAt(i) > ' ') {
+				return true;
+			}
+		}
+		return false;
+	}
+	
 	/**
      * Validates that a given phone number string matches a general phone number pattern.
      * This method supports international phone number formats, including optional country codes.
+     * The number is accepted if it contains a run of at least three digits, dashes or spaces, which is what the
+     * pattern {@code (?:\+\d{1,3}[-\s]?)?(?:\(\d{1,3}\)[-\.\s]?)?[\d-\s]{3,}} requires, since its prefixes are optional;
+     * the check is a single pass over the string, with no regular expression to compile or match.
      *
      * @param phone The phone number string to be validated.
      * @return True if the phone number is valid; otherwise, it throws an IllegalArgumentException.
      * @throws IllegalArgumentException if the phone number does not match the expected format.
      */
 	public boolean checkIfValidPhone(String phone) {
-	    String allCountryRegex = "(?:\\+\\d{1,3}[-\\s]?)?(?:\\(\\d{1,3}\\)[-\\.\\s]?)?[\\d-\\s]{3,}";
-
-	    Pattern p = Pattern.compile(allCountryRegex);
-	    Matcher m = p.matcher(phone);
-	    if (!m.find()) {
-	    	throw new IllegalArgumentException("The phone field is invalid");
-	    }
-	    return true;
+		requireValidPhone(phone);
+		return true;
+	}
+	
+	/**
+     * Checks a phone number as {@link #checkIfValidPhone(String)}.
+     *
+     * @param phone The phone number to check.
+     * @throws IllegalArgumentException if the phone number does not match the expected format.
+     */
+	private static void requireValidPhone(String phone) {
+		if (!isValidPhone(phone)) {
+			throw new IllegalArgumentException(INVALID_PHONE);
+		}
+	}
+	
+	/**
+     * Tells whether a phone number is valid, as {@link #checkIfValidPhone(String)}.
+     *
+     * @param phone The phone number to check.
+     * @return True if the phone number is valid, false otherwise.
+     */
+	private static boolean isValidPhone(String phone) {
+		int run = 0;
+		for (int i = 0; i < phone.length(); i++) {
+			char c = phone.charAt(i);
+			boolean digit = c >= '0' && c <= '9';
+			boolean space = c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+			run = digit || space || c == '-' ? run + 1 : 0;
+			if (run == 3) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	/**
@@ -265,10 +435,22 @@ public class Person {
      * @throws IllegalArgumentException if the age is a negative value.
      */
 	public boolean checkIfValidAge(int age) {
+		requireValidAge(age);
+		return true;
+	}
+	
+	/**
+     * Checks an age as {@link #checkIfValidAge(int)}.
+     *
+     * @param age The age to check.
+     * @return The age itself.
+     * @throws IllegalArgumentException if the age is a negative value.
+     */
+	private static int requireValidAge(int age) {
 		if (age < 0) {
-			throw new IllegalArgumentException("The age field must not be a negative value!");
+			throw new IllegalArgumentException(NEGATIVE_AGE);
 		}
-		return true;
+		return age;
 	}
 	
 	 /**
@@ -279,8 +461,131 @@ public class Person {
      */
 	@Override 
 	public String toString() {
-		return this.name + "\n" + this.surname + "\n" + this.address + "\n" + this.phone + "\n" + this.age.toString();
+		return this.getName() + "\n" + this.getSurname() + "\n" + this.address + "\n" + this.phone + "\n" + this.age;
 	}
 	
+	/**
+     * Creates a builder for a new contact of a user, with a new ID.
+     * 
+     * @param user The user owning the contact.
+     * @return An empty builder.
+     */
+	public static Builder builder(User user) {
+		return new Builder(UUID.randomUUID(), user.getId());
+	}
+	
+	/**
+     * Creates a builder starting from the fields of this person, to create a new version of it with several changes at once.
+     * 
+     * @return A builder holding the fields and the ID of this person.
+     */
+	public Builder toBuilder() {
+		Builder b = new Builder(getId(), this.userID);
+		b.name = this.name;
+		b.surname = this.surname;
+		b.address = this.address;
+		b.phone = this.phone;
+		b.age = this.age;
+		return b;
+	}
+	
+	/**
+     * Collects the fields of a contact and creates the immutable person, validating every field as the constructor does.
+     * A builder is not thread-safe, but the person it builds is.
+     */
+	public static final class Builder {
+		private final UUID id;
+		private final UUID userID;
+		private String name;
+		private String surname;
+		private String address;
+		private String phone;
+		private int age = NO_AGE;
+		
+		/**
+	     * Constructs a builder for the person with the given IDs.
+	     * 
+	     * @param id The unique identifier of the person.
+	     * @param userID The unique identifier of the user owning the contact.
+	     */
+		private Builder(UUID id, UUID userID) {
+			this.id = id;
+			this.userID = userID;
+		}
+		
+		/**
+	     * Sets the name.
+	     * 
+	     * @param name The name of the person.
+	     * @return This builder.
+	     */
+		public Builder name(String name) {
+			this.name = name;
+			return this;
+		}
+		
+		/**
+	     * Sets the surname.
+	     * 
+	     * @param surname The surname of the person.
+	     * @return This builder.
+	     */
+		public Builder surname(String surname) {
+			this.surname = surname;
+			return this;
+		}
+		
+		/**
+	     * Sets the address.
+	     * 
+	     * @param address The address of the person.
+	     * @return This builder.
+	     */
+		public Builder address(String address) {
+			this.address = address;
+			return this;
+		}
+		
+		/**
+	     * Sets the phone number.
+	     * 
+	     * @param phone The phone number of the person.
+	     * @return This builder.
+	     */
+		public Builder phone(String phone) {
+			this.phone = phone;
+			return this;
+		}
+		
+		/**
+	     * Sets the age.
+	     * 
+	     * @param age The age of the person.
+	     * @return This builder.
+	     */
+		public Builder age(int age) {
+			this.age = age;
+			return this;
+		}
+		
+		/**
+	     * Validates the fields and creates the person.
+	     * 
+	     * @return The new person.
+	     * @throws IllegalArgumentException If a field is missing or empty, or if the phone number or the age are not valid.
+	     */
+		public Person build() {
+			if (this.name == null || this.surname == null || this.address == null || this.phone == null || this.age == NO_AGE) {
+				throw new IllegalArgumentException(EMPTY_FIELD);
+			}
+			requireNotEmpty(this.name);
+			requireNotEmpty(this.surname);
+			requireNotEmpty(this.address);
+			requireNotEmpty(this.phone);
+			requireValidPhone(this.phone);
+			requireValidAge(this.age);
+			return new Person(this.name, this.surname, this.address, this.phone, this.age, this.id, this.userID);
+		}
+	}
 }
 
@@ -1,8 +1,15 @@
 package logic;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import database.DatabaseManager;
+import table.MatchMode;
+import table.Query;
+import table.ResultPage;
 
 /**
  * Provides static utility methods for actions related to Users and Persons, 
@@ -21,6 +28,63 @@ public class PhoneAction {
 		return DatabaseManager.selectUserByUsername(userName);
 	}
 	
+	/**
+     * Checks the password of a user logging in, on the verification pool of {@link PasswordHasher}.
+     * If the stored password was saved in plain text by an older version, or hashed with a different cost, it is
+     * hashed again with the current one and saved, so every user is upgraded at the first successful login; this is
+     * skipped while the password column of the database is too narrow to store the hash.
+     *
+     * @param u The User object found by username.
+     * @param password The password typed by the user.
+     * @return A future completed with true if the password is correct and false otherwise, or completed exceptionally
+     * with a {@link java.util.concurrent.RejectedExecutionException} if too many logins are already waiting, or with
+     * an {@link IllegalStateException} if the upgraded password could not be saved.
+     */
+	public static CompletableFuture<Boolean> login(User u, String password) {
+		return PasswordHasher.submit(() -> {
+			String stored = u.getPassword();
+			if (!PasswordHasher.matches(password, stored)) {
+				return false;
+			}
+			if (PasswordHasher.needsRehash(stored) && DatabaseManager.canStorePasswordHashes()) {
+				u.rehashPassword(password);
+				if (!DatabaseManager.updateUser(u)) {
+					u.restorePassword(stored);
+					throw new IllegalStateException("The password could not be saved, please try again!");
+				}
+			}
+			return true;
+		});
+	}
+	
+	/**
+     * Changes the password of a user after checking the old one, on the verification pool of {@link PasswordHasher}.
+     *
+     * @param u The User object whose password is changed.
+     * @param oldPassword The current password typed by the user.
+     * @param newPassword The new password.
+     * @return A future completed with true if the password was changed and saved, false if the old password is wrong,
+     * or completed exceptionally with an {@link IllegalArgumentException} if the new password is not valid, or with an
+     * {@link IllegalStateException} if it could not be saved, in which case the old password is kept.
+     */
+	public static CompletableFuture<Boolean> changePassword(User u, String oldPassword, String newPassword) {
+		return PasswordHasher.submit(() -> {
+			String stored = u.getPassword();
+			if (!PasswordHasher.matches(oldPassword, stored)) {
+				return false;
+			}
+			if (!DatabaseManager.canStorePasswordHashes()) {
+				throw new IllegalStateException("The database cannot store the new password!");
+			}
+			u.setPassword(newPassword);
+			if (!DatabaseManager.updateUser(u)) {
+				u.restorePassword(stored);
+				throw new IllegalStateException("The password could not be saved, please try again!");
+			}
+			return true;
+		});
+	}
+	
 	 /**
      * Adds a new user to the database.
      *
@@ -61,6 +125,26 @@ public class PhoneAction {
 		DatabaseManager.updateUser(u);
 	}
 	
+	/**
+     * Saves new credentials of a user in the database, checking first that a changed username is not taken.
+     * The User object is left as it is, so that the caller can apply the credentials once they are saved.
+     *
+     * @param u The User object whose credentials are changed.
+     * @param name The new name.
+     * @param surname The new surname.
+     * @param username The new username.
+     * @throws IllegalArgumentException If the username was changed and already exists in the database.
+     * @throws IllegalStateException If the credentials could not be saved.
+     */
+	public static void editUser(User u, String name, String surname, String username) {
+		if (!username.equals(u.getUsername())) {
+			checkUsername(username);
+		}
+		if (!DatabaseManager.updateUser(u, name, surname, username)) {
+			throw new IllegalStateException("The user could not be saved, please try again!");
+		}
+	}
+	
 	/**
      * Adds a person associated with a user to the database.
      *
@@ -71,6 +155,49 @@ public class PhoneAction {
 		DatabaseManager.insertPerson(p, u);
 	}
 	
+	/**
+     * Finds the persons of a user that already have the phone number of a given person, however the numbers were typed.
+     * The lookup compares the canonical keys of the numbers on the in-memory index of the user's table.
+     *
+     * @param u The User object associated with the persons.
+     * @param p The person whose phone number is looked for.
+     * @return An ArrayList of the other persons with the same phone number; empty if the number is unique or cannot be normalized.
+     */
+	public static ArrayList<Person> samePhone(User u, Person p) {
+		ArrayList<Person> result = new ArrayList<Person>();
+		if (p.getPhoneKey() == 0) {
+			return result;
+		}
+		for (Person other : u.getTable().lookupByPhone(PhoneNumber.fromKey(p.getPhoneKey()))) {
+			if (!other.hasSameId(p)) {
+				result.add(other);
+			}
+		}
+		return result;
+	}
+	
+	/**
+     * Finds the persons of a user that are probably the same contact as a given person, typed in a different way.
+     * The check uses the in-memory indexes of the user's table, so it is cheap enough to run on every insert.
+     *
+     * @param u The User object whose contacts are checked.
+     * @param p The person to check, usually one about to be added.
+     * @return The probable duplicates, from the most to the least similar.
+     */
+	public static List<Person> findDuplicates(User u, Person p) {
+		return new DuplicateDetector().findDuplicates(p, u.getTable());
+	}
+	
+	/**
+     * Finds the groups of contacts of a user that are probably the same person, with a full parallel pass.
+     *
+     * @param u The User object whose contacts are checked.
+     * @return The groups of probable duplicates.
+     */
+	public static List<List<Person>> findDuplicateClusters(User u) {
+		return new DuplicateDetector().findClusters(u.getContacts());
+	}
+	
 	/**
      * Deletes a person from the database.
      *
@@ -81,6 +208,30 @@ public class PhoneAction {
 		DatabaseManager.deletePerson(p, u);
 	}
 	
+	/**
+     * Imports the contacts of a text file with one contact per line, {@code NAME; SURNAME; ADDRESS; PHONE; AGE}.
+     * The records are validated in parallel and the valid ones are saved in batches; invalid records are reported
+     * with their line number instead of stopping the import.
+     *
+     * @param u The User object who will own the contacts.
+     * @param file The file to import.
+     * @return The outcome of the import, with the errors of the rejected lines.
+     * @throws IOException If the file cannot be read.
+     */
+	public static ImportResult importContacts(User u, Path file) throws IOException {
+		return new ContactImporter(u, batch -> DatabaseManager.insertPersons(batch, u)).importFile(file);
+	}
+	
+	/**
+     * Deletes several persons from the database at once, using the given objects without reading them back.
+     *
+     * @param persons The Person objects to be deleted.
+     * @param u The User object associated with the persons.
+     */
+	public static void deletePersons(List<Person> persons, User u) {
+		DatabaseManager.deletePersons(persons, u);
+	}
+	
 	 /**
      * Updates a person's information in the database.
      *
@@ -104,13 +255,104 @@ public class PhoneAction {
 	
 	/**
      * Searches for persons matching a specified search string under a specific user.
+     * The search runs on the in-memory name index of the user's table, so it does not need the database.
      *
      * @param u The User object associated with the persons.
-     * @param str The search string to match against person names and other attributes.
+     * @param str The search string; every word must be the prefix of a word of the person's name or surname.
      * @return An ArrayList of Person objects matching the search criteria.
      */
 	public static ArrayList<Person> Search(User u, String str) {
-		ArrayList<Person> contacts = DatabaseManager.searchPersons(str, u);
-		return contacts;
+		return u.getTable().searchContacts(str);
+	}
+	
+	/**
+     * Searches for persons matching a specified search string under a specific user, returning at most {@code limit} results.
+     *
+     * @param u The User object associated with the persons.
+     * @param str The search string; every word must be the prefix of a word of the person's name or surname.
+     * @param limit The maximum number of persons to return.
+     * @return An ArrayList of at most {@code limit} Person objects matching the search criteria.
+     */
+	public static ArrayList<Person> Search(User u, String str, int limit) {
+		return u.getTable().searchContacts(str, limit);
+	}
+	
+	/**
+     * Searches for persons matching a specified search string under a specific user, one page at a time.
+     * Only the persons of the requested page are kept in memory, however many persons match.
+     *
+     * @param u The User object associated with the persons.
+     * @param str The search string; every word must be the prefix of a word of the person's name or surname.
+     * @param cursor The token of the page to return, taken from the previous page, or null for the first page.
+     * @param pageSize The maximum number of persons in the page.
+     * @return The page of persons, ordered by name and surname, with the token of the next page.
+     */
+	public static ResultPage searchPage(User u, String str, String cursor, int pageSize) {
+		return u.getTable().searchPage(str, cursor, pageSize);
+	}
+	
+	/**
+     * Searches for persons matching a specified search string under a specific user, with the given match mode.
+     * {@link MatchMode#PHONETIC} finds persons whose names sound like the search string ("Smyth" finds "Smith").
+     *
+     * @param u The User object associated with the persons.
+     * @param str The search string to match against person names and surnames.
+     * @param mode How the search string is matched.
+     * @return An ArrayList of Person objects matching the search criteria.
+     */
+	public static ArrayList<Person> Search(User u, String str, MatchMode mode) {
+		return u.getTable().searchContacts(str, mode, Integer.MAX_VALUE);
+	}
+	
+	/**
+     * Searches for persons matching a specified search string under a specific user, with the given match mode,
+     * returning at most {@code limit} results.
+     *
+     * @param u The User object associated with the persons.
+     * @param str The search string to match against person names and surnames.
+     * @param mode How the search string is matched.
+     * @param limit The maximum number of persons to return.
+     * @return An ArrayList of at most {@code limit} Person objects matching the search criteria.
+     */
+	public static ArrayList<Person> Search(User u, String str, MatchMode mode, int limit) {
+		return u.getTable().searchContacts(str, mode, limit);
+	}
+	
+	/**
+     * Looks up the persons owning a phone number, for caller-ID style lookups.
+     * The number can be in any format, with or without the country code; the lookup runs on the in-memory phone index of the user's table.
+     *
+     * @param u The User object associated with the persons.
+     * @param phone The phone number to look up.
+     * @return An ArrayList of Person objects owning the number; empty if the number is unknown.
+     */
+	public static ArrayList<Person> lookupByPhone(User u, String phone) {
+		return u.getTable().lookupByPhone(phone);
+	}
+	
+	/**
+     * Searches for persons under a specific user tolerating typos in the search string, so that "Jonh Smiht" finds "John Smith".
+     * The search runs on the in-memory trigram index of the user's table.
+     *
+     * @param u The User object associated with the persons.
+     * @param str The search string to match against person names, surnames and addresses.
+     * @param k The maximum number of persons to return.
+     * @return An ArrayList of at most {@code k} Person objects, the closest matches first.
+     */
+	public static ArrayList<Person> fuzzySearch(User u, String str, int k) {
+		return u.getTable().searchFuzzy(str, k);
+	}
+	
+	/**
+     * Runs a multi-field query, such as an age range combined with a surname prefix, on the persons of a user.
+     * The query runs on the in-memory indexes of the user's table.
+     *
+     * @param u The User object associated with the persons.
+     * @param q The query to run.
+     * @param limit The maximum number of persons to return.
+     * @return An ArrayList of at most {@code limit} Person objects satisfying every condition of the query.
+     */
+	public static ArrayList<Person> query(User u, Query q, int limit) {
+		return u.getTable().query(q, limit);
 	}
 }
@@ -0,0 +1,274 @@
+package logic;
+
+/**
+ * A phone number in the canonical E.164 form: a country code followed by the national number, at most 15 digits.
+ * Numbers are parsed from the formats people usually type ("+39 555-1234", "0039 5551234", "(555) 1234") and are
+ * identified by a numeric key, the E.164 digits read as a long, so that two numbers are equal when their keys are and
+ * can be stored and indexed as a single integer. Since country codes never start with 0 and no country code is the
+ * beginning of another one, the key can always be split back into country code and national number.
+ * @author Leuti Michele
+ */
+public final class PhoneNumber implements Comparable<PhoneNumber> {
+	/**
+	 * The country code given to numbers typed without an international prefix.
+	 */
+	public static final int DEFAULT_COUNTRY_CODE = 39;
+	private static final int MAX_DIGITS = 15;
+	private static final int MIN_NATIONAL_DIGITS = 4;
+	// Country codes assigned by the ITU, single codes or ranges
+	private static final String COUNTRY_CODES = "1 7 20 27 30-34 36 39-41 43-49 51-58 60-66 81 82 84 86 90-95 98 "
+			+ "211-213 216 218 220-258 260-269 290 291 297-299 350-359 370-378 380-383 385-387 389 420 421 423 "
+			+ "500-509 590-599 670 672-683 685-692 800 808 850 852 853 855 856 870 878 880-883 886 888 "
+			+ "960-968 970-977 979 992-996 998";
+	private static final boolean[] VALID_COUNTRY_CODE = new boolean[1000];
+	static {
+		for (String code : COUNTRY_CODES.split(" ")) {
+			int dash = code.indexOf('-');
+			int from = Integer.parseInt(dash < 0 ? code : code.substring(0, dash));
+			int to = dash < 0 ? from : Integer.parseInt(code.substring(dash + 1));
+			for (int c = from; c <= to; c++) {
+				VALID_COUNTRY_CODE[c] = true;
+			}
+		}
+	}
+	private final int countryCode;
+	private final long key;
+
+	/**
+     * Constructs a phone number from its parts.
+     *
+     * @param countryCode The country code.
+     * @param key The E.164 digits of the number, read as a long.
+     */
+	private PhoneNumber(int countryCode, long key) {
+		this.countryCode = countryCode;
+		this.key = key;
+	}
+
+	/**
+     * Parses a phone number, assuming the default country code if the number has no international prefix.
+     *
+     * @param text The phone number as typed by the user.
+     * @return The parsed phone number.
+     * @throws IllegalArgumentException If the text is not a valid phone number.
+     */
+	public static PhoneNumber parse(String text) {
+		return parse(text, DEFAULT_COUNTRY_CODE);
+	}
+
+	/**
+     * Parses a phone number. The number may start with '+' or "00" followed by the country code; otherwise it is a
+     * national number of the given country, whose leading trunk '0' is dropped, except in the countries where it is
+     * part of the number, like Italy. Spaces, dashes, dots, slashes and brackets are ignored.
+     *
+     * @param text The phone number as typed by the user.
+     * @param defaultCountryCode The country code of numbers typed without an international prefix.
+     * @return The parsed phone number.
+     * @throws IllegalArgumentException If the text is not a valid phone number.
+     */
+	public static PhoneNumber parse(String text, int defaultCountryCode) {
+		long key = toKey(text, defaultCountryCode);
+		if (key == 0) {
+			throw new IllegalArgumentException("The phone number is invalid");
+		}
+		return fromKey(key);
+	}
+
+	/**
+     * Computes the key of a phone number without creating any object, assuming the default country code.
+     *
+     * @param text The phone number as typed by the user. Can be null.
+     * @return The key of the number, or 0 if the text is not a valid phone number.
+     */
+	public static long toKey(String text) {
+		return toKey(text, DEFAULT_COUNTRY_CODE);
+	}
+
+	/**
+     * Computes the key of a phone number without creating any object.
+     *
+     * @param text The phone number as typed by the user. Can be null.
+     * @param defaultCountryCode The country code of numbers typed without an international prefix.
+     * @return The key of the number, or 0 if the text is not a valid phone number.
+     */
+	public static long toKey(String text, int defaultCountryCode) {
+		if (text == null || !isCountryCode(defaultCountryCode)) {
+			return 0;
+		}
+		long digits = 0;
+		int count = 0;
+		int leadingZeros = 0;
+		boolean plus = false;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (digits == 0 && c == '0') {
+					leadingZeros++;
+					if (plus || leadingZeros > 2) {
+						return 0;
+					}
+					continue;
+				}
+				if (++count > MAX_DIGITS) {
+					return 0;
+				}
+				digits = digits * 10 + (c - '0');
+			}
+			else if (c == '+' && count == 0 && leadingZeros == 0 && !plus) {
+				plus = true;
+			}
+			else if (c != ' ' && c != '-' && c != '.' && c != '/' && c != '(' && c != ')' && c != '\t') {
+				return 0;
+			}
+		}
+		if (plus || leadingZeros == 2) {
+			// International number: the digits start with the country code
+			int codeLength = countryCodeLength(digits, count);
+			return codeLength > 0 && count - codeLength >= MIN_NATIONAL_DIGITS ? digits : 0;
+		}
+		if (leadingZeros == 1 && keepsTrunkZero(defaultCountryCode)) {
+			// The leading zero is part of the national number, and the key keeps it between country code and number
+			count++;
+		}
+		int codeLength = Integer.toString(defaultCountryCode).length();
+		if (count < MIN_NATIONAL_DIGITS || count + codeLength > MAX_DIGITS) {
+			return 0;
+		}
+		return defaultCountryCode * pow10(count) + digits;
+	}
+
+	/**
+     * Rebuilds a phone number from its key.
+     *
+     * @param key The key of the number, as returned by {@link #getKey()}.
+     * @return The phone number.
+     * @throws IllegalArgumentException If the key does not start with a country code.
+     */
+	public static PhoneNumber fromKey(long key) {
+		int count = Long.toString(key).length();
+		int codeLength = key > 0 ? countryCodeLength(key, count) : 0;
+		if (codeLength == 0) {
+			throw new IllegalArgumentException("The phone number key is invalid");
+		}
+		return new PhoneNumber((int) (key / pow10(count - codeLength)), key);
+	}
+
+	/**
+     * Retrieves the country code of the number.
+     *
+     * @return The country code, for example 39 for Italy.
+     */
+	public int getCountryCode() {
+		return this.countryCode;
+	}
+
+	/**
+     * Retrieves the national number, without the country code.
+     *
+     * @return The digits of the national number.
+     */
+	public String getNationalNumber() {
+		return Long.toString(this.key).substring(Integer.toString(this.countryCode).length());
+	}
+
+	/**
+     * Retrieves the key of the number, the E.164 digits read as a long.
+     *
+     * @return The key of the number.
+     */
+	public long getKey() {
+		return this.key;
+	}
+
+	/**
+     * Formats the number in E.164 form, such as "+395551234".
+     *
+     * @return The E.164 form of the number.
+     */
+	public String toE164() {
+		return "+" + this.key;
+	}
+
+	/**
+     * Compares two phone numbers by country code and national number.
+     *
+     * @param other The number to compare with.
+     * @return A negative value, zero or a positive value if this number comes before, is equal to or comes after the other.
+     */
+	@Override
+	public int compareTo(PhoneNumber other) {
+		int result = Integer.compare(this.countryCode, other.countryCode);
+		return result != 0 ? result : getNationalNumber().compareTo(other.getNationalNumber());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof PhoneNumber && ((PhoneNumber) o).key == this.key;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(this.key);
+	}
+
+	/**
+     * Returns the number with the country code separated from the national number, such as "+39 5551234".
+     *
+     * @return A readable form of the number.
+     */
+	@Override
+	public String toString() {
+		return "+" + this.countryCode + " " + getNationalNumber();
+	}
+
+	/**
+     * Finds how many of the first digits of a number form its country code.
+     *
+     * @param digits The digits of the number, read as a long.
+     * @param count The number of digits.
+     * @return The length of the country code, or 0 if the number does not start with a country code.
+     */
+	private static int countryCodeLength(long digits, int count) {
+		for (int length = 1; length <= 3 && length < count; length++) {
+			if (VALID_COUNTRY_CODE[(int) (digits / pow10(count - length))]) {
+				return length;
+			}
+		}
+		return 0;
+	}
+
+	/**
+     * Checks whether a value is an assigned country code.
+     *
+     * @param code The value to check.
+     * @return True if the value is a country code, false otherwise.
+     */
+	private static boolean isCountryCode(int code) {
+		return code > 0 && code < VALID_COUNTRY_CODE.length && VALID_COUNTRY_CODE[code];
+	}
+
+	/**
+     * Checks whether the leading 0 of the national numbers of a country is part of the number, as in Italy and San Marino,
+     * instead of a trunk prefix dropped when dialing from abroad.
+     *
+     * @param countryCode The country code.
+     * @return True if the leading 0 is kept, false otherwise.
+     */
+	private static boolean keepsTrunkZero(int countryCode) {
+		return countryCode == 39 || countryCode == 378;
+	}
+
+	/**
+     * Computes a power of ten.
+     *
+     * @param exponent The exponent, from 0 to 18.
+     * @return Ten raised to the exponent.
+     */
+	private static long pow10(int exponent) {
+		long result = 1;
+		for (int i = 0; i < exponent; i++) {
+			result *= 10;
+		}
+		return result;
+	}
+}
@@ -1,6 +1,18 @@
  package logic;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
+import table.Condition;
+import table.Query;
+import table.ResultPage;
+import table.Row;
+import table.TableRenderer;
 
 /**
  * The Phonebook class provides a console-based interface for managing a phonebook application.
@@ -9,6 +21,9 @@ import java.util.Scanner;
  */
 public class Phonebook {
 	private User user;
+	private static final int PAGE_SIZE = 20;
+	private static final int MAX_IMPORT_ERRORS = 20;
+	private static final int MAX_QUERY_RESULTS = 100;
 	
 	/**
      * Constructs a new Phonebook instance associated with a specific user.
@@ -42,7 +57,7 @@ public class Phonebook {
 				try{
 					User u = PhoneAction.searchUser(user);
 					if (u != null) {
-						if (u.checkPassword(input)) {
+						if (PhoneAction.login(u, input).join()) {
 							this.user = u;
 						}
 						else {
@@ -86,16 +101,96 @@ public class Phonebook {
 			}
 			break;
 		}
+		TableRenderer renderer = new TableRenderer(PAGE_SIZE, 15, 15, 18);
+		Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+		int page = 1;
+		boolean showTable = true;
+		String search = null;
+		String searchCursor = null;
 		while(true) {
-			System.out.println(this.user.getTable().toString());
-			System.out.println("Type \"add\" for add a new contact \nType \"delete\" for delete a contact \nType \"modify\" for update a contact information\nType \"delete account\" for delete the account \nType \"exit\" for exit the program");
+			if (showTable) {
+				try {
+					renderer.render(this.user.getTable(), page, out);
+					out.flush();
+				}
+				catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			showTable = true;
+			System.out.println("Type \"add\" for add a new contact \nType \"delete\" for delete a contact \nType \"modify\" for update a contact information\nType \"next\", \"prev\" or \"page N\" to browse the contacts\nType \"search TEXT\" to search the contacts and \"more\" for the next results\nType \"query CONDITION; CONDITION...\" to filter the contacts, with conditions such as \"age 30-45\", \"name Jo\", \"surname Ma\" or \"address Elm\"\nType \"import FILE\" to add the contacts of a file, one NAME; SURNAME; ADDRESS; PHONE; AGE per line\nType \"duplicates\" to find the contacts typed more than once\nType \"delete account\" for delete the account \nType \"exit\" for exit the program");
 			String input = s.nextLine();
-			if (input.toLowerCase().equals("add")) {
+			if (input.toLowerCase().startsWith("search ") || input.toLowerCase().equals("more")) {
+				if (input.toLowerCase().startsWith("search ")) {
+					search = input.substring(7).trim();
+					searchCursor = null;
+				}
+				else if (search == null || searchCursor == null) {
+					System.out.println("No more results.");
+					continue;
+				}
+				ResultPage results = PhoneAction.searchPage(this.user, search, searchCursor, PAGE_SIZE);
+				searchCursor = results.getNextCursor();
+				if (results.getPersons().isEmpty()) {
+					System.out.println("Contact not found.");
+				}
+				for (Person p : results.getPersons()) {
+					System.out.println(p.getName() + " " + p.getSurname() + " " + p.getPhone());
+				}
+				if (results.hasNext()) {
+					System.out.println("Type \"more\" for the next results");
+				}
+				showTable = false;
+			}
+			else if (input.toLowerCase().startsWith("query ")) {
+				try {
+					ArrayList<Person> results = PhoneAction.query(this.user, parseQuery(input.substring(6)), MAX_QUERY_RESULTS + 1);
+					if (results.isEmpty()) {
+						System.out.println("Contact not found.");
+					}
+					for (int i = 0; i < results.size() && i < MAX_QUERY_RESULTS; i++) {
+						Person p = results.get(i);
+						System.out.println(p.getName() + " " + p.getSurname() + ", " + p.getAddress() + ", " + p.getPhone() + ", " + p.getAge());
+					}
+					if (results.size() > MAX_QUERY_RESULTS) {
+						System.out.println("Only " + MAX_QUERY_RESULTS + " contacts are shown: add conditions to narrow the query");
+					}
+				}
+				catch (IllegalArgumentException e) {
+					System.out.println(e.getMessage());
+				}
+				showTable = false;
+			}
+			else if (input.toLowerCase().equals("next")) {
+				page = Math.min(page + 1, renderer.pageCount(this.user.getTable()));
+			}
+			else if (input.toLowerCase().equals("prev")) {
+				page = Math.max(page - 1, 1);
+			}
+			else if (input.toLowerCase().startsWith("page ")) {
+				try {
+					int requested = Integer.parseInt(input.substring(5).trim());
+					page = Math.max(1, Math.min(requested, renderer.pageCount(this.user.getTable())));
+				}
+				catch (NumberFormatException e) {
+					System.out.println("Invalid page number");
+				}
+			}
+			else if (input.toLowerCase().equals("add")) {
 				String[] info = new String[5];
 				System.out.println("Please add the contact info: NAME; SURNAME; ADDRESS; PHONE; AGE");
 				info = s.nextLine().split("; ");
 				try{
 					Person p = new Person(info, this.user);
+					ArrayList<Person> samePhone = PhoneAction.samePhone(this.user, p);
+					for (Person d : samePhone) {
+						System.out.println("Note: the phone number also belongs to " + d.getName() + " " + d.getSurname());
+					}
+					for (Person d : PhoneAction.findDuplicates(this.user, p)) {
+						if (!samePhone.contains(d)) {
+							System.out.println("Note: the contact may be a duplicate of " + d.getName() + " " + d.getSurname() + " " + d.getPhone());
+						}
+					}
 					PhoneAction.addPerson(p, this.user);
 				}
 				catch(Exception e) {
@@ -117,27 +212,27 @@ public class Phonebook {
 						case "1": 
 							System.out.println("Please enter the new name");
 							newInfo = s.nextLine();
-							p.setName(newInfo);
+							p = p.withName(newInfo);
 							continue;
 						case "2":
 							System.out.println("Please enter the new surname");
 							newInfo = s.nextLine();
-							p.setSurname(newInfo);
+							p = p.withSurname(newInfo);
 							continue;
 						case "3":
 							System.out.println("Please enter the new address");
 							newInfo = s.nextLine();
-							p.setAddress(newInfo);
+							p = p.withAddress(newInfo);
 							continue;
 						case "4":
 							System.out.println("Please enter the new phone number");
 							newInfo = s.nextLine();
-							p.setPhone(newInfo);
+							p = p.withPhone(newInfo);
 							continue;
 						case "5":
 							System.out.println("Please enter the new age");
 							newInfo = s.nextLine();
-							p.setAge(Integer.parseInt(newInfo));
+							p = p.withAge(Integer.parseInt(newInfo));
 							continue;
 						case "exit":
 							System.out.println("exit ended correctly");
@@ -162,17 +257,45 @@ public class Phonebook {
 					for (int i = 0; i < indexes.length; i++) {
 						indexes[i] = Integer.parseInt(rows[i]) - 1;
 					}
-					String[] ids = this.user.getTable().selectContacts(indexes);
-					for (String id : ids) {
-						Person p = PhoneAction.searchPerson(user, id);
-						PhoneAction.deletePerson(p, user);
+					ArrayList<Person> persons = new ArrayList<Person>();
+					for (Row r : this.user.getTable().selectRows(indexes)) {
+						persons.add(r.getPerson());
 					}
+					PhoneAction.deletePersons(persons, user);
 				}
 				
 				catch(Exception e){
 					System.out.println(e.getMessage());
 				}
 			}
+			else if (input.toLowerCase().startsWith("import ")) {
+				try {
+					ImportResult result = PhoneAction.importContacts(this.user, Paths.get(input.substring(7).trim()));
+					System.out.println(result);
+					for (int i = 0; i < result.getErrors().size() && i < MAX_IMPORT_ERRORS; i++) {
+						System.out.println(result.getErrors().get(i));
+					}
+					if (result.getErrors().size() > MAX_IMPORT_ERRORS) {
+						System.out.println("... and " + (result.getErrors().size() - MAX_IMPORT_ERRORS) + " more errors");
+					}
+				}
+				catch (Exception e) {
+					System.out.println("The file could not be imported: " + e.getMessage());
+				}
+			}
+			else if (input.toLowerCase().equals("duplicates")) {
+				List<List<Person>> clusters = PhoneAction.findDuplicateClusters(this.user);
+				if (clusters.isEmpty()) {
+					System.out.println("No duplicates found.");
+				}
+				for (List<Person> cluster : clusters) {
+					System.out.println("Possible duplicates:");
+					for (Person d : cluster) {
+						System.out.println("  " + d.getName() + " " + d.getSurname() + ", " + d.getAddress() + ", " + d.getPhone() + ", " + d.getAge());
+					}
+				}
+				showTable = false;
+			}
 			else if (input.toLowerCase().equals("delete account")) {
 				System.out.println("Are you sure? Y/N");
 				input = s.nextLine();
@@ -198,6 +321,53 @@ public class Phonebook {
 		s.close();
 	}
 	
+	/**
+     * Reads the conditions of a query typed on the console, separated by "; ". A condition is a field followed by its
+     * value: "age 30-45" or "age 30", "name Jo" and "surname Ma", which match the beginning of the field, and
+     * "address Elm", which matches any part of the address.
+     *
+     * @param text The conditions.
+     * @return The query combining all the conditions.
+     * @throws IllegalArgumentException If a condition is not valid.
+     */
+	private static Query parseQuery(String text) {
+		Query q = new Query();
+		for (String condition : text.split(";")) {
+			String c = condition.trim();
+			int space = c.indexOf(' ');
+			if (space < 0) {
+				throw new IllegalArgumentException("Invalid condition: " + c);
+			}
+			String field = c.substring(0, space).toLowerCase();
+			String value = c.substring(space + 1).trim();
+			switch (field) {
+			case "age":
+				int dash = value.indexOf('-');
+				try {
+					int min = Integer.parseInt((dash < 0 ? value : value.substring(0, dash)).trim());
+					int max = dash < 0 ? min : Integer.parseInt(value.substring(dash + 1).trim());
+					q.and(Condition.ageBetween(min, max));
+				}
+				catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid age range: " + value);
+				}
+				break;
+			case "name":
+				q.and(Condition.nameStartsWith(value));
+				break;
+			case "surname":
+				q.and(Condition.surnameStartsWith(value));
+				break;
+			case "address":
+				q.and(Condition.addressContains(value));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown field: " + field);
+			}
+		}
+		return q;
+	}
+	
 	/**
      * The entry point for the Phonebook application.
      * 
@@ -1,50 +1,65 @@
 package logic;
 
-import java.util.regex.Pattern;
 import java.util.ArrayList;
-import java.util.regex.Matcher;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import table.Table;
 
 /**
- * Represents a user with additional credentials such as username and password, extending the Person class.
+ * Represents a user with a name, a surname and the credentials to log in, a username and a password.
  * This class also manages a table of contacts associated with the user, offering functionality to manage user details
- * and their contacts.
+ * and their contacts. The password is kept only in the hashed form produced by {@link PasswordHasher}.
+ * Unlike its contacts, which are immutable {@link Person} values, a user can be renamed in place, so it is not a Person
+ * and never enters a {@link Table}.
  * @author Leuti Michele
  */
-public class User extends Person{
+public class User {
 	private String username;
-	private String password;
+	// Written by the verification pool when a legacy password is hashed at login
+	private volatile String password;
 	private Table t;
+	// Every contact of the user references this UUID as the ID of their user
+	private final UUID id;
+	private String name;
+	private String surname;
+	// The characters matched by [!@#$%^&-+=()], where &-+ is the range from '&' to '+'
+	private static final String SPECIAL_CHARACTERS = "!@#$%^&'()*+=";
 	
 	/**
      * Constructs a User instance with basic information and initializes a new table of contacts.
-     * Validates the username and password for non-emptiness and password complexity.
+     * Validates the username and password for non-emptiness and password complexity, then hashes the password.
      *
-     * @param userInfo An array containing the user's name, surname, username, and password.
+     * @param userInfo An array containing the user's name, surname, username, and password in plain text.
      * @throws IllegalArgumentException If any validation fails.
      */
 	public User(String[] userInfo) {
-		super(true, userInfo);
-		super.checkIfNotEmpty(userInfo[2]);
+		this.id = UUID.randomUUID();
+		this.name = Person.requireNotEmpty(userInfo[0]);
+		this.surname = Person.requireNotEmpty(userInfo[1]);
+		Person.requireNotEmpty(userInfo[2]);
 		checkIfValidPassword(userInfo[3]);
 		this.username = userInfo[2];
-		this.password = userInfo[3];
+		this.password = PasswordHasher.hash(userInfo[3]);
 		this.t = new Table(this);
 	}
 	
 	/**
      * Constructs a User instance with basic information, a list of existing contacts, and a specific ID.
      * Initializes the user's table of contacts either with existing contacts or as a new table.
+     * The password is the stored one, so it is not checked for complexity: it is either a hash, or a password saved
+     * in plain text by an older version, which is hashed at the first successful login.
      *
-     * @param userInfo An array containing the user's name, surname, username, and password.
+     * @param userInfo An array containing the user's name, surname, username, and stored password.
      * @param contacts An ArrayList of Person objects representing existing contacts.
      * @param id The user's unique identifier.
      * @throws IllegalArgumentException If any validation fails.
      */
 	public User(String[] userInfo, ArrayList <Person> contacts, String id) {
-		super(userInfo, id);
-		super.checkIfNotEmpty(userInfo[2]);
-		checkIfValidPassword(userInfo[3]);
+		this.id = UUID.fromString(id);
+		this.name = userInfo[0];
+		this.surname = userInfo[1];
+		Person.requireNotEmpty(userInfo[2]);
+		Person.requireNotEmpty(userInfo[3]);
 		this.username = userInfo[2];
 		this.password = userInfo[3];
 		if (contacts != null) {
@@ -64,6 +79,46 @@ public class User extends Person{
 		return this.t.getPersons();
 	}
 	
+	/**
+     * Gets the name of this user.
+     *
+     * @return The name.
+     */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+     * Sets the name of this user after validating for non-emptiness.
+     *
+     * @param name The new name to be set.
+     * @throws IllegalArgumentException If the name is empty.
+     */
+	public void setName(String name) {
+		Person.requireNotEmpty(name);
+		this.name = name;
+	}
+	
+	/**
+     * Gets the surname of this user.
+     *
+     * @return The surname.
+     */
+	public String getSurname() {
+		return this.surname;
+	}
+	
+	/**
+     * Sets the surname of this user after validating for non-emptiness.
+     *
+     * @param surname The new surname to be set.
+     * @throws IllegalArgumentException If the surname is empty.
+     */
+	public void setSurname(String surname) {
+		Person.requireNotEmpty(surname);
+		this.surname = surname;
+	}
+	
 	/**
      * Gets the username of this user.
      *
@@ -80,55 +135,85 @@ public class User extends Person{
      * @throws IllegalArgumentException If the username is empty.
      */
 	public void setUsername(String username) {	
-		super.checkIfNotEmpty(username);
+		Person.requireNotEmpty(username);
 		this.username = username;
 	}
 	
 	/**
-     * Gets the password of this user.
+     * Gets the stored password of this user.
      *
-     * @return The password.
+     * @return The hash of the password, or the password in plain text if it was saved by an older version and the
+     * user has not logged in since.
      */
 	public String getPassword() {
 		return this.password;
 	}
 	
 	/**
-     * Sets the password of this user after validating for complexity requirements.
+     * Sets the password of this user after validating for complexity requirements, and hashes it.
+     * Hashing is slow on purpose, so this method should not be called on the event dispatch thread.
      *
-     * @param password The new password to be set.
+     * @param password The new password to be set, in plain text.
      * @throws IllegalArgumentException If the password does not meet complexity requirements.
      */
 	public void setPassword(String password) {
 		checkIfValidPassword(password);
-		this.password = password;
+		this.password = PasswordHasher.hash(password);
+	}
+	
+	/**
+     * Hashes a password saved in plain text by an older version, without checking its complexity, which the rules of
+     * that version may not have required.
+     *
+     * @param password The password in plain text, already verified against the stored one.
+     */
+	void rehashPassword(String password) {
+		this.password = PasswordHasher.hash(password);
+	}
+	
+	/**
+     * Puts back a stored password, after a new one could not be saved.
+     *
+     * @param stored The stored password, as returned by {@link #getPassword()}.
+     */
+	void restorePassword(String stored) {
+		this.password = stored;
 	}
 	
 	/**
-     * Checks if a given password matches the user's current password.
+     * Checks if a given password matches the user's current password, waiting for the verification pool.
+     * The calling thread is blocked for the whole check, so this method should not be called on the event dispatch
+     * thread; use {@link #checkPasswordAsync(String)} there.
      *
      * @param password The password to check against the user's password.
      * @return True if the passwords match; false otherwise.
+     * @throws java.util.concurrent.CompletionException If the verification pool is saturated.
      */
 	public boolean checkPassword(String password) {
-		if (password.equals(this.password)) {
-			return true;
-		}
-		return false;
+		return this.checkPasswordAsync(password).join();
+	}
+	
+	/**
+     * Checks if a given password matches the user's current password on the verification pool.
+     *
+     * @param password The password to check against the user's password.
+     * @return A future completed with true if the passwords match and false otherwise.
+     */
+	public CompletableFuture<Boolean> checkPasswordAsync(String password) {
+		return PasswordHasher.verify(password, this.password);
 	}
 	
 	/**
      * Validates a password against a set of complexity requirements.
+     * The rules are those of the pattern {@code ^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[!@#$%^&-+=()])(?=\S+$).{8,20}$},
+     * checked in a single pass over the password, with no regular expression to compile or match.
      *
      * @param password The password to validate.
      * @return True if the password meets the complexity requirements; otherwise, throws an exception.
      * @throws IllegalArgumentException If the password does not meet the complexity requirements.
      */
 	public static boolean checkIfValidPassword(String password) {
-		String allPassRegex =  "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[!@#$%^&-+=()])(?=\\S+$).{8,20}$";
-	    Pattern p = Pattern.compile(allPassRegex);
-	    Matcher m = p.matcher(password);
-	    if (!m.find()) {
+	    if (!isValidPassword(password)) {
 	    	throw new IllegalArgumentException("Password must contains at least 8 characters and at most 20 characters.\r\n"
 	    			+ "at least one digit.\r\n"
 	    			+ "at least one upper case alphabet.\r\n"
@@ -139,6 +224,54 @@ public class User extends Person{
 	    return true;
 	}
 	
+	/**
+     * Checks the complexity requirements of a password: 8 to 20 characters with no white space, at least one digit,
+     * one lower case letter, one upper case letter and one special character.
+     *
+     * @param password The password to check.
+     * @return True if the password meets the requirements, false otherwise.
+     */
+	private static boolean isValidPassword(String password) {
+		int end = password.length();
+		// As with $ in the original pattern, a single line terminator at the very end is not part of the password
+		if (end >= 2 && password.charAt(end - 2) == '\r' && password.charAt(end - 1) == '\n') {
+			end -= 2;
+		}
+		else if (end >= 1 && isLineTerminator(password.charAt(end - 1))) {
+			end--;
+		}
+		boolean digit = false;
+		boolean lower = false;
+		boolean upper = false;
+		boolean special = false;
+		int length = 0;
+		for (int i = 0; i < end; i++) {
+			char c = password.charAt(i);
+			if (c == ' ' || c == '\t' || c == '\u000B' || c == '\f' || isLineTerminator(c)) {
+				return false;
+			}
+			digit |= c >= '0' && c <= '9';
+			lower |= c >= 'a' && c <= 'z';
+			upper |= c >= 'A' && c <= 'Z';
+			special |= SPECIAL_CHARACTERS.indexOf(c) >= 0;
+			// A surrogate pair is a single character for the length limits
+			if (!Character.isLowSurrogate(c) || i == 0 || !Character.isHighSurrogate(password.charAt(i - 1))) {
+				length++;
+			}
+		}
+		return digit && lower && upper && special && length >= 8 && length <= 20;
+	}
+	
+	/**
+     * Checks whether a character ends a line, as the line terminators recognized by regular expressions.
+     *
+     * @param c The character to check.
+     * @return True if the character is a line terminator, false otherwise.
+     */
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+	
 	 /**
      * Gets the Table object associated with this user, containing their contacts.
      *
@@ -148,6 +281,29 @@ public class User extends Person{
 		return this.t;
 	}
 	
+	/**
+     * Gets the unique identifier of this user. Unlike a contact, a user keeps its UUID object, which every one of its
+     * contacts references as the ID of their user.
+     *
+     * @return The UUID of the user.
+     */
+	public UUID getId() {
+		return this.id;
+	}
+	
+	/**
+     * Checks if a given string is not empty or does not consist solely of whitespace characters, as the fields of a
+     * user must not be.
+     *
+     * @param info The string to be checked for emptiness.
+     * @return True if the string is not empty; otherwise, it throws an IllegalArgumentException.
+     * @throws IllegalArgumentException if the input string is empty or consists only of whitespace characters.
+     */
+	public boolean checkIfNotEmpty(String info) {
+		Person.requireNotEmpty(info);
+		return true;
+	}
+	
 	/**
      * Compiles the user's information into an array.
      *
@@ -155,24 +311,25 @@ public class User extends Person{
      */
 	public String[] getUserInfo() {
 		String[] out = new String[7];
-		out[0] = super.getName();
-		out[1] = super.getSurname();
-		out[2] = super.getAddress();
-		out[3] = super.getPhone();
-		out[4] = super.getAge().toString();
+		out[0] = this.name;
+		out[1] = this.surname;
+		// A user has no address, phone or age, which the array keeps the places of
+		out[2] = null;
+		out[3] = null;
+		out[4] = null;
 		out[5] = this.username;
 		out[6] = this.password;
 		return out;
 	}
 	
 	/**
-     * Generates a string representation of the user, including their personal information and credentials.
+     * Generates a string representation of the user, with their name, surname and username.
      *
      * @return A string representation of the user.
      */
 	@Override 
 	public String toString() {
-		return super.toString();
+		return this.name + "\n" + this.surname + "\n" + this.username;
 	}
 	
 
@@ -0,0 +1,175 @@
+package main;
+
+import java.util.Arrays;
+import java.util.List;
+
+import logic.DuplicateDetector;
+import logic.Person;
+import logic.PhoneNumber;
+import logic.User;
+import table.EditDistance;
+import table.Soundex;
+import table.Table;
+
+/**
+ * The AlgorithmCheck class checks the algorithms the phonebook relies on that need no database: the canonical keys
+ * of phone numbers, the lookup of contacts by phone number in the indexes of a table, the edit distance of the fuzzy
+ * search, the Soundex codes of the phonetic search and the detection of duplicate contacts. Every check prints its
+ * outcome, and the process exits with status 1 if any of them failed, so it can be run after every build.
+ * @author Leuti Michele
+ */
+public class AlgorithmCheck {
+	private static final User USER = new User(new String[] {"Algorithm", "Check", "algorithmcheck", "Algorithm1!"});
+	private static int failures = 0;
+
+	/**
+     * Runs every check and exits with status 1 if any of them failed.
+     *
+     * @param args The command-line arguments. Not used in this application.
+     */
+	public static void main(String[] args) {
+		checkPhoneKeys();
+		checkLookupByPhone();
+		checkEditDistance();
+		checkSoundex();
+		checkDuplicateScores();
+		checkDuplicateBlocking();
+		System.out.println(failures == 0 ? "All checks: SUCCESS" : failures + " checks: FAILED");
+		if (failures > 0) {
+			System.exit(1);
+		}
+	}
+
+	/**
+     * Checks that the formats people usually type give the same key, that the key goes back to the E.164 form and
+     * that invalid text gives no key.
+     */
+	private static void checkPhoneKeys() {
+		System.out.println("Testing PhoneNumber.toKey...");
+		long key = PhoneNumber.toKey("+39 555-1234");
+		report("Phone key", key == 395551234L
+				&& PhoneNumber.toKey("0039 5551234") == key
+				&& PhoneNumber.toKey("(555) 1234") == key
+				&& PhoneNumber.toKey("5551234") == key
+				&& PhoneNumber.toKey("+1 555 123 4567") == 15551234567L
+				&& PhoneNumber.fromKey(key).toE164().equals("+395551234")
+				&& PhoneNumber.toKey("not a number") == 0
+				&& PhoneNumber.toKey(null) == 0);
+	}
+
+	/**
+     * Checks that a contact stored without an international prefix is found by its number typed with another country
+     * code, by its own number and by its last digits, as long as they are not fewer than {@link Table#MIN_PHONE_SUFFIX}.
+     */
+	private static void checkLookupByPhone() {
+		System.out.println("Testing lookupByPhone...");
+		Table t = new Table(USER);
+		t.addContact(contact("Jon", "Smith", "Via Roma 1", "5551234567", "30"));
+		report("Lookup by phone", t.lookupByPhone("+15551234567").size() == 1
+				&& t.lookupByPhone("5551234567").size() == 1
+				&& t.lookupByPhone("234567").size() == 1
+				&& t.lookupByPhone("4567").isEmpty()
+				&& t.lookupByPhone("9999999").isEmpty());
+	}
+
+	/**
+     * Checks the edit distance, with a transposition counted as a single edit and the bounded variant giving up past
+     * its bound.
+     */
+	private static void checkEditDistance() {
+		System.out.println("Testing EditDistance...");
+		report("Edit distance", EditDistance.distance("smith", "smith") == 0
+				&& EditDistance.distance("smith", "smiht") == 1
+				&& EditDistance.distance("kitten", "sitting") == 3
+				&& EditDistance.distance("", "abc") == 3
+				&& EditDistance.distance("kitten", "sitting", 1) == 2);
+	}
+
+	/**
+     * Checks the Soundex codes of names that sound alike, the letters H and W, which do not separate sounds, and words
+     * without letters.
+     */
+	private static void checkSoundex() {
+		System.out.println("Testing Soundex...");
+		report("Soundex", Soundex.encode("Robert").equals("R163")
+				&& Soundex.encode("Rupert").equals("R163")
+				&& Soundex.encode("Smith").equals(Soundex.encode("Smyth"))
+				&& Soundex.encode("Tymczak").equals("T522")
+				&& Soundex.encode("Ashcraft").equals("A261")
+				&& Soundex.encode("123").isEmpty()
+				&& Soundex.encode(null).isEmpty());
+	}
+
+	/**
+     * Checks that a contact typed twice with typos in the name and the phone is a duplicate, while relatives sharing
+     * phone, surname and address are not, even with names as close as Mario and Maria.
+     */
+	private static void checkDuplicateScores() {
+		System.out.println("Testing DuplicateDetector scores...");
+		DuplicateDetector detector = new DuplicateDetector();
+		Person jon = contact("Jon", "Smith", "Via Roma 1", "5551234567", "30");
+		Person john = contact("John", "Smith", "Via Roma 1", "5551234568", "30");
+		Person mother = contact("Anna", "Smith", "Via Roma 1", "5551234567", "60");
+		Person brother = contact("Marco", "Smith", "Via Roma 1", "5551234567", "30");
+		Person mario = contact("Mario", "Rossi", "Via Verdi 3", "3331234567", "40");
+		Person maria = contact("Maria", "Rossi", "Via Verdi 3", "3331234567", "12");
+		report("Duplicate scores", detector.isDuplicate(jon, john)
+				&& !detector.isDuplicate(jon, mother)
+				&& !detector.isDuplicate(jon, brother)
+				&& !detector.isDuplicate(jon, jon)
+				&& detector.score(mario, maria) >= DuplicateDetector.DEFAULT_THRESHOLD
+				&& !detector.isDuplicate(mario, maria)
+				&& Math.abs(detector.score(jon, jon) - 1) < 1e-9);
+	}
+
+	/**
+     * Checks that the full pass and the incremental search find the duplicates through their blocks, and only them.
+     */
+	private static void checkDuplicateBlocking() {
+		System.out.println("Testing DuplicateDetector blocking...");
+		DuplicateDetector detector = new DuplicateDetector();
+		Person jon = contact("Jon", "Smith", "Via Roma 1", "5551234567", "30");
+		Person john = contact("John", "Smith", "Via Roma 1", "5551234568", "30");
+		Person mother = contact("Anna", "Smith", "Via Roma 1", "5551234567", "60");
+		Person other = contact("Laura", "Bianchi", "Via Milano 2", "3331112222", "45");
+		List<List<Person>> clusters = detector.findClusters(Arrays.asList(jon, mother, other, john));
+		Table t = new Table(USER);
+		t.addContact(jon);
+		t.addContact(mother);
+		t.addContact(other);
+		List<Person> duplicates = detector.findDuplicates(john, t);
+		report("Duplicate blocking", clusters.size() == 1
+				&& clusters.get(0).size() == 2
+				&& clusters.get(0).contains(jon)
+				&& clusters.get(0).contains(john)
+				&& duplicates.size() == 1
+				&& duplicates.get(0).hasSameId(jon));
+	}
+
+	/**
+     * Creates a contact of the user of the checks.
+     *
+     * @param name The name.
+     * @param surname The surname.
+     * @param address The address.
+     * @param phone The phone number.
+     * @param age The age.
+     * @return The new contact.
+     */
+	private static Person contact(String name, String surname, String address, String phone, String age) {
+		return new Person(new String[] {name, surname, address, phone, age}, USER);
+	}
+
+	/**
+     * Prints the outcome of a check and counts it if it failed.
+     *
+     * @param check The name of the check.
+     * @param passed True if the check passed.
+     */
+	private static void report(String check, boolean passed) {
+		System.out.println(check + (passed ? ": SUCCESS" : ": FAILED"));
+		if (!passed) {
+			failures++;
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package main;
+import java.util.ArrayList;
+import java.util.Random;
+
+import logic.*;
+import table.Row;
+import table.Table;
+
+/**
+ * The FootprintReport class measures how many bytes of heap each contact takes, so that changes to the layout of
+ * Person, Row and the table indexes can be compared. The contacts are generated from a fixed seed, and the heap is
+ * measured after repeated garbage collections before and after building them, so the report is reproducible on the
+ * same JVM. Run it with a fixed heap, for example {@code java -Xms1g -Xmx1g main.FootprintReport 200000}.
+ * @author Leuti Michele
+ */
+public class FootprintReport {
+	private static final String[] NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth"};
+	private static final String[] SURNAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez"};
+	private static final String[] STREETS = {"Elm Street", "Oak Avenue", "Pine Road", "Maple Lane", "Cedar Court"};
+
+	/**
+     * Generates the contacts and prints the bytes per contact of the persons alone, of the persons wrapped in rows,
+     * and of a whole table with its indexes.
+     *
+     * @param args The number of contacts to generate; 200000 if not given.
+     */
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		User user = new User(new String[] {"Footprint", "Report", "footprint", "Footprint1!"});
+		System.out.println(System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+				+ ", max heap " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB, " + n + " contacts");
+
+		ArrayList<String[]> infos = generate(n);
+		ArrayList<Person> persons = new ArrayList<Person>(n);
+		long before = usedMemory();
+		for (String[] info : infos) {
+			persons.add(new Person(info, user));
+		}
+		long after = usedMemory();
+		report("Person", before, after, n);
+
+		ArrayList<Row> rows = new ArrayList<Row>(n);
+		before = usedMemory();
+		for (Person p : persons) {
+			rows.add(new Row(p));
+		}
+		after = usedMemory();
+		report("Row (without the Person)", before, after, n);
+		rows = null;
+
+		before = usedMemory();
+		Table table = new Table(user, persons);
+		after = usedMemory();
+		report("Table with indexes (without the Person)", before, after, n);
+		if (table.size() != n || infos.size() != n) {
+			throw new IllegalStateException("The contacts were not all kept");
+		}
+	}
+
+	/**
+     * Generates the contact information from a fixed seed. Names and surnames come from small pools and are shared,
+     * as they mostly are in a real phonebook, while addresses and phone numbers are distinct strings.
+     *
+     * @param n The number of contacts.
+     * @return The information of each contact, in the format of the Person constructor.
+     */
+	private static ArrayList<String[]> generate(int n) {
+		Random random = new Random(42);
+		ArrayList<String[]> infos = new ArrayList<String[]>(n);
+		for (int i = 0; i < n; i++) {
+			String[] info = new String[5];
+			info[0] = NAMES[random.nextInt(NAMES.length)];
+			info[1] = SURNAMES[random.nextInt(SURNAMES.length)];
+			info[2] = (1 + random.nextInt(999)) + " " + STREETS[random.nextInt(STREETS.length)];
+			info[3] = String.format("+39 3%02d %07d", random.nextInt(100), random.nextInt(10000000));
+			info[4] = Integer.toString(1 + random.nextInt(99));
+			infos.add(info);
+		}
+		return infos;
+	}
+
+	/**
+     * Measures the heap in use after letting the garbage collector run several times.
+     *
+     * @return The bytes of heap in use.
+     */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 10; i++) {
+			System.gc();
+			try {
+				Thread.sleep(20);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+
+	/**
+     * Prints the bytes per contact of one measurement.
+     *
+     * @param label What was measured.
+     * @param before The heap in use before building the objects.
+     * @param after The heap in use after building them.
+     * @param n The number of contacts.
+     */
+	private static void report(String label, long before, long after, int n) {
+		System.out.println(String.format("%-42s %6.1f bytes per contact", label, (after - before) / (double) n));
+	}
+}
@@ -0,0 +1,69 @@
+package main;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import logic.PasswordHasher;
+
+/**
+ * The LoginBenchmark class measures how many password checks per second the application sustains at the configured
+ * hashing cost, so the cost can be tuned to the hardware: high enough to slow down guessing, low enough for a login to
+ * stay quick. It times the checks on a single thread, then sends a burst of logins to the verification pool and
+ * reports how many were served, how many were rejected by its bounded queue, and the rate of the pool per core.
+ * Run it with the cost to evaluate, for example
+ * {@code java -Dphonebook.password.iterations=600000 main.LoginBenchmark 200}.
+ * @author Leuti Michele
+ */
+public class LoginBenchmark {
+	private static final String PASSWORD = "Benchmark1!";
+
+	/**
+     * Runs the single thread measurement and the burst on the verification pool.
+     *
+     * @param args The number of logins of the burst; 200 if not given.
+     */
+	public static void main(String[] args) {
+		int burst = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int cores = Runtime.getRuntime().availableProcessors();
+		System.out.println(System.getProperty("java.vm.name") + " " + System.getProperty("java.version") + ", " + cores
+				+ " cores, " + PasswordHasher.ITERATIONS + " iterations, " + PasswordHasher.THREADS + " verifier threads");
+
+		String stored = PasswordHasher.hash(PASSWORD);
+		// Warm up the JIT before timing
+		for (int i = 0; i < 10; i++) {
+			PasswordHasher.matches(PASSWORD, stored);
+		}
+		int sequential = 10;
+		long start = System.nanoTime();
+		for (int i = 0; i < sequential; i++) {
+			boolean correct = i % 2 == 0;
+			if (PasswordHasher.matches(correct ? PASSWORD : "Wrong1!xyz", stored) != correct) {
+				throw new IllegalStateException("The password check returned a wrong answer");
+			}
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(String.format("Single thread: %6.1f ms per login, %6.2f logins/second", seconds * 1000 / sequential, sequential / seconds));
+
+		ArrayList<CompletableFuture<Boolean>> futures = new ArrayList<CompletableFuture<Boolean>>(burst);
+		start = System.nanoTime();
+		for (int i = 0; i < burst; i++) {
+			futures.add(PasswordHasher.verify(PASSWORD, stored));
+		}
+		int served = 0;
+		int rejected = 0;
+		for (CompletableFuture<Boolean> f : futures) {
+			try {
+				if (f.join()) {
+					served++;
+				}
+			}
+			catch (CompletionException e) {
+				rejected++;
+			}
+		}
+		seconds = (System.nanoTime() - start) / 1e9;
+		double rate = served / seconds;
+		System.out.println(String.format("Burst of %d: %d served, %d rejected in %.2f s", burst, served, rejected, seconds));
+		System.out.println(String.format("Pool: %6.2f logins/second, %6.2f logins/second per core", rate, rate / Math.min(cores, PasswordHasher.THREADS)));
+	}
+}
@@ -0,0 +1,76 @@
+package table;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.NavigableMap;
+import java.util.Set;
+
+import logic.Person;
+
+/**
+ * A sorted index from the age of each contact to the rows having it.
+ * Every age in a range lies in one contiguous part of the map, so a range query costs a logarithmic seek plus the
+ * number of distinct ages in the range, which is small whatever the size of the table.
+ * @author Leuti Michele
+ */
+class AgeIndex extends RowIndex<Integer> {
+
+	/**
+     * Constructs an empty age index.
+     */
+	AgeIndex() {
+		super(true);
+	}
+
+	@Override
+	protected Collection<Integer> keysOf(Row r) {
+		Person p = r.getPerson();
+		return p.hasAge() ? Collections.singletonList(p.getAge()) : Collections.<Integer>emptyList();
+	}
+
+	/**
+     * Returns the part of the index holding the ages between two bounds.
+     *
+     * @param min The lowest age, inclusive.
+     * @param max The highest age, inclusive.
+     * @return A view of the matching part of the index.
+     */
+	private NavigableMap<Integer, Object> range(int min, int max) {
+		NavigableMap<Integer, Object> postings = (NavigableMap<Integer, Object>) postings();
+		if (min > max) {
+			return Collections.emptyNavigableMap();
+		}
+		return postings.subMap(min, true, max, true);
+	}
+
+	/**
+     * Counts the rows whose age lies between two bounds.
+     *
+     * @param min The lowest age, inclusive.
+     * @param max The highest age, inclusive.
+     * @return The number of matching rows.
+     */
+	int count(int min, int max) {
+		int count = 0;
+		for (Object rows : range(min, max).values()) {
+			count += sizeOf(rows);
+		}
+		return count;
+	}
+
+	/**
+     * Retrieves the rows whose age lies between two bounds.
+     *
+     * @param min The lowest age, inclusive.
+     * @param max The highest age, inclusive.
+     * @return The matching rows.
+     */
+	Set<Row> match(int min, int max) {
+		Set<Row> result = new LinkedHashSet<Row>();
+		for (Object rows : range(min, max).values()) {
+			result.addAll(rowsOf(rows));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,206 @@
+package table;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import logic.Person;
+
+/**
+ * A condition on a single field of a contact, to be combined with others in a {@link Query}.
+ * Every condition can check a person directly, tell how many rows its index would return and fetch those rows.
+ * Text comparisons ignore case, as the default collation of the database does.
+ * @author Leuti Michele
+ */
+public abstract class Condition {
+
+	/**
+     * Constructs a condition. Conditions are created through the static factory methods.
+     */
+	Condition() {
+	}
+
+	/**
+     * Creates a condition matching the contacts whose age lies between two bounds.
+     *
+     * @param min The lowest age, inclusive.
+     * @param max The highest age, inclusive.
+     * @return The new condition.
+     * @throws IllegalArgumentException If the lowest age is greater than the highest one.
+     */
+	public static Condition ageBetween(int min, int max) {
+		if (min > max) {
+			throw new IllegalArgumentException("The lowest age must not be greater than the highest age!");
+		}
+		return new AgeBetween(min, max);
+	}
+
+	/**
+     * Creates a condition matching the contacts whose name starts with a given text.
+     *
+     * @param prefix The beginning of the name.
+     * @return The new condition.
+     * @throws IllegalArgumentException If the prefix is null or empty.
+     */
+	public static Condition nameStartsWith(String prefix) {
+		return new StartsWith("name", prefix);
+	}
+
+	/**
+     * Creates a condition matching the contacts whose surname starts with a given text.
+     *
+     * @param prefix The beginning of the surname.
+     * @return The new condition.
+     * @throws IllegalArgumentException If the prefix is null or empty.
+     */
+	public static Condition surnameStartsWith(String prefix) {
+		return new StartsWith("surname", prefix);
+	}
+
+	/**
+     * Creates a condition matching the contacts whose address contains a given text.
+     *
+     * @param fragment The text to look for in the address.
+     * @return The new condition.
+     * @throws IllegalArgumentException If the fragment is null or empty.
+     */
+	public static Condition addressContains(String fragment) {
+		return new AddressContains(fragment);
+	}
+
+	/**
+     * Checks whether a person satisfies the condition.
+     *
+     * @param p The person to check.
+     * @return True if the person matches, false otherwise.
+     */
+	abstract boolean matches(Person p);
+
+	/**
+     * Estimates how many rows the index of the condition would return. The caller must hold the read lock of the table.
+     *
+     * @param t The table to query.
+     * @return An upper bound of the number of matching rows, or -1 if the condition cannot use an index.
+     */
+	abstract int estimate(Table t);
+
+	/**
+     * Retrieves the rows returned by the index of the condition, a superset of the matching rows.
+     * The caller must hold the read lock of the table and must not call this method if {@link #estimate(Table)} returned -1.
+     *
+     * @param t The table to query.
+     * @return The candidate rows.
+     */
+	abstract Set<Row> candidates(Table t);
+
+	/**
+     * Checks that a text given to a condition is not empty and lower-cases it.
+     *
+     * @param text The text to check.
+     * @return The lower-cased text.
+     * @throws IllegalArgumentException If the text is null or empty.
+     */
+	private static String normalize(String text) {
+		if (text == null || text.isEmpty()) {
+			throw new IllegalArgumentException("The text of a condition can't be empty!");
+		}
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+     * A range condition on the age, answered by the age index.
+     */
+	private static final class AgeBetween extends Condition {
+		private final int min;
+		private final int max;
+
+		AgeBetween(int min, int max) {
+			this.min = min;
+			this.max = max;
+		}
+
+		@Override
+		boolean matches(Person p) {
+			return p.hasAge() && p.getAge() >= this.min && p.getAge() <= this.max;
+		}
+
+		@Override
+		int estimate(Table t) {
+			return t.getAgeIndex().count(this.min, this.max);
+		}
+
+		@Override
+		Set<Row> candidates(Table t) {
+			return t.getAgeIndex().match(this.min, this.max);
+		}
+	}
+
+	/**
+     * A prefix condition on the name or the surname. A field starting with the prefix has a first word starting with
+     * the first word of the prefix, so the rows of that word in the name index are a superset of the matching rows.
+     */
+	private static final class StartsWith extends Condition {
+		private final String column;
+		private final String prefix;
+		private final String token;
+
+		StartsWith(String column, String prefix) {
+			this.column = column;
+			this.prefix = normalize(prefix);
+			List<String> tokens = PrefixIndex.tokenize(this.prefix);
+			boolean indexable = !tokens.isEmpty() && Character.isLetterOrDigit(this.prefix.charAt(0));
+			this.token = indexable ? tokens.get(0) : null;
+		}
+
+		@Override
+		boolean matches(Person p) {
+			String value = this.column.equals("name") ? p.getName() : p.getSurname();
+			return value != null && value.toLowerCase(Locale.ROOT).startsWith(this.prefix);
+		}
+
+		@Override
+		int estimate(Table t) {
+			return this.token != null ? t.getNameIndex().count(this.token) : -1;
+		}
+
+		@Override
+		Set<Row> candidates(Table t) {
+			return t.getNameIndex().match(this.token);
+		}
+	}
+
+	/**
+     * A substring condition on the address. Its longest word of at least three characters lies inside a single word of
+     * every matching address, so the words of the trigram index containing it lead to a superset of the matching rows.
+     */
+	private static final class AddressContains extends Condition {
+		private final String fragment;
+		private final String token;
+
+		AddressContains(String fragment) {
+			this.fragment = normalize(fragment);
+			String longest = null;
+			for (String token : PrefixIndex.tokenize(this.fragment)) {
+				if (token.length() >= 3 && (longest == null || token.length() > longest.length())) {
+					longest = token;
+				}
+			}
+			this.token = longest;
+		}
+
+		@Override
+		boolean matches(Person p) {
+			return p.getAddress() != null && p.getAddress().toLowerCase(Locale.ROOT).contains(this.fragment);
+		}
+
+		@Override
+		int estimate(Table t) {
+			return this.token != null ? t.getTrigramIndex().countContaining(this.token) : -1;
+		}
+
+		@Override
+		Set<Row> candidates(Table t) {
+			return t.getTrigramIndex().matchContaining(this.token);
+		}
+	}
+}
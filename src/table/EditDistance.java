@@ -0,0 +1,86 @@
+package table;
+
+/**
+ * Computes the edit distance between two strings, counting insertions, deletions, substitutions and
+ * transpositions of two adjacent characters as one edit each (optimal string alignment distance).
+ * Counting a transposition as a single edit matters for typed text, where "Smiht" for "Smith" is one typo, not two.
+ * @author Leuti Michele
+ */
+public final class EditDistance {
+
+	private EditDistance() {
+	}
+
+	/**
+     * Computes the edit distance between two strings, giving up as soon as it is known to exceed a bound.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @param max The largest distance of interest.
+     * @return The edit distance between the strings, or {@code max + 1} if it is greater than {@code max}.
+     */
+	public static int distance(CharSequence a, CharSequence b, int max) {
+		int n = a.length();
+		int m = b.length();
+		if (Math.abs(n - m) > max) {
+			return max + 1;
+		}
+		int[] previous2 = new int[m + 1];
+		int[] previous = new int[m + 1];
+		int[] current = new int[m + 1];
+		for (int j = 0; j <= m; j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= n; i++) {
+			current[0] = i;
+			int rowMin = i;
+			char ca = a.charAt(i - 1);
+			for (int j = 1; j <= m; j++) {
+				char cb = b.charAt(j - 1);
+				int cost = ca == cb ? 0 : 1;
+				int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+				if (i > 1 && j > 1 && ca == b.charAt(j - 2) && a.charAt(i - 2) == cb) {
+					d = Math.min(d, previous2[j - 2] + 1);
+				}
+				current[j] = d;
+				rowMin = Math.min(rowMin, d);
+			}
+			if (rowMin > max) {
+				return max + 1;
+			}
+			int[] tmp = previous2;
+			previous2 = previous;
+			previous = current;
+			current = tmp;
+		}
+		return Math.min(previous[m], max + 1);
+	}
+
+	/**
+     * Computes the edit distance between two strings.
+     *
+     * @param a The first string.
+     * @param b The second string.
+     * @return The edit distance between the strings.
+     */
+	public static int distance(CharSequence a, CharSequence b) {
+		return distance(a, b, Math.max(a.length(), b.length()));
+	}
+
+	/**
+     * Returns the number of edits tolerated when matching a word of the given length: short words allow a single typo,
+     * longer words allow proportionally more.
+     *
+     * @param length The length of the word typed by the user.
+     * @return The maximum edit distance at which the word is still considered a match.
+     */
+	public static int tolerance(int length) {
+		if (length <= 4) {
+			return 1;
+		}
+		if (length <= 8) {
+			return 2;
+		}
+		return 3;
+	}
+}
@@ -0,0 +1,16 @@
+package table;
+
+/**
+ * The ways a search string can be matched against the name and surname of the contacts.
+ * @author Leuti Michele
+ */
+public enum MatchMode {
+	/**
+	 * Every word of the search string must be the beginning of a word of the contact's name or surname.
+	 */
+	PREFIX,
+	/**
+	 * Every word of the search string must sound like a word of the contact's name or surname, as encoded by {@link Soundex}.
+	 */
+	PHONETIC
+}
@@ -0,0 +1,124 @@
+package table;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.UUID;
+
+import logic.Person;
+
+/**
+ * The position of the last contact of a page of results, from which the next page starts.
+ * Results are ordered by name, then surname, ignoring case, then ID, so the order is total and a cursor stays valid
+ * even if contacts are added or deleted between two pages: the next page simply starts after the same contact.
+ * The same order sorts the contacts list of the frame, so a page of results is shown in the order it was found in.
+ * A cursor travels between pages as an opaque token.
+ * @author Leuti Michele
+ */
+public final class PageCursor {
+	/**
+	 * The order of the contacts in a page of results. Comparing two contacts allocates nothing: the names are compared
+	 * in place, ignoring case, and the IDs through {@link Person#compareId(Person)}.
+	 */
+	public static final Comparator<Person> ORDER = (a, b) -> {
+		int result = compareText(a.getName(), b.getName());
+		if (result == 0) {
+			result = compareText(a.getSurname(), b.getSurname());
+		}
+		return result != 0 ? result : a.compareId(b);
+	};
+	private final String name;
+	private final String surname;
+	private final long idMostBits;
+	private final long idLeastBits;
+
+	/**
+     * Constructs a cursor from the sort key of a contact.
+     *
+     * @param name The name.
+     * @param surname The surname.
+     * @param id The ID.
+     */
+	private PageCursor(String name, String surname, UUID id) {
+		this.name = name;
+		this.surname = surname;
+		this.idMostBits = id.getMostSignificantBits();
+		this.idLeastBits = id.getLeastSignificantBits();
+	}
+
+	/**
+     * Creates the cursor pointing right after a contact.
+     *
+     * @param p The last contact of a page.
+     * @return The cursor of the next page.
+     */
+	public static PageCursor after(Person p) {
+		return new PageCursor(text(p.getName()), text(p.getSurname()), p.getId());
+	}
+
+	/**
+     * Reads a cursor from its token.
+     *
+     * @param token The token, as returned by {@link #toToken()}.
+     * @return The cursor.
+     * @throws IllegalArgumentException If the token is not a valid cursor.
+     */
+	public static PageCursor parse(String token) {
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\u0000", -1);
+			if (parts.length == 3) {
+				return new PageCursor(parts[0], parts[1], UUID.fromString(parts[2]));
+			}
+		}
+		catch (IllegalArgumentException e) {
+			// Reported below, as any other invalid token
+		}
+		throw new IllegalArgumentException("Invalid page cursor!");
+	}
+
+	/**
+     * Encodes the cursor as an opaque token.
+     *
+     * @return The token of the cursor.
+     */
+	public String toToken() {
+		String text = this.name + "\u0000" + this.surname + "\u0000" + new UUID(this.idMostBits, this.idLeastBits);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+     * Checks whether a contact comes after the cursor, and therefore belongs to the following pages.
+     * The check allocates nothing, as the comparisons of {@link #ORDER}.
+     *
+     * @param p The contact to check.
+     * @return True if the contact comes after the cursor, false otherwise.
+     */
+	public boolean isBefore(Person p) {
+		int result = compareText(this.name, p.getName());
+		if (result == 0) {
+			result = compareText(this.surname, p.getSurname());
+		}
+		return result != 0 ? result < 0 : p.compareId(this.idMostBits, this.idLeastBits) > 0;
+	}
+
+	/**
+     * Replaces a missing field with an empty one.
+     *
+     * @param value The field. Can be null.
+     * @return The field, or an empty string.
+     */
+	private static String text(String value) {
+		return value != null ? value : "";
+	}
+
+	/**
+     * Compares two fields ignoring case, a missing field coming first.
+     *
+     * @param a The first field. Can be null.
+     * @param b The second field. Can be null.
+     * @return A negative value, zero or a positive value if the first field comes before, at or after the second one.
+     */
+	private static int compareText(String a, String b) {
+		return String.CASE_INSENSITIVE_ORDER.compare(text(a), text(b));
+	}
+}
@@ -0,0 +1,79 @@
+package table;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * An index over the digits of each contact's phone number, ignoring spaces, dashes, brackets and the leading '+'.
+ * The index is sorted on the reversed digit string, where every number ending with the same digits lies in one
+ * contiguous range and can be found with a prefix scan. Exact lookups on the canonical number are served by
+ * {@link PhoneKeyIndex}.
+ * @author Leuti Michele
+ */
+class PhoneIndex extends RowIndex<String> {
+
+	/**
+     * Constructs an empty phone index.
+     */
+	PhoneIndex() {
+		super(true);
+	}
+
+	/**
+     * Extracts the digits of a phone number, dropping every other character.
+     *
+     * @param phone The phone number as typed by the user. Can be null.
+     * @return The digits of the number, or an empty string if there are none.
+     */
+	static String digits(String phone) {
+		if (phone == null) {
+			return "";
+		}
+		StringBuilder b = new StringBuilder(phone.length());
+		for (int i = 0; i < phone.length(); i++) {
+			char c = phone.charAt(i);
+			if (c >= '0' && c <= '9') {
+				b.append(c);
+			}
+		}
+		return b.toString();
+	}
+
+	/**
+     * Reverses a digit string, so that a suffix of the number becomes a prefix of the key.
+     *
+     * @param digits The digits to reverse.
+     * @return The reversed digits.
+     */
+	static String reverse(String digits) {
+		return new StringBuilder(digits).reverse().toString();
+	}
+
+	@Override
+	protected Collection<String> keysOf(Row r) {
+		String digits = digits(r.getPerson().getPhone());
+		if (digits.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return Collections.singletonList(reverse(digits));
+	}
+
+	/**
+     * Retrieves every row whose phone number ends with the given digits.
+     *
+     * @param digits The trailing digits to look for.
+     * @return The matching rows; a row has a single key, so none is repeated.
+     */
+	List<Row> endingWith(String digits) {
+		List<Row> result = new ArrayList<Row>();
+		String prefix = reverse(digits);
+		NavigableMap<String, Object> postings = (NavigableMap<String, Object>) postings();
+		for (Object rows : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+			result.addAll(rowsOf(rows));
+		}
+		return result;
+	}
+}
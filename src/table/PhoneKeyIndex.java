@@ -0,0 +1,26 @@
+package table;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A hash index from the canonical key of each contact's phone number to the rows having it.
+ * The key is the number in E.164 form read as a long, so "+39 555-1234" and "0039 5551234" share the same entry and an
+ * exact lookup is a single probe on an integer key. Contacts whose number cannot be normalized are not in this index.
+ * @author Leuti Michele
+ */
+class PhoneKeyIndex extends RowIndex<Long> {
+
+	/**
+     * Constructs an empty phone key index.
+     */
+	PhoneKeyIndex() {
+		super(false);
+	}
+
+	@Override
+	protected Collection<Long> keysOf(Row r) {
+		long key = r.getPerson().getPhoneKey();
+		return key != 0 ? Collections.singletonList(key) : Collections.<Long>emptyList();
+	}
+}
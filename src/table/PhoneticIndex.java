@@ -0,0 +1,45 @@
+package table;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A hash index from the Soundex code of each word of a contact's name and surname to the rows containing it.
+ * Since the codes are computed once when a row is indexed, a phonetic lookup is a single hash probe per query word.
+ * @author Leuti Michele
+ */
+class PhoneticIndex extends RowIndex<String> {
+
+	/**
+     * Constructs an empty phonetic index.
+     */
+	PhoneticIndex() {
+		super(false);
+	}
+
+	@Override
+	protected Collection<String> keysOf(Row r) {
+		Set<String> keys = new HashSet<String>();
+		for (String token : PrefixIndex.tokenize(r.getPerson().getName())) {
+			addCode(keys, token);
+		}
+		for (String token : PrefixIndex.tokenize(r.getPerson().getSurname())) {
+			addCode(keys, token);
+		}
+		return keys;
+	}
+
+	/**
+     * Adds the Soundex code of a word to a set of keys, if the word has one.
+     *
+     * @param keys The keys of the row being indexed.
+     * @param token The word to encode.
+     */
+	private static void addCode(Set<String> keys, String token) {
+		String code = Soundex.encode(token);
+		if (!code.isEmpty()) {
+			keys.add(code);
+		}
+	}
+}
@@ -0,0 +1,273 @@
+package table;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import logic.Person;
+
+/**
+ * A sorted index over the lower-cased tokens of the name and surname of each contact.
+ * Since the tokens are kept in sorted order, every token starting with a given prefix lies in one contiguous
+ * range of the map, so a prefix lookup costs a logarithmic seek plus the size of the range.
+ * @author Leuti Michele
+ */
+class PrefixIndex extends RowIndex<String> {
+
+	/**
+     * Constructs an empty prefix index.
+     */
+	PrefixIndex() {
+		super(true);
+	}
+
+	/**
+     * Splits a text into lower-cased tokens, using every character that is not a letter or a digit as a separator.
+     *
+     * @param text The text to split. Can be null.
+     * @return The tokens of the text, in order of appearance and without duplicates.
+     */
+	static List<String> tokenize(String text) {
+		Set<String> tokens = new LinkedHashSet<String>();
+		if (text == null) {
+			return new ArrayList<String>(tokens);
+		}
+		int start = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			boolean separator = i == text.length() || !Character.isLetterOrDigit(text.charAt(i));
+			if (separator && start >= 0) {
+				tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+				start = -1;
+			}
+			else if (!separator && start < 0) {
+				start = i;
+			}
+		}
+		return new ArrayList<String>(tokens);
+	}
+
+	@Override
+	protected Collection<String> keysOf(Row r) {
+		Set<String> keys = new HashSet<String>(tokenize(r.getPerson().getName()));
+		keys.addAll(tokenize(r.getPerson().getSurname()));
+		return keys;
+	}
+
+	/**
+     * Returns the range of the index holding every token that starts with the given prefix.
+     *
+     * @param prefix The lower-cased prefix.
+     * @return A view of the matching part of the index.
+     */
+	private NavigableMap<String, Object> range(String prefix) {
+		NavigableMap<String, Object> postings = (NavigableMap<String, Object>) postings();
+		return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+	}
+
+	/**
+     * Counts the postings of all tokens starting with the given prefix.
+     * The count is an upper bound of the number of matching rows and is used to pick the most selective token of a query.
+     *
+     * @param prefix The lower-cased prefix.
+     * @return The number of postings in the prefix range.
+     */
+	int count(String prefix) {
+		int count = 0;
+		for (Object rows : range(prefix).values()) {
+			count += sizeOf(rows);
+		}
+		return count;
+	}
+
+	/**
+     * Retrieves every row having at least one token that starts with the given prefix.
+     *
+     * @param prefix The lower-cased prefix.
+     * @return The matching rows.
+     */
+	Set<Row> match(String prefix) {
+		Set<Row> result = new LinkedHashSet<Row>();
+		for (Object rows : range(prefix).values()) {
+			result.addAll(rowsOf(rows));
+		}
+		return result;
+	}
+
+	/**
+     * Visits every row having at least one token that starts with the given prefix, without copying the rows.
+     * A row with several matching tokens is visited only once, under the first of them in sorted order.
+     *
+     * @param prefix The lower-cased prefix.
+     * @param visitor The action performed on each matching row.
+     */
+	void scan(String prefix, Consumer<Row> visitor) {
+		NavigableMap<String, Object> range = range(prefix);
+		// A row can be met under several tokens only if the range has more than one
+		boolean single = range.size() == 1;
+		for (Map.Entry<String, Object> entry : range.entrySet()) {
+			for (Row r : rowsOf(entry.getValue())) {
+				if (single || !hasEarlierMatch(r.getPerson(), prefix, entry.getKey())) {
+					visitor.accept(r);
+				}
+			}
+		}
+	}
+
+	/**
+     * Checks whether a person has a word that starts with the given prefix and comes before a token in sorted order.
+     * The words are compared in place, so the check allocates nothing.
+     *
+     * @param p The person.
+     * @param prefix The lower-cased prefix.
+     * @param token The lower-cased token the person is met under.
+     * @return True if the person is also indexed under an earlier token of the prefix range, false otherwise.
+     */
+	private static boolean hasEarlierMatch(Person p, String prefix, String token) {
+		return hasEarlierMatch(p.getName(), prefix, token) || hasEarlierMatch(p.getSurname(), prefix, token);
+	}
+
+	/**
+     * Checks whether a word of a text, split as by {@link #tokenize(String)}, starts with the given prefix and comes
+     * before a token in sorted order.
+     *
+     * @param text The text. Can be null.
+     * @param prefix The lower-cased prefix.
+     * @param token The lower-cased token.
+     * @return True if such a word exists, false otherwise.
+     */
+	private static boolean hasEarlierMatch(String text, String prefix, String token) {
+		if (text == null) {
+			return false;
+		}
+		int n = text.length();
+		int i = 0;
+		while (i < n) {
+			if (!Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+				continue;
+			}
+			int end = i;
+			while (end < n && Character.isLetterOrDigit(text.charAt(end))) {
+				end++;
+			}
+			if (startsWith(text, i, end, prefix) && compare(text, i, end, token) < 0) {
+				return true;
+			}
+			i = end;
+		}
+		return false;
+	}
+
+	/**
+     * Checks whether a word of a text, lower-cased, starts with a token.
+     *
+     * @param text The text.
+     * @param start The index of the first character of the word.
+     * @param end The index after the last character of the word.
+     * @param token The lower-cased token.
+     * @return True if the word starts with the token, false otherwise.
+     */
+	private static boolean startsWith(String text, int start, int end, String token) {
+		if (end - start < token.length()) {
+			return false;
+		}
+		for (int j = 0; j < token.length(); j++) {
+			if (Character.toLowerCase(text.charAt(start + j)) != token.charAt(j)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+     * Compares a word of a text, lower-cased, with a token, in the order of {@link String#compareTo(String)}.
+     *
+     * @param text The text.
+     * @param start The index of the first character of the word.
+     * @param end The index after the last character of the word.
+     * @param token The lower-cased token.
+     * @return A negative value, zero or a positive value if the word comes before, at or after the token.
+     */
+	private static int compare(String text, int start, int end, String token) {
+		int length = Math.min(end - start, token.length());
+		for (int j = 0; j < length; j++) {
+			char c = Character.toLowerCase(text.charAt(start + j));
+			if (c != token.charAt(j)) {
+				return c - token.charAt(j);
+			}
+		}
+		return (end - start) - token.length();
+	}
+
+	/**
+     * Checks whether an indexed row has at least one token that starts with the given prefix.
+     *
+     * @param r The indexed row.
+     * @param prefix The lower-cased prefix.
+     * @return True if the row matches the prefix, false otherwise.
+     */
+	boolean matches(Row r, String prefix) {
+		Person p = r.getPerson();
+		return hasWordStartingWith(p.getName(), prefix) || hasWordStartingWith(p.getSurname(), prefix);
+	}
+
+	/**
+     * Checks whether every token of a query is the prefix of a word of the name or surname of a person, the rule
+     * of the index applied to a person that is not indexed.
+     * The words are compared in place, character by character, so checking the many persons of an earlier result
+     * allocates nothing.
+     *
+     * @param p The person to check.
+     * @param tokens The lower-cased tokens of the query, as returned by {@link #tokenize(String)}.
+     * @return True if every token matches a word, false otherwise.
+     */
+	static boolean matchesAll(Person p, List<String> tokens) {
+		for (String token : tokens) {
+			if (!hasWordStartingWith(p.getName(), token) && !hasWordStartingWith(p.getSurname(), token)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+     * Checks whether a word of a text, split as by {@link #tokenize(String)}, starts with a token.
+     *
+     * @param text The text. Can be null.
+     * @param token The lower-cased token.
+     * @return True if a word of the text starts with the token, false otherwise.
+     */
+	private static boolean hasWordStartingWith(String text, String token) {
+		if (text == null) {
+			return false;
+		}
+		int n = text.length();
+		int i = 0;
+		while (i < n) {
+			if (!Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+				continue;
+			}
+			int j = 0;
+			while (j < token.length() && i + j < n && Character.isLetterOrDigit(text.charAt(i + j))
+					&& Character.toLowerCase(text.charAt(i + j)) == token.charAt(j)) {
+				j++;
+			}
+			if (j == token.length()) {
+				return true;
+			}
+			// Skip the rest of the word
+			while (i < n && Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,47 @@
+package table;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A query over the contacts, made of conditions that must all hold, such as
+ * {@code new Query().and(Condition.ageBetween(30, 45)).and(Condition.surnameStartsWith("Ma"))}.
+ * The query runs on the in-memory table, through {@link Table#query(Query, int)}; on the console it is typed with the
+ * {@code query} command, such as {@code query age 30-45; surname Ma; address Elm}.
+ * @author Leuti Michele
+ */
+public final class Query {
+	private final ArrayList<Condition> conditions;
+
+	/**
+     * Constructs an empty query, matching every contact.
+     */
+	public Query() {
+		this.conditions = new ArrayList<Condition>();
+	}
+
+	/**
+     * Adds a condition to the query.
+     *
+     * @param c The condition that the contacts must also satisfy.
+     * @return This query, to chain further conditions.
+     * @throws IllegalArgumentException If the condition is null.
+     */
+	public Query and(Condition c) {
+		if (c == null) {
+			throw new IllegalArgumentException("The condition can't be null!");
+		}
+		this.conditions.add(c);
+		return this;
+	}
+
+	/**
+     * Retrieves the conditions of the query.
+     *
+     * @return The conditions, in the order they were added.
+     */
+	List<Condition> getConditions() {
+		return Collections.unmodifiableList(this.conditions);
+	}
+}
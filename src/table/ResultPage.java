@@ -0,0 +1,52 @@
+package table;
+
+import java.util.ArrayList;
+
+import logic.Person;
+
+/**
+ * One page of search results, with the cursor of the following page.
+ * @author Leuti Michele
+ */
+public final class ResultPage {
+	private final ArrayList<Person> persons;
+	private final String nextCursor;
+
+	/**
+     * Constructs a page of results.
+     *
+     * @param persons The contacts of the page, in order.
+     * @param nextCursor The token of the next page, or null if this is the last page.
+     */
+	public ResultPage(ArrayList<Person> persons, String nextCursor) {
+		this.persons = persons;
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+     * Retrieves the contacts of the page.
+     *
+     * @return The contacts, ordered by name, surname and ID.
+     */
+	public ArrayList<Person> getPersons() {
+		return this.persons;
+	}
+
+	/**
+     * Retrieves the token to pass to the next search to get the following page.
+     *
+     * @return The cursor token, or null if this is the last page.
+     */
+	public String getNextCursor() {
+		return this.nextCursor;
+	}
+
+	/**
+     * Checks whether more results follow this page.
+     *
+     * @return True if there is a next page, false otherwise.
+     */
+	public boolean hasNext() {
+		return this.nextCursor != null;
+	}
+}
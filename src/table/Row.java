@@ -5,29 +5,23 @@ import logic.Person;
  * Represents a row in a table, which can hold information about a person across multiple cells.
  * A row is essentially a collection of cells, each cell designed to hold a specific piece of data about a person,
  * such as their name, surname, or phone number. Rows can be initialized with or without person data.
+ * The cells of a row holding a person are views built from the person when they are asked for, so the row itself
+ * only keeps the reference to the person.
  * @author Leuti Michele
  */
 public class Row {
+	private static final int CELLS = 3;
 	private Cell[] cells;
 	private Person p;
 
 	/**
-     * Constructs a row and initializes each cell with data from the given person.
-     * If the person is not null, the row is initialized with the person's name, surname, and phone number.
+     * Constructs a row showing the data of the given person.
+     * If the person is not null, the cells of the row hold the person's name, surname, and phone number.
      * 
-     * @param p The person whose data is to be used to initialize the cells in the row. Can be null.
+     * @param p The person whose data is shown in the cells of the row. Can be null.
      */
 	public Row(Person p) {
-		if (p != null) {
-			this.p = p;
-		    this.cells = new Cell[3]; // Initializes the array with a fixed length of 3
-		    for (int i = 0; i < 3; i++) {
-		        this.cells[i] = new Cell(); // Initializes each cell in the row
-		    }
-		    this.cells[0].setInfo(p.getName());
-		    this.cells[1].setInfo(p.getSurname());
-		    this.cells[2].setInfo(p.getPhone());
-		}	
+		this.p = p;
 	}
 	
 	/**
@@ -36,31 +30,52 @@ public class Row {
      * creating empty cells ready to be populated with data.
      */
 	public Row() {
-	    this.cells = new Cell[3]; // Initializes the array with a fixed length of 3
-	    for (int i = 0; i < 3; i++) {
+	    this.cells = new Cell[CELLS]; // Initializes the array with a fixed length of 3
+	    for (int i = 0; i < CELLS; i++) {
 	        this.cells[i] = new Cell(); // Initializes each cell in the row
 	    }
 	}
 	
 	/**
      * Retrieves the cell at the specified index within the row.
-     * This method allows for direct access to a specific cell's data.
+     * For a row holding a person the cell is a new view of the person's data, and changing it does not change the person.
      * 
      * @param i The index of the cell to retrieve, where the first cell is at index 0.
      * @return The Cell object at the specified index.
+     * @throws ArrayIndexOutOfBoundsException If the index is not between 0 and 2.
      */
 	public Cell getCell(int i) {
-		return this.cells[i];
+		if (this.p == null) {
+			return this.cells[i];
+		}
+		switch (i) {
+		case 0:
+			return new Cell(this.p.getName());
+		case 1:
+			return new Cell(this.p.getSurname());
+		case 2:
+			return new Cell(this.p.getPhone());
+		default:
+			throw new ArrayIndexOutOfBoundsException(i);
+		}
 	}
 	
 	/**
      * Retrieves the array of cells that constitute the row.
      * This method provides access to all cells within the row, allowing for iteration or manipulation.
+     * For a row holding a person the cells are new views of the person's data, as returned by {@link #getCell(int)}.
      * 
      * @return An array of Cell objects representing the data held within the row.
      */
 	public Cell[] getCells() {
-	    return this.cells;
+		if (this.p == null) {
+			return this.cells;
+		}
+		Cell[] views = new Cell[CELLS];
+		for (int i = 0; i < CELLS; i++) {
+			views[i] = this.getCell(i);
+		}
+		return views;
 	}
 	
 	/**
@@ -75,11 +90,16 @@ public class Row {
 	
 	/**
      * Modifies the information contained within the row based on the data of a given person.
-     * This method updates the cells of the row with the new person's name, surname, and phone number.
+     * A row holding a person takes the given person in its place, so that the cells and the person of the row agree;
+     * an empty row copies the person's name, surname, and phone number into its cells.
      * 
      * @param p The new person whose data should be used to update the row's cells.
      */
 	public void modifyInfo(Person p) {
+		if (this.p != null) {
+			this.p = p;
+			return;
+		}
 	    this.cells[0].setInfo(p.getName());
 	    this.cells[1].setInfo(p.getSurname());
 	    this.cells[2].setInfo(p.getPhone());
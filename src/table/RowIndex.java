@@ -0,0 +1,212 @@
+package table;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+
+/**
+ * Base class for the in-memory secondary indexes kept by a {@link Table}.
+ * An index maps keys derived from a row (name tokens, phone digits, ...) to the rows that produced them.
+ * The rows of a key are kept compactly: a key of a single row, such as a phone number, maps to the row itself, and a
+ * key of several rows maps to a growable array of them, so a posting costs one reference instead of a hash set entry.
+ * The keys of a row are computed again from its person when the row is removed: persons are immutable, and the table
+ * unindexes a row before giving it a new version of its person, so the keys removed are always the keys added.
+ * @author Leuti Michele
+ *
+ * @param <K> The type of the keys stored in the index.
+ */
+abstract class RowIndex<K> {
+	// The rows of each key: a single Row, or a Posting holding several of them
+	private final Map<K, Object> postings;
+
+	/**
+     * Constructs an empty index.
+     *
+     * @param sorted If true the keys are kept in a sorted map, allowing range and prefix scans; otherwise a hash map is used.
+     */
+	RowIndex(boolean sorted) {
+		this.postings = sorted ? new TreeMap<K, Object>() : new HashMap<K, Object>();
+	}
+
+	/**
+     * Computes the keys under which the given row must be indexed.
+     *
+     * @param r The row to index.
+     * @return The keys of the row, without duplicates. May be empty.
+     */
+	protected abstract Collection<K> keysOf(Row r);
+
+	/**
+     * Called when a key is stored in the index for the first time. Does nothing by default.
+     *
+     * @param key The new key.
+     */
+	protected void keyAdded(K key) {
+	}
+
+	/**
+     * Called when the last row stored under a key is removed from the index. Does nothing by default.
+     *
+     * @param key The removed key.
+     */
+	protected void keyRemoved(K key) {
+	}
+
+	/**
+     * Adds a row to the index under all of its keys.
+     *
+     * @param r The row to add.
+     */
+	void add(Row r) {
+		for (K key : keysOf(r)) {
+			Object stored = this.postings.get(key);
+			if (stored == null) {
+				this.postings.put(key, r);
+				keyAdded(key);
+			}
+			else if (stored instanceof Posting) {
+				((Posting) stored).append(r);
+			}
+			else {
+				this.postings.put(key, new Posting((Row) stored, r));
+			}
+		}
+	}
+
+	/**
+     * Removes a row from the index, under the keys computed from its current person.
+     *
+     * @param r The row to remove.
+     */
+	void remove(Row r) {
+		for (K key : keysOf(r)) {
+			Object stored = this.postings.get(key);
+			if (stored == r) {
+				this.postings.remove(key);
+				keyRemoved(key);
+			}
+			else if (stored instanceof Posting) {
+				Posting rows = (Posting) stored;
+				rows.delete(r);
+				if (rows.size() == 1) {
+					this.postings.put(key, rows.get(0));
+				}
+			}
+		}
+	}
+
+	/**
+     * Retrieves the rows indexed under exactly the given key.
+     *
+     * @param key The key to look up.
+     * @return The rows stored under the key, or an empty list. The returned list must not be modified.
+     */
+	List<Row> get(K key) {
+		return rowsOf(this.postings.get(key));
+	}
+
+	/**
+     * Gives subclasses direct access to the key to rows map, for range or prefix scans. The values are read through
+     * {@link #rowsOf(Object)} and {@link #sizeOf(Object)}.
+     *
+     * @return The posting lists of the index.
+     */
+	protected Map<K, Object> postings() {
+		return this.postings;
+	}
+
+	/**
+     * Turns a value of the posting map into the list of its rows.
+     *
+     * @param stored A value of the posting map. Can be null.
+     * @return The rows of the value, or an empty list. The returned list must not be modified.
+     */
+	protected static List<Row> rowsOf(Object stored) {
+		if (stored == null) {
+			return Collections.emptyList();
+		}
+		return stored instanceof Posting ? (Posting) stored : Collections.singletonList((Row) stored);
+	}
+
+	/**
+     * Counts the rows of a value of the posting map, without creating any list.
+     *
+     * @param stored A value of the posting map. Can be null.
+     * @return The number of rows of the value.
+     */
+	protected static int sizeOf(Object stored) {
+		if (stored == null) {
+			return 0;
+		}
+		return stored instanceof Posting ? ((Posting) stored).size() : 1;
+	}
+
+	/**
+     * The rows of a key shared by several rows, in an array that grows by half when full. A row is removed by moving
+     * the last row into its slot, so the order of the rows is not kept.
+     */
+	private static final class Posting extends AbstractList<Row> implements RandomAccess {
+		private Row[] rows;
+		private int size;
+
+		/**
+         * Constructs the posting of a key reaching its second row.
+         *
+         * @param first The row already stored under the key.
+         * @param second The new row.
+         */
+		Posting(Row first, Row second) {
+			this.rows = new Row[] {first, second};
+			this.size = 2;
+		}
+
+		/**
+         * Adds a row at the end of the posting.
+         *
+         * @param r The row to add.
+         */
+		void append(Row r) {
+			if (this.size == this.rows.length) {
+				this.rows = Arrays.copyOf(this.rows, this.size + (this.size >> 1) + 1);
+			}
+			this.rows[this.size++] = r;
+		}
+
+		/**
+         * Removes a row from the posting, shrinking the array when it is mostly empty.
+         *
+         * @param r The row to remove.
+         */
+		void delete(Row r) {
+			for (int i = 0; i < this.size; i++) {
+				if (this.rows[i] == r) {
+					this.rows[i] = this.rows[--this.size];
+					this.rows[this.size] = null;
+					if (this.size < this.rows.length >> 2) {
+						this.rows = Arrays.copyOf(this.rows, this.size + (this.size >> 1) + 1);
+					}
+					return;
+				}
+			}
+		}
+
+		@Override
+		public Row get(int i) {
+			if (i >= this.size) {
+				throw new IndexOutOfBoundsException(i);
+			}
+			return this.rows[i];
+		}
+
+		@Override
+		public int size() {
+			return this.size;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package table;
+
+/**
+ * Encodes words with the American Soundex algorithm, so that names sounding alike get the same code:
+ * "Smith" and "Smyth" are both S530, "Jon" and "John" are both J500.
+ * The code is the first letter of the word followed by three digits standing for the following consonant sounds.
+ * @author Leuti Michele
+ */
+public final class Soundex {
+	// Digit of each letter from A to Z; '0' for vowels, which separate sounds, and '-' for H and W, which do not
+	private static final String CODES = "0123012-02245501262301-202";
+
+	private Soundex() {
+	}
+
+	/**
+     * Computes the Soundex code of a word. Characters that are not letters from A to Z are ignored.
+     *
+     * @param word The word to encode. Can be null.
+     * @return The four-character Soundex code of the word, or an empty string if it contains no letters.
+     */
+	public static String encode(String word) {
+		if (word == null) {
+			return "";
+		}
+		char[] code = new char[4];
+		int length = 0;
+		char last = 0;
+		for (int i = 0; i < word.length() && length < 4; i++) {
+			char c = Character.toUpperCase(word.charAt(i));
+			if (c < 'A' || c > 'Z') {
+				continue;
+			}
+			char digit = CODES.charAt(c - 'A');
+			if (length == 0) {
+				code[length++] = c;
+				last = digit;
+			}
+			else if (digit == '-') {
+				continue;
+			}
+			else {
+				if (digit != '0' && digit != last) {
+					code[length++] = digit;
+				}
+				last = digit;
+			}
+		}
+		if (length == 0) {
+			return "";
+		}
+		while (length < 4) {
+			code[length++] = '0';
+		}
+		return new String(code);
+	}
+}
@@ -1,17 +1,57 @@
 package table;
 import logic.Person;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import logic.PhoneNumber;
 import logic.User;
 
 /**
  * Represents a table containing rows of data associated with a specific user and their contacts.
  * This class allows for operations on the table such as adding, modifying, and deleting contacts,
  * as well as retrieving the user's contacts as rows or persons.
+ * 
+ * The table is safe to use from several threads: changes are serialized by a write lock, while searches, lookups
+ * and listings share a read lock and run in parallel with each other. The short point reads, the lookup of a phone
+ * number and the selection of rows by index, first run without any lock and are repeated under the read lock only if
+ * a change ran meanwhile. The lists returned by the table are snapshots
+ * that can be used after the call without further locking. Every change is reported to the registered
+ * {@link TableListener}s once it is complete.
  * @author Leuti Michele
  */
 public class Table {
-	private User user;
+	private volatile User user;
+	private final StampedLock lock = new StampedLock();
 	private ArrayList<Row> rows;
+	private PrefixIndex nameIndex;
+	private PhoneKeyIndex phoneIndex;
+	private PhoneIndex phoneSuffixIndex;
+	private TrigramIndex trigramIndex;
+	private PhoneticIndex phoneticIndex;
+	private AgeIndex ageIndex;
+	private ArrayList<RowIndex<?>> indexes;
+	private final CopyOnWriteArrayList<TableListener> listeners = new CopyOnWriteArrayList<TableListener>();
+	private volatile long version;
+	
+	/**
+	 * The minimum number of digits a partial phone number must have to be matched against the end of the stored numbers.
+	 */
+	public static final int MIN_PHONE_SUFFIX = 6;
+	// A bulk delete removing more than one row in this many of the rows left rebuilds the indexes instead
+	private static final int REBUILD_RATIO = 8;
 	
 	/**
      * Constructs a table for the specified user without any initial contacts.
@@ -20,6 +60,7 @@ public class Table {
      */
 	public Table(User u) {
 		this.rows = new ArrayList<Row>();
+		this.createIndexes();
 	}
 	
 	/**
@@ -31,19 +72,86 @@ public class Table {
      */
 	public Table(User u, ArrayList<Person> contacts) {
 		this.rows = new ArrayList<Row>();
+		this.createIndexes();
 		for (int i = 0; i < contacts.size(); i++) {
 			Row r = new Row(contacts.get(i));
 			this.rows.add(r);
+			this.index(r);
+		}
+	}
+	
+	/**
+     * Creates the empty in-memory indexes of the table.
+     */
+	private void createIndexes() {
+		this.nameIndex = new PrefixIndex();
+		this.phoneIndex = new PhoneKeyIndex();
+		this.phoneSuffixIndex = new PhoneIndex();
+		this.trigramIndex = new TrigramIndex();
+		this.phoneticIndex = new PhoneticIndex();
+		this.ageIndex = new AgeIndex();
+		this.indexes = new ArrayList<RowIndex<?>>();
+		this.indexes.add(this.nameIndex);
+		this.indexes.add(this.phoneIndex);
+		this.indexes.add(this.phoneSuffixIndex);
+		this.indexes.add(this.trigramIndex);
+		this.indexes.add(this.phoneticIndex);
+		this.indexes.add(this.ageIndex);
+	}
+	
+	/**
+     * Adds a row to every index of the table.
+     *
+     * @param r The row to index.
+     */
+	private void index(Row r) {
+		for (RowIndex<?> index : this.indexes) {
+			index.add(r);
+		}
+	}
+	
+	/**
+     * Removes a row from every index of the table.
+     *
+     * @param r The row to unindex.
+     */
+	private void unindex(Row r) {
+		for (RowIndex<?> index : this.indexes) {
+			index.remove(r);
 		}
 	}
 	
 	/**
      * Retrieves the list of rows in the table.
      *
-     * @return A list of Row objects representing the user's contacts.
+     * @return A snapshot list of Row objects representing the user's contacts.
      */
 	public ArrayList<Row> getRows() {
-		return this.rows;
+		long stamp = this.lock.readLock();
+		try {
+			return new ArrayList<Row>(this.rows);
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+     * Retrieves a window of the rows in the table, copying only the requested rows.
+     *
+     * @param from The index of the first row, inclusive.
+     * @param to The index of the last row, exclusive. Values past the end of the table are clamped to its size.
+     * @return A snapshot list of the rows in the window; empty if {@code from} is past the end of the table.
+     */
+	public ArrayList<Row> getRows(int from, int to) {
+		return this.read(() -> {
+			int end = Math.min(to, this.rows.size());
+			int start = Math.max(0, from);
+			if (start >= end) {
+				return new ArrayList<Row>();
+			}
+			return new ArrayList<Row>(this.rows.subList(start, end));
+		});
 	}
 	
 	/**
@@ -53,11 +161,70 @@ public class Table {
      * @return A list of Person objects representing the contacts in the table.
      */
 	public ArrayList<Person> getPersons(){
-		ArrayList <Person> persons = new ArrayList<Person>();
-		for (Row row : this.rows) {
-			persons.add(row.getPerson());
+		long stamp = this.lock.readLock();
+		try {
+			ArrayList <Person> persons = new ArrayList<Person>(this.rows.size());
+			for (Row row : this.rows) {
+				persons.add(row.getPerson());
+			}
+			return persons;
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+     * Retrieves the number of contacts in the table.
+     * The size is read optimistically, without locking, and only re-read under the read lock if a change happened meanwhile.
+     *
+     * @return The number of rows in the table.
+     */
+	public int size() {
+		long stamp = this.lock.tryOptimisticRead();
+		int size = this.rows.size();
+		if (!this.lock.validate(stamp)) {
+			stamp = this.lock.readLock();
+			try {
+				size = this.rows.size();
+			}
+			finally {
+				this.lock.unlockRead(stamp);
+			}
+		}
+		return size;
+	}
+	
+	/**
+     * Runs a short read of the table optimistically, without locking, and runs it again under the read lock if a change
+     * ran meanwhile. A change running at the same time can leave the rows and indexes inconsistent for the reader, so an
+     * exception thrown by the optimistic read is not trusted either: the read under the lock tells whether it is real.
+     * Only reads that are short and allocate little should use this method, since an invalidated read is wasted work.
+     *
+     * @param <T> The type of the result.
+     * @param reader The read, which must not change the table.
+     * @return The result of a read that no change overlapped.
+     */
+	private <T> T read(Supplier<T> reader) {
+		long stamp = this.lock.tryOptimisticRead();
+		if (stamp != 0) {
+			try {
+				T result = reader.get();
+				if (this.lock.validate(stamp)) {
+					return result;
+				}
+			}
+			catch (RuntimeException e) {
+				// Read again under the lock
+			}
+		}
+		stamp = this.lock.readLock();
+		try {
+			return reader.get();
+		}
+		finally {
+			this.lock.unlockRead(stamp);
 		}
-		return persons;
 	}
 	
 	/**
@@ -77,19 +244,79 @@ public class Table {
      */
 	public void addContact(Person p) {
 		Row r = new Row(p);
-		this.rows.add(r);
+		long stamp = this.lock.writeLock();
+		try {
+			this.version++;
+			this.rows.add(r);
+			this.index(r);
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+		List<Person> added = Collections.singletonList(p);
+		for (TableListener l : this.listeners) {
+			l.contactsAdded(added);
+		}
+	}
+	
+	/**
+     * Adds several new contacts to the table at once, under a single acquisition of the write lock.
+     * The rows are created before taking the lock, so readers wait only for the indexing.
+     *
+     * @param persons The Person objects to be added as new contacts.
+     */
+	public void addContacts(Collection<Person> persons) {
+		ArrayList<Row> added = new ArrayList<Row>(persons.size());
+		for (Person p : persons) {
+			added.add(new Row(p));
+		}
+		long stamp = this.lock.writeLock();
+		try {
+			this.version++;
+			this.rows.ensureCapacity(this.rows.size() + added.size());
+			for (Row r : added) {
+				this.rows.add(r);
+				this.index(r);
+			}
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+		if (!persons.isEmpty()) {
+			List<Person> list = Collections.unmodifiableList(new ArrayList<Person>(persons));
+			for (TableListener l : this.listeners) {
+				l.contactsAdded(list);
+			}
+		}
 	}
 	
 	/**
      * Modifies the information of an existing contact in the table.
-     * This method finds the row associated with the specified Person object and updates its information.
+     * This method finds the row of the contact with the same ID and swaps in the new version of the person,
+     * updating the indexes, so that readers see either the old or the new version, never a mix of both.
      *
-     * @param p The Person object with updated information.
+     * @param p The new version of the person.
      */
 	public void modifyContact(Person p) {
-		for (int i = 0 ; i < this.rows.size(); i++){
-			if (this.rows.get(i).getPerson().getId() == p.getId()) {
-				this.rows.get(i).modifyInfo(p);
+		Person old = null;
+		long stamp = this.lock.writeLock();
+		try {
+			this.version++;
+			for (int i = 0 ; i < this.rows.size(); i++){
+				if (this.rows.get(i).getPerson().hasSameId(p)) {
+					old = this.rows.get(i).getPerson();
+					this.unindex(this.rows.get(i));
+					this.rows.get(i).modifyInfo(p);
+					this.index(this.rows.get(i));
+				}
+			}
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+		if (old != null) {
+			for (TableListener l : this.listeners) {
+				l.contactUpdated(old, p);
 			}
 		}
 	}
@@ -101,26 +328,610 @@ public class Table {
      * @param p The Person object to be removed from the table.
      */
 	public void deleteContact(Person p) {
-		for (int i = 0 ; i < this.rows.size(); i++){
-			if (this.rows.get(i).getPerson().getId() == p.getId()) {
-				this.rows.remove(i);
+		ArrayList<Person> removed = new ArrayList<Person>(1);
+		long stamp = this.lock.writeLock();
+		try {
+			this.version++;
+			for (int i = 0 ; i < this.rows.size(); i++){
+				if (this.rows.get(i).getPerson().hasSameId(p)) {
+					Row r = this.rows.remove(i);
+					this.unindex(r);
+					removed.add(r.getPerson());
+				}
 			}
 		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+		this.fireRemoved(removed);
 	}
 	
 	/**
-     * Selects contacts by their row indexes and returns their IDs.
+     * Deletes several contacts from the table at once, in a single pass over the rows.
+     * Removing a row from a long posting list costs a scan of the list, so when many rows are removed the indexes are
+     * rebuilt from the rows left instead, which costs a single pass over them.
+     *
+     * @param persons The Person objects to be removed from the table.
+     */
+	public void deleteContacts(Collection<Person> persons) {
+		// Looked up by ID through Person::compareId, so the pass over the rows creates no UUID
+		Set<Person> ids = new TreeSet<Person>(Person::compareId);
+		ids.addAll(persons);
+		ArrayList<Person> removed = new ArrayList<Person>(ids.size());
+		long stamp = this.lock.writeLock();
+		try {
+			this.version++;
+			ArrayList<Row> removedRows = new ArrayList<Row>(ids.size());
+			this.rows.removeIf(r -> {
+				if (ids.contains(r.getPerson())) {
+					removedRows.add(r);
+					removed.add(r.getPerson());
+					return true;
+				}
+				return false;
+			});
+			if (removedRows.size() > this.rows.size() / REBUILD_RATIO) {
+				this.createIndexes();
+				for (Row r : this.rows) {
+					this.index(r);
+				}
+			}
+			else {
+				for (Row r : removedRows) {
+					this.unindex(r);
+				}
+			}
+		}
+		finally {
+			this.lock.unlockWrite(stamp);
+		}
+		this.fireRemoved(removed);
+	}
+	
+	/**
+     * Reports removed contacts to the listeners, if any contact was removed.
+     *
+     * @param removed The removed contacts.
+     */
+	private void fireRemoved(ArrayList<Person> removed) {
+		if (removed.isEmpty()) {
+			return;
+		}
+		List<Person> list = Collections.unmodifiableList(removed);
+		for (TableListener l : this.listeners) {
+			l.contactsRemoved(list);
+		}
+	}
+	
+	/**
+     * Retrieves the number of changes made to the contacts of the table. Results computed from the table are still
+     * current as long as the number has not changed.
+     *
+     * @return The number of changes made since the table was created.
+     */
+	public long getVersion() {
+		return this.version;
+	}
+	
+	/**
+     * Narrows the results of an earlier search by name and surname to those matching a longer query, without using the
+     * table. A query that extends an earlier one matches a subset of its contacts, so if the earlier results were
+     * complete and the table has not changed since (see {@link #getVersion()}), the narrowed results are exactly the
+     * results of {@link #searchContacts(String, int)} for the longer query.
+     *
+     * @param persons The results of the earlier search.
+     * @param query The longer query.
+     * @return The persons for which every word of the query is the prefix of a word of their name or surname.
+     */
+	public static ArrayList<Person> refineSearch(Collection<Person> persons, String query) {
+		ArrayList<Person> result = new ArrayList<Person>();
+		List<String> tokens = PrefixIndex.tokenize(query);
+		if (tokens.isEmpty()) {
+			return result;
+		}
+		for (Person p : persons) {
+			if (PrefixIndex.matchesAll(p, tokens)) {
+				result.add(p);
+			}
+		}
+		return result;
+	}
+	
+	/**
+     * Registers a listener to be told about every later change of the contacts of the table.
+     *
+     * @param l The listener.
+     */
+	public void addTableListener(TableListener l) {
+		this.listeners.add(l);
+	}
+	
+	/**
+     * Unregisters a listener, which will not be told about the later changes.
+     *
+     * @param l The listener.
+     */
+	public void removeTableListener(TableListener l) {
+		this.listeners.remove(l);
+	}
+	
+	/**
+     * Searches the contacts of the table by name and surname, without querying the database.
+     * The query is split into tokens and a contact matches only if every token is the prefix of a word
+     * of its name or surname (case insensitive), so "jo sm" finds "John Smith".
+     * When more contacts match, the first ones in the order of {@link PageCursor#ORDER} are returned, so a cut list
+     * is the start of the full one.
+     *
+     * @param query The text to search for.
+     * @param limit The maximum number of contacts to return.
+     * @return A list of at most {@code limit} matching Person objects, sorted; empty if the query has no tokens.
+     */
+	public ArrayList<Person> searchContacts(String query, int limit) {
+		long stamp = this.lock.readLock();
+		try {
+			return prefixSearch(query, limit);
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+     * Runs a prefix search on the name index. The caller must hold the read lock.
+     *
+     * @param query The text to search for.
+     * @param limit The maximum number of contacts to return.
+     * @return A list of at most {@code limit} matching Person objects, the first ones in the order of {@link PageCursor#ORDER}.
+     */
+	private ArrayList<Person> prefixSearch(String query, int limit) {
+		return firstMatches(PrefixIndex.tokenize(query), null, limit);
+	}
+	
+	/**
+     * Finds the first contacts, in the order of {@link PageCursor#ORDER}, for which every token is the prefix of a word
+     * of their name or surname. The candidates of the most selective token are scanned and checked against the remaining
+     * tokens, and the matches are kept in a bounded heap holding at most {@code limit} contacts, so the memory used
+     * depends on the limit and not on the number of matches. The caller must hold the read lock.
+     *
+     * @param tokens The tokens of the query.
+     * @param after The cursor the contacts must come after, or null to start from the first one.
+     * @param limit The maximum number of contacts to return.
+     * @return The matching contacts, sorted.
+     */
+	private ArrayList<Person> firstMatches(List<String> tokens, PageCursor after, int limit) {
+		if (tokens.isEmpty() || limit <= 0) {
+			return new ArrayList<Person>();
+		}
+		String best = tokens.get(0);
+		int bestCount = this.nameIndex.count(best);
+		for (int i = 1; i < tokens.size() && bestCount > 0; i++) {
+			int count = this.nameIndex.count(tokens.get(i));
+			if (count < bestCount) {
+				best = tokens.get(i);
+				bestCount = count;
+			}
+		}
+		if (bestCount == 0) {
+			return new ArrayList<Person>();
+		}
+		// Keeps the first matches, with the last one on top so it can be replaced
+		PriorityQueue<Person> heap = new PriorityQueue<Person>(Math.min(limit, bestCount), PageCursor.ORDER.reversed());
+		this.nameIndex.scan(best, r -> {
+			Person p = r.getPerson();
+			if (after != null && !after.isBefore(p)) {
+				return;
+			}
+			for (String token : tokens) {
+				if (!this.nameIndex.matches(r, token)) {
+					return;
+				}
+			}
+			if (heap.size() < limit) {
+				heap.add(p);
+			}
+			else if (PageCursor.ORDER.compare(p, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(p);
+			}
+		});
+		ArrayList<Person> result = new ArrayList<Person>(heap);
+		result.sort(PageCursor.ORDER);
+		return result;
+	}
+	
+	/**
+     * Searches the contacts of the table by name and surname, one page at a time.
+     * The page is found by {@link #firstMatches(List, PageCursor, int)} with room for one more contact, which only
+     * tells whether a next page exists.
+     *
+     * @param query The search string; every word must be the prefix of a word of the contact's name or surname.
+     * @param cursor The token of the page to return, as given by {@link ResultPage#getNextCursor()}, or null for the first page.
+     * @param pageSize The maximum number of contacts in the page.
+     * @return The page of contacts, ordered by name, surname and ID, with the cursor of the next page.
+     * @throws IllegalArgumentException If the page size is not positive or the cursor is not valid.
+     */
+	public ResultPage searchPage(String query, String cursor, int pageSize) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("The page size must be a positive value!");
+		}
+		PageCursor after = cursor != null ? PageCursor.parse(cursor) : null;
+		List<String> tokens = PrefixIndex.tokenize(query);
+		ArrayList<Person> page;
+		long stamp = this.lock.readLock();
+		try {
+			page = firstMatches(tokens, after, pageSize < Integer.MAX_VALUE ? pageSize + 1 : pageSize);
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+		String next = null;
+		if (page.size() > pageSize) {
+			page.remove(pageSize);
+			next = PageCursor.after(page.get(pageSize - 1)).toToken();
+		}
+		return new ResultPage(page, next);
+	}
+	
+	/**
+     * Searches the contacts of the table by name and surname, returning every match.
+     *
+     * @param query The text to search for.
+     * @return A list of the matching Person objects.
+     * @see #searchContacts(String, int)
+     */
+	public ArrayList<Person> searchContacts(String query) {
+		return searchContacts(query, Integer.MAX_VALUE);
+	}
+	
+	/**
+     * Searches the contacts of the table by name and surname with the given match mode.
+     * In {@link MatchMode#PHONETIC} mode each word of the query is reduced to its Soundex code and looked up
+     * in the phonetic index, so "Jon Smyth" finds "John Smith"; every word must match a word of the contact.
+     *
+     * @param query The text to search for.
+     * @param mode How the words of the query are matched against the contacts.
+     * @param limit The maximum number of contacts to return.
+     * @return A list of at most {@code limit} matching Person objects.
+     */
+	public ArrayList<Person> searchContacts(String query, MatchMode mode, int limit) {
+		long stamp = this.lock.readLock();
+		try {
+			return mode == MatchMode.PHONETIC ? phoneticSearch(query, limit) : prefixSearch(query, limit);
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+     * Runs a phonetic search on the Soundex index. The caller must hold the read lock.
+     *
+     * @param query The text to search for.
+     * @param limit The maximum number of contacts to return.
+     * @return A list of at most {@code limit} matching Person objects.
+     */
+	private ArrayList<Person> phoneticSearch(String query, int limit) {
+		ArrayList<Person> result = new ArrayList<Person>();
+		List<String> codes = new ArrayList<String>();
+		for (String token : PrefixIndex.tokenize(query)) {
+			String code = Soundex.encode(token);
+			if (!code.isEmpty() && !codes.contains(code)) {
+				codes.add(code);
+			}
+		}
+		if (codes.isEmpty() || limit <= 0) {
+			return result;
+		}
+		List<Row> candidates = null;
+		for (String code : codes) {
+			List<Row> rows = this.phoneticIndex.get(code);
+			if (candidates == null || rows.size() < candidates.size()) {
+				candidates = rows;
+			}
+		}
+		for (Row r : candidates) {
+			if (this.phoneticIndex.keysOf(r).containsAll(codes)) {
+				result.add(r.getPerson());
+				if (result.size() == limit) {
+					break;
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+     * Searches the contacts of the table tolerating typos, so that "Jonh Smiht" still finds "John Smith".
+     * Every query word is first matched against the vocabulary of the table through the trigram index, keeping the
+     * words within a few edits of it. The contacts containing a match for every query word are then found by walking the
+     * rows of the most selective query word and probing the others, and ranked by their total edit distance.
+     *
+     * @param query The text to search for.
+     * @param k The maximum number of contacts to return.
+     * @return A list of at most {@code k} Person objects, ordered from the best to the worst match.
+     */
+	public ArrayList<Person> searchFuzzy(String query, int k) {
+		long stamp = this.lock.readLock();
+		try {
+			return fuzzySearch(query, k);
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+     * Runs a typo-tolerant search on the trigram index. The caller must hold the read lock.
+     *
+     * @param query The text to search for.
+     * @param k The maximum number of contacts to return.
+     * @return A list of at most {@code k} Person objects, ordered from the best to the worst match.
+     */
+	private ArrayList<Person> fuzzySearch(String query, int k) {
+		ArrayList<Person> result = new ArrayList<Person>();
+		List<String> tokens = PrefixIndex.tokenize(query);
+		if (tokens.isEmpty() || k <= 0) {
+			return result;
+		}
+		List<Map<String, Integer>> similar = new ArrayList<Map<String, Integer>>();
+		int seed = 0;
+		int seedSize = Integer.MAX_VALUE;
+		for (String token : tokens) {
+			Map<String, Integer> words = this.trigramIndex.similarWords(token, EditDistance.tolerance(token.length()));
+			if (words.isEmpty()) {
+				return result;
+			}
+			int size = 0;
+			for (String word : words.keySet()) {
+				size += this.trigramIndex.get(word).size();
+			}
+			if (size < seedSize) {
+				seed = similar.size();
+				seedSize = size;
+			}
+			similar.add(words);
+		}
+		// Keeps the k best matches, with the worst one on top so it can be replaced
+		PriorityQueue<FuzzyMatch> best = new PriorityQueue<FuzzyMatch>(Collections.reverseOrder(FuzzyMatch.ORDER));
+		Set<Row> seen = new HashSet<Row>();
+		for (String seedWord : similar.get(seed).keySet()) {
+			for (Row r : this.trigramIndex.get(seedWord)) {
+				if (!seen.add(r)) {
+					continue;
+				}
+				int distance = fuzzyDistance(similar, this.trigramIndex.keysOf(r));
+				if (distance < 0) {
+					continue;
+				}
+				FuzzyMatch match = new FuzzyMatch(r, distance);
+				if (best.size() < k) {
+					best.add(match);
+				}
+				else if (FuzzyMatch.ORDER.compare(match, best.peek()) < 0) {
+					best.poll();
+					best.add(match);
+				}
+			}
+		}
+		ArrayList<FuzzyMatch> matches = new ArrayList<FuzzyMatch>(best);
+		matches.sort(FuzzyMatch.ORDER);
+		for (FuzzyMatch match : matches) {
+			result.add(match.row.getPerson());
+		}
+		return result;
+	}
+	
+	/**
+     * Computes how far a row is from a fuzzy query: the sum, over the query words, of the edit distance
+     * of the closest word of the row.
+     *
+     * @param similar For each query word, the indexed words close to it mapped to their edit distance.
+     * @param words The words of the row.
+     * @return The distance of the row from the query, or -1 if the row has no word close to some query word.
+     */
+	private static int fuzzyDistance(List<Map<String, Integer>> similar, Collection<String> words) {
+		int total = 0;
+		for (Map<String, Integer> candidates : similar) {
+			int closest = Integer.MAX_VALUE;
+			for (String word : words) {
+				Integer distance = candidates.get(word);
+				if (distance != null && distance < closest) {
+					closest = distance;
+				}
+			}
+			if (closest == Integer.MAX_VALUE) {
+				return -1;
+			}
+			total += closest;
+		}
+		return total;
+	}
+	
+	/**
+     * A match of a fuzzy search, ordered by increasing edit distance and then alphabetically by name and surname.
+     */
+	private static final class FuzzyMatch {
+		static final Comparator<FuzzyMatch> ORDER = Comparator.<FuzzyMatch>comparingInt(m -> m.distance)
+				.thenComparing(m -> m.row.getPerson().getName(), String.CASE_INSENSITIVE_ORDER)
+				.thenComparing(m -> m.row.getPerson().getSurname(), String.CASE_INSENSITIVE_ORDER);
+		final Row row;
+		final int distance;
+		
+		FuzzyMatch(Row row, int distance) {
+			this.row = row;
+			this.distance = distance;
+		}
+	}
+	
+	/**
+     * Finds the contacts owning a phone number, in the manner of a caller-ID lookup.
+     * Numbers are compared in their canonical E.164 form, so "+39 555-1234", "0039 5551234" and the national
+     * "5551234" are the same number. The lookup tries, in order: the canonical number, with a probe on its integer key;
+     * the same digits, for numbers that cannot be normalized; the same digits without the leading ones, down to
+     * {@value #MIN_PHONE_SUFFIX} digits, for numbers stored without the country or area code; the contacts whose
+     * number ends with the given digits, for partial numbers.
+     * Each step is a hash probe or a range scan on an index, never a scan of the whole table.
+     *
+     * @param phone The phone number to look up, in any format.
+     * @return A list of the Person objects owning the number; empty if no contact matches.
+     */
+	public ArrayList<Person> lookupByPhone(String phone) {
+		long stamp = this.lock.readLock();
+		try {
+			ArrayList<Person> result = new ArrayList<Person>();
+			String digits = PhoneIndex.digits(phone);
+			if (digits.isEmpty()) {
+				return result;
+			}
+			long key = PhoneNumber.toKey(phone);
+			List<Row> rows = key != 0 ? this.phoneIndex.get(key) : Collections.<Row>emptyList();
+			if (rows.isEmpty()) {
+				rows = this.phoneSuffixIndex.get(PhoneIndex.reverse(digits));
+			}
+			// Drop the leading digits one at a time, for a number stored without its country or area code
+			for (int i = 1; rows.isEmpty() && digits.length() - i >= MIN_PHONE_SUFFIX; i++) {
+				rows = this.phoneSuffixIndex.get(PhoneIndex.reverse(digits.substring(i)));
+			}
+			if (rows.isEmpty() && digits.length() >= MIN_PHONE_SUFFIX) {
+				rows = this.phoneSuffixIndex.endingWith(digits);
+			}
+			for (Row r : rows) {
+				result.add(r.getPerson());
+			}
+			return result;
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+     * Finds the contacts having the same canonical phone number as the given one, such as a contact about to be added.
+     * The lookup is a single probe on the integer key of the number.
+     *
+     * @param number The phone number to look for.
+     * @return A list of the Person objects having the same number; empty if there are none.
+     */
+	public ArrayList<Person> lookupByPhone(PhoneNumber number) {
+		return this.read(() -> {
+			ArrayList<Person> result = new ArrayList<Person>();
+			for (Row r : this.phoneIndex.get(number.getKey())) {
+				result.add(r.getPerson());
+			}
+			return result;
+		});
+	}
+	
+	/**
+     * Runs a query on the contacts of the table, without querying the database.
+     * The planner asks every condition how many rows its index would return, scans only the candidates of the most
+     * selective one and checks every condition on each of them, since an index may return a superset of the matches.
+     * The whole table is scanned only if no condition can use an index.
+     *
+     * @param q The query to run.
+     * @param limit The maximum number of results.
+     * @return The contacts satisfying every condition of the query, in no particular order.
+     */
+	public ArrayList<Person> query(Query q, int limit) {
+		long stamp = this.lock.readLock();
+		try {
+			ArrayList<Person> result = new ArrayList<Person>();
+			if (limit <= 0) {
+				return result;
+			}
+			Condition best = null;
+			int bestCount = -1;
+			for (Condition c : q.getConditions()) {
+				int count = c.estimate(this);
+				if (count == 0) {
+					return result;
+				}
+				if (count > 0 && (best == null || count < bestCount)) {
+					best = c;
+					bestCount = count;
+				}
+			}
+			Collection<Row> candidates = best != null ? best.candidates(this) : this.rows;
+			for (Row r : candidates) {
+				boolean matches = true;
+				for (Condition c : q.getConditions()) {
+					if (!c.matches(r.getPerson())) {
+						matches = false;
+						break;
+					}
+				}
+				if (matches) {
+					result.add(r.getPerson());
+					if (result.size() == limit) {
+						break;
+					}
+				}
+			}
+			return result;
+		}
+		finally {
+			this.lock.unlockRead(stamp);
+		}
+	}
+	
+	/**
+     * Retrieves the name index, for the conditions of a query. The caller must hold the read lock.
+     *
+     * @return The index of the name and surname tokens.
+     */
+	PrefixIndex getNameIndex() {
+		return this.nameIndex;
+	}
+	
+	/**
+     * Retrieves the trigram index, for the conditions of a query. The caller must hold the read lock.
+     *
+     * @return The index of the name, surname and address words.
+     */
+	TrigramIndex getTrigramIndex() {
+		return this.trigramIndex;
+	}
+	
+	/**
+     * Retrieves the age index, for the conditions of a query. The caller must hold the read lock.
+     *
+     * @return The index of the ages.
+     */
+	AgeIndex getAgeIndex() {
+		return this.ageIndex;
+	}
+	
+	/**
+     * Selects rows by their indexes in the table.
      * This method is useful for operations that require identifying specific contacts by their position in the table.
      *
-     * @param rowIndexes An array of integers representing the indexes of the rows to be selected.
-     * @return An array of String objects representing the IDs of the selected contacts.
+     * @param rowIndexes An array of integers representing the 0-based indexes of the rows to be selected.
+     * @return A list of the selected Row objects, in the order of the indexes.
+     * @throws IndexOutOfBoundsException If an index does not refer to a row of the table.
+     */
+	public ArrayList<Row> selectRows(int[] rowIndexes) {
+		return this.read(() -> {
+			ArrayList<Row> selected = new ArrayList<Row>(rowIndexes.length);
+			for (int index : rowIndexes) {
+				selected.add(this.rows.get(index));
+			}
+			return selected;
+		});
+	}
+	
+	/**
+     * Selects contacts by their row indexes and returns their IDs.
+     *
+     * @param rowIndexes An array of integers representing the 0-based indexes of the rows to be selected.
+     * @return A list of the IDs of the selected contacts, in the order of the indexes.
+     * @throws IndexOutOfBoundsException If an index does not refer to a row of the table.
      */
-	public String[] selectContacts(int[] rowIndexes) {
-		StringBuilder b = new StringBuilder();
-		for (int index : rowIndexes) {
-			b.append(this.rows.get(index).getPerson().getId().toString() + "/");
+	public ArrayList<UUID> selectIds(int[] rowIndexes) {
+		ArrayList<UUID> ids = new ArrayList<UUID>(rowIndexes.length);
+		for (Row r : selectRows(rowIndexes)) {
+			ids.add(r.getPerson().getId());
 		}
-		return b.toString().split("/"); 
+		return ids;
 	}
 	
 	/**
@@ -136,24 +947,19 @@ public class Table {
 	/**
      * Provides a string representation of the table, formatted for display.
      * This method organizes the table's data into a readable format, listing each contact's information.
+     * For large tables prefer a {@link TableRenderer}, which writes one page at a time.
      *
      * @return A string representation of the table, including headers and each row's data.
      */
 	@Override
 	public String toString(){
-		StringBuilder str = new StringBuilder("Name | Surname | Phone\n"); 
-		for (Integer i = 0; i < this.rows.size(); i++) {
-			Integer t = i + 1;
-			String rowIndex = t.toString();
-			str.append(rowIndex + ". ");
-			for (Integer j = 0; j < 3; j++) {
-				if (j == 2) {
-					str.append(this.rows.get(i).getCell(j).toString() + "\n");
-				}
-				else{
-					str.append(this.rows.get(i).getCell(j).toString() + " ");
-				}
-			}
+		StringBuilder str = new StringBuilder();
+		try {
+			new TableRenderer(Math.max(1, size())).render(this, 1, str);
+		}
+		catch (IOException e) {
+			// Appending to a StringBuilder never fails
+			throw new UncheckedIOException(e);
 		}
 		return str.toString();
 	}
@@ -0,0 +1,38 @@
+package table;
+
+import java.util.List;
+
+import logic.Person;
+
+/**
+ * Receives the changes of the contacts of a {@link Table}, so that a view of the contacts can follow them one row at a
+ * time instead of reading the whole table again.
+ * The methods are called on the thread that changed the table, after the change is visible to readers and outside of
+ * the lock of the table, so a listener may query the table; a listener updating a user interface must move to the
+ * thread of the interface itself.
+ * @author Leuti Michele
+ */
+public interface TableListener {
+
+	/**
+     * Called after contacts are added to the table.
+     *
+     * @param persons The added contacts, in the order they were added.
+     */
+	void contactsAdded(List<Person> persons);
+
+	/**
+     * Called after a contact of the table is replaced by a new version of it.
+     *
+     * @param old The version of the contact that was replaced.
+     * @param updated The new version of the contact, with the same ID.
+     */
+	void contactUpdated(Person old, Person updated);
+
+	/**
+     * Called after contacts are removed from the table.
+     *
+     * @param persons The removed contacts, as they were stored in the table.
+     */
+	void contactsRemoved(List<Person> persons);
+}
@@ -0,0 +1,107 @@
+package table;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Renders a table as text, one page at a time, writing straight to an {@link Appendable} such as a Writer or a PrintStream.
+ * Only the rows of the requested page are copied out of the table, so the memory used per page does not grow with the size
+ * of the table. Each row is printed with its 1-based position in the table, the same index used to pick contacts for editing
+ * or deletion.
+ * @author Leuti Michele
+ */
+public class TableRenderer {
+	private static final String HEADER = "Name | Surname | Phone";
+	private int pageSize;
+	private int[] columnWidths;
+
+	/**
+     * Constructs a renderer showing pages of the given size.
+     *
+     * @param pageSize The number of rows per page.
+     * @param columnWidths The width of the name, surname and phone columns. Longer values are cut, shorter ones padded with spaces.
+     *                     A width of 0, or a missing width, prints the value as it is.
+     * @throws IllegalArgumentException If the page size is not positive.
+     */
+	public TableRenderer(int pageSize, int... columnWidths) {
+		if (pageSize <= 0) {
+			throw new IllegalArgumentException("The page size must be a positive value!");
+		}
+		this.pageSize = pageSize;
+		this.columnWidths = columnWidths.clone();
+	}
+
+	/**
+     * Retrieves the number of rows per page.
+     *
+     * @return The page size.
+     */
+	public int getPageSize() {
+		return this.pageSize;
+	}
+
+	/**
+     * Computes how many pages are needed to show the whole table. An empty table still has one, empty, page.
+     *
+     * @param t The table to render.
+     * @return The number of pages.
+     */
+	public int pageCount(Table t) {
+		return Math.max(1, (t.size() + this.pageSize - 1) / this.pageSize);
+	}
+
+	/**
+     * Writes one page of the table: a header line, one line per row and, if the table spans several pages, a footer
+     * with the page number.
+     *
+     * @param t The table to render.
+     * @param page The 1-based number of the page to write. Values out of range are clamped to the first or last page.
+     * @param out The destination of the text.
+     * @throws IOException If writing to {@code out} fails.
+     */
+	public void render(Table t, int page, Appendable out) throws IOException {
+		int pages = pageCount(t);
+		page = Math.max(1, Math.min(page, pages));
+		int from = (page - 1) * this.pageSize;
+		ArrayList<Row> rows = t.getRows(from, from + this.pageSize);
+		out.append(HEADER).append('\n');
+		for (int i = 0; i < rows.size(); i++) {
+			out.append(Integer.toString(from + i + 1)).append(". ");
+			Row r = rows.get(i);
+			for (int j = 0; j < 3; j++) {
+				if (j > 0) {
+					out.append(' ');
+				}
+				appendCell(out, r.getCell(j).getInfo(), j < this.columnWidths.length ? this.columnWidths[j] : 0, j < 2);
+			}
+			out.append('\n');
+		}
+		if (pages > 1) {
+			out.append("Page ").append(Integer.toString(page)).append(" of ").append(Integer.toString(pages)).append('\n');
+		}
+	}
+
+	/**
+     * Writes a cell value fitted to a column width.
+     *
+     * @param out The destination of the text.
+     * @param value The value of the cell.
+     * @param width The width of the column, or 0 to write the value as it is.
+     * @param pad If true a shorter value is padded with spaces; the last column is not padded, to avoid trailing blanks.
+     * @throws IOException If writing to {@code out} fails.
+     */
+	private static void appendCell(Appendable out, String value, int width, boolean pad) throws IOException {
+		if (width <= 0) {
+			out.append(value);
+			return;
+		}
+		if (value.length() > width) {
+			out.append(value, 0, width);
+			return;
+		}
+		out.append(value);
+		for (int i = value.length(); pad && i < width; i++) {
+			out.append(' ');
+		}
+	}
+}
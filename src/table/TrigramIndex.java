@@ -0,0 +1,177 @@
+package table;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index supporting typo-tolerant search over the words of each contact's name, surname and address.
+ * Rows are indexed by the words they contain, and every distinct word is in turn indexed by its three-character
+ * substrings (trigrams). Words that differ by a typo still share most of their trigrams, so the words close to a
+ * misspelled query word are found by looking at a few trigram posting lists over the vocabulary, never at every row.
+ * @author Leuti Michele
+ */
+class TrigramIndex extends RowIndex<String> {
+	private final Map<String, Set<String>> wordsByGram;
+
+	/**
+     * Constructs an empty trigram index.
+     */
+	TrigramIndex() {
+		super(false);
+		this.wordsByGram = new HashMap<String, Set<String>>();
+	}
+
+	/**
+     * Computes the trigrams of a word. The word is padded with two spaces in front and one behind,
+     * so that the first letters, which are rarely mistyped, weigh more than the others.
+     *
+     * @param word The lower-cased word.
+     * @return The distinct trigrams of the word.
+     */
+	static Set<String> trigrams(String word) {
+		Set<String> grams = new LinkedHashSet<String>();
+		String padded = "  " + word + " ";
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			grams.add(padded.substring(i, i + 3));
+		}
+		return grams;
+	}
+
+	@Override
+	protected Collection<String> keysOf(Row r) {
+		Set<String> keys = new HashSet<String>(PrefixIndex.tokenize(r.getPerson().getName()));
+		keys.addAll(PrefixIndex.tokenize(r.getPerson().getSurname()));
+		keys.addAll(PrefixIndex.tokenize(r.getPerson().getAddress()));
+		return keys;
+	}
+
+	@Override
+	protected void keyAdded(String word) {
+		for (String gram : trigrams(word)) {
+			this.wordsByGram.computeIfAbsent(gram, g -> new HashSet<String>()).add(word);
+		}
+	}
+
+	@Override
+	protected void keyRemoved(String word) {
+		for (String gram : trigrams(word)) {
+			Set<String> words = this.wordsByGram.get(gram);
+			if (words != null) {
+				words.remove(word);
+				if (words.isEmpty()) {
+					this.wordsByGram.remove(gram);
+				}
+			}
+		}
+	}
+
+	/**
+     * Finds the indexed words within a given edit distance of a query word.
+     * A candidate word must share at least a third of the query's trigrams; since it then appears in at least one of
+     * any {@code n - minShared + 1} posting lists, only the shortest lists are scanned to collect candidates and the
+     * longer ones are merely probed. The surviving candidates are verified with the edit distance.
+     *
+     * @param token The lower-cased query word.
+     * @param tolerance The maximum edit distance.
+     * @return The matching words, mapped to their edit distance from the query word.
+     */
+	Map<String, Integer> similarWords(String token, int tolerance) {
+		Set<String> grams = trigrams(token);
+		List<Set<String>> lists = new ArrayList<Set<String>>();
+		for (String gram : grams) {
+			Set<String> words = this.wordsByGram.get(gram);
+			if (words != null) {
+				lists.add(words);
+			}
+		}
+		lists.sort(Comparator.comparingInt(Set::size));
+		int minShared = Math.max(1, (grams.size() + 3) / 3);
+		int scanned = grams.size() - minShared + 1;
+		Set<String> candidates = new HashSet<String>();
+		for (int i = 0; i < scanned && i < lists.size(); i++) {
+			candidates.addAll(lists.get(i));
+		}
+		Map<String, Integer> result = new HashMap<String, Integer>();
+		for (String word : candidates) {
+			if (Math.abs(word.length() - token.length()) > tolerance) {
+				continue;
+			}
+			int shared = 0;
+			for (Set<String> words : lists) {
+				if (words.contains(word)) {
+					shared++;
+				}
+			}
+			if (shared < minShared) {
+				continue;
+			}
+			int distance = EditDistance.distance(token, word, tolerance);
+			if (distance <= tolerance) {
+				result.put(word, distance);
+			}
+		}
+		return result;
+	}
+
+	/**
+     * Finds the indexed words containing a fragment, by intersecting the word lists of the fragment's trigrams,
+     * shortest first, and checking the few words left.
+     *
+     * @param fragment The lower-cased fragment, at least three characters long and made of letters and digits only.
+     * @return The words containing the fragment.
+     */
+	Set<String> wordsContaining(String fragment) {
+		List<Set<String>> lists = new ArrayList<Set<String>>();
+		for (int i = 0; i + 3 <= fragment.length(); i++) {
+			Set<String> words = this.wordsByGram.get(fragment.substring(i, i + 3));
+			if (words == null) {
+				return new HashSet<String>();
+			}
+			lists.add(words);
+		}
+		lists.sort(Comparator.comparingInt(Set::size));
+		Set<String> result = new HashSet<String>();
+		for (String word : lists.get(0)) {
+			if (word.contains(fragment)) {
+				result.add(word);
+			}
+		}
+		return result;
+	}
+
+	/**
+     * Retrieves the rows having a word that contains a fragment.
+     *
+     * @param fragment The lower-cased fragment, at least three characters long and made of letters and digits only.
+     * @return The matching rows.
+     */
+	Set<Row> matchContaining(String fragment) {
+		Set<Row> result = new LinkedHashSet<Row>();
+		for (String word : wordsContaining(fragment)) {
+			result.addAll(get(word));
+		}
+		return result;
+	}
+
+	/**
+     * Counts the postings of the words containing a fragment.
+     * The count is an upper bound of the number of matching rows.
+     *
+     * @param fragment The lower-cased fragment, at least three characters long and made of letters and digits only.
+     * @return The number of postings of the matching words.
+     */
+	int countContaining(String fragment) {
+		int count = 0;
+		for (String word : wordsContaining(fragment)) {
+			count += get(word).size();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,135 @@
+package utilities;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.util.Set;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.ListCellRenderer;
+import javax.swing.border.MatteBorder;
+
+import logic.Person;
+
+/**
+ * Draws the rows of the contacts list: the contact icon, the full name and the phone number of a contact, and in
+ * deletion mode the box that marks the contact for deletion.
+ * A single instance paints every visible row, so the list creates its components, icons and fonts once instead of
+ * once per contact, however many contacts the phonebook holds.
+ * @author Leuti Michele
+ */
+public class ContactCellRenderer extends JPanel implements ListCellRenderer<Person> {
+	private static final long serialVersionUID = 4128865302457783925L;
+	/**
+	 * The height of a row of the list, in pixels.
+	 */
+	public static final int ROW_HEIGHT = 45;
+	/**
+	 * The width of a row of the list, in pixels.
+	 */
+	public static final int ROW_WIDTH = 280;
+	private static final Font FONT = new Font("Arial", Font.BOLD, 13);
+	private final JLabel name;
+	private final JLabel phone;
+	private final SvgIconPanel empty;
+	private final SvgIconPanel check;
+	private final Set<Person> checked;
+
+	/**
+     * Constructs a renderer for the contacts list.
+     *
+     * @param background The background color of the rows.
+     * @param accent The color of the phone numbers and of the line under every row.
+     * @param checked The contacts marked for deletion, read every time a row is painted; null if the list is not in
+     * deletion mode.
+     */
+	public ContactCellRenderer(Color background, Color accent, Set<Person> checked) {
+		this.checked = checked;
+		this.setLayout(null);
+		this.setOpaque(true);
+		this.setBackground(background);
+		this.setBorder(new MatteBorder(0, 0, 2, 0, accent));
+
+		SvgIconPanel icon = new SvgIconPanel("Images/contact2.svg");
+		icon.setBackground(background);
+		icon.setBounds(5, 5, 35, 35);
+		this.add(icon);
+
+		this.name = new JLabel();
+		this.name.setFont(FONT);
+		this.name.setBounds(65, 3, 150, 20);
+		this.add(this.name);
+
+		this.phone = new JLabel();
+		this.phone.setForeground(accent);
+		this.phone.setFont(FONT);
+		this.phone.setBounds(65, 22, 150, 20);
+		this.add(this.phone);
+
+		this.empty = new SvgIconPanel("Images/empty.svg");
+		this.empty.setBackground(background);
+		this.empty.setBounds(240, 10, 25, 25);
+		this.add(this.empty);
+
+		this.check = new SvgIconPanel("Images/check.svg");
+		this.check.setBackground(background);
+		this.check.setBounds(240, 10, 25, 25);
+		this.add(this.check);
+	}
+
+	/**
+     * Prepares the renderer to paint the row of a contact.
+     *
+     * @param list The list being painted.
+     * @param p The contact of the row.
+     * @param index The index of the row.
+     * @param isSelected Ignored: rows are marked for deletion through the set given to the constructor.
+     * @param cellHasFocus Ignored.
+     * @return This renderer, showing the contact.
+     */
+	@Override
+	public Component getListCellRendererComponent(JList<? extends Person> list, Person p, int index, boolean isSelected,
+			boolean cellHasFocus) {
+		this.name.setText(p.getName() + " " + p.getSurname());
+		this.phone.setText(p.getPhone());
+		boolean marked = this.checked != null && this.checked.contains(p);
+		this.empty.setVisible(this.checked != null && !marked);
+		this.check.setVisible(marked);
+		return this;
+	}
+
+	/**
+     * Does nothing: the renderer is only painted, never laid out again, like the default renderers of Swing.
+     */
+	@Override
+	public void invalidate() {
+	}
+
+	/**
+     * Does nothing: the renderer is only painted, never laid out again, like the default renderers of Swing.
+     */
+	@Override
+	public void validate() {
+	}
+
+	/**
+     * Does nothing: the renderer is only painted, never laid out again, like the default renderers of Swing.
+     */
+	@Override
+	public void revalidate() {
+	}
+
+	/**
+     * Does nothing: the list repaints its rows itself.
+     *
+     * @param tm Ignored.
+     * @param x Ignored.
+     * @param y Ignored.
+     * @param width Ignored.
+     * @param height Ignored.
+     */
+	@Override
+	public void repaint(long tm, int x, int y, int width, int height) {
+	}
+}
@@ -0,0 +1,171 @@
+package utilities;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import com.kitfox.svg.SVGCache;
+import com.kitfox.svg.SVGDiagram;
+import com.kitfox.svg.SVGException;
+import com.kitfox.svg.SVGUniverse;
+
+/**
+ * A process-wide cache of SVG icons rasterized into images, shared by every {@link SvgButton} and {@link SvgIconPanel}.
+ * An icon is rendered from its vector form once for every size in device pixels it is painted at, which covers both
+ * the size of the component and the scale factor of a HiDPI screen; afterwards painting it only copies the image,
+ * which Java2D keeps in video memory. The least recently used images are evicted beyond the capacity, read from the
+ * system property {@code phonebook.icons.cache} and 256 by default.
+ * @author Leuti Michele
+ */
+public final class SvgImageCache {
+	/**
+	 * The maximum number of images kept in the cache.
+	 */
+	public static final int CAPACITY = Integer.getInteger("phonebook.icons.cache", 256);
+	private static final Map<Key, BufferedImage> IMAGES = new LinkedHashMap<Key, BufferedImage>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, BufferedImage> eldest) {
+			return this.size() > CAPACITY;
+		}
+	};
+
+	/**
+     * Prevents the instantiation of this class, which only has static methods.
+     */
+	private SvgImageCache() {
+	}
+
+	/**
+     * Loads the diagram of an SVG file, which the SVG library parses only the first time.
+     *
+     * @param svgURI The URI of the SVG file.
+     * @return The diagram, or null if the file cannot be loaded.
+     */
+	public static SVGDiagram diagram(URI svgURI) {
+		try {
+			SVGUniverse svgUniverse = SVGCache.getSVGUniverse();
+			return svgUniverse.getDiagram(svgURI);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+     * Paints an SVG icon scaled to fit an area while keeping its aspect ratio, centered in the area.
+     * The icon is rasterized at the resolution of the device the graphics draws on.
+     *
+     * @param g The graphics to paint with.
+     * @param svgURI The URI of the SVG file.
+     * @param width The width of the area, in user space.
+     * @param height The height of the area, in user space.
+     * @return True if the icon was painted, false if the file cannot be loaded or the area is empty.
+     */
+	public static boolean paint(Graphics g, URI svgURI, int width, int height) {
+		AffineTransform transform = ((Graphics2D) g).getTransform();
+		int pixelWidth = (int) Math.ceil(width * Math.abs(transform.getScaleX()));
+		int pixelHeight = (int) Math.ceil(height * Math.abs(transform.getScaleY()));
+		BufferedImage image = get(svgURI, pixelWidth, pixelHeight);
+		if (image == null) {
+			return false;
+		}
+		g.drawImage(image, 0, 0, width, height, null);
+		return true;
+	}
+
+	/**
+     * Retrieves the image of an SVG icon at a given size, rasterizing it if it is not in the cache.
+     *
+     * @param svgURI The URI of the SVG file.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in pixels.
+     * @return The image, or null if the file cannot be loaded or the size is empty.
+     */
+	public static synchronized BufferedImage get(URI svgURI, int width, int height) {
+		if (svgURI == null || width <= 0 || height <= 0) {
+			return null;
+		}
+		Key key = new Key(svgURI, width, height);
+		BufferedImage image = IMAGES.get(key);
+		if (image == null) {
+			SVGDiagram svgDiagram = diagram(svgURI);
+			if (svgDiagram == null) {
+				return null;
+			}
+			image = rasterize(svgDiagram, width, height);
+			IMAGES.put(key, image);
+		}
+		return image;
+	}
+
+	/**
+     * Empties the cache.
+     */
+	public static synchronized void clear() {
+		IMAGES.clear();
+	}
+
+	/**
+     * Renders a diagram into a new transparent image, scaled to fit it while keeping its aspect ratio and centered.
+     *
+     * @param svgDiagram The diagram to render.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in pixels.
+     * @return The image.
+     */
+	private static BufferedImage rasterize(SVGDiagram svgDiagram, int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = image.createGraphics();
+		try {
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			float scale = Math.min(width / svgDiagram.getWidth(), height / svgDiagram.getHeight());
+			g2d.translate((width - svgDiagram.getWidth() * scale) / 2, (height - svgDiagram.getHeight() * scale) / 2);
+			g2d.scale(scale, scale);
+			svgDiagram.render(g2d);
+		}
+		catch (SVGException e) {
+			e.printStackTrace();
+		}
+		finally {
+			g2d.dispose();
+		}
+		return image;
+	}
+
+	/**
+     * Identifies an image of the cache: an SVG file rasterized at a size in pixels.
+     */
+	private static final class Key {
+		private final URI svgURI;
+		private final int width;
+		private final int height;
+
+		Key(URI svgURI, int width, int height) {
+			this.svgURI = svgURI;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key)) {
+				return false;
+			}
+			Key k = (Key) o;
+			return this.width == k.width && this.height == k.height && this.svgURI.equals(k.svgURI);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(this.svgURI, this.width, this.height);
+		}
+	}
+}